@@ -0,0 +1,62 @@
+package com.drones.model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API row kernel. Only compiled by the simd Maven profile; loaded by
+ * DiffusionKernel.best() when jdk.incubator.vector is present at run time.
+ * Lanes perform the same operations in the same order as the scalar kernel.
+ */
+public class VectorDiffusionKernel implements DiffusionKernel {
+    
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    
+    private final ScalarDiffusionKernel scalar = new ScalarDiffusionKernel();
+    
+    @Override
+    public void diffuseRow(double[] a, int ao, double[] m, int mo, double[] b, int bo,
+                           double[] out, int oo, int x0, int x1, int width, double spread) {
+        int from = Math.max(x0, 1);
+        int to = Math.min(x1, width - 1);
+        if (width < 3 || to - from < SPECIES.length()) {
+            scalar.diffuseRow(a, ao, m, mo, b, bo, out, oo, x0, x1, width, spread);
+            return;
+        }
+        
+        // Borders go through the scalar kernel
+        if (x0 == 0) {
+            scalar.diffuseRow(a, ao, m, mo, b, bo, out, oo, 0, 1, width, spread);
+        }
+        if (x1 == width) {
+            scalar.diffuseRow(a, ao, m, mo, b, bo, out, oo, width - 1, width, width, spread);
+        }
+        
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        DoubleVector sp = DoubleVector.broadcast(SPECIES, spread);
+        int j = from;
+        for (int upper = to - SPECIES.length(); j <= upper; j += SPECIES.length()) {
+            DoubleVector above = DoubleVector.fromArray(SPECIES, a, ao + j - 1)
+                .add(DoubleVector.fromArray(SPECIES, a, ao + j))
+                .add(DoubleVector.fromArray(SPECIES, a, ao + j + 1));
+            DoubleVector sides = DoubleVector.fromArray(SPECIES, m, mo + j - 1)
+                .add(DoubleVector.fromArray(SPECIES, m, mo + j + 1));
+            DoubleVector below = DoubleVector.fromArray(SPECIES, b, bo + j - 1)
+                .add(DoubleVector.fromArray(SPECIES, b, bo + j))
+                .add(DoubleVector.fromArray(SPECIES, b, bo + j + 1));
+            DoubleVector s = above.add(sides).add(below);
+            DoubleVector.fromArray(SPECIES, m, mo + j)
+                .add(s.mul(sp))
+                .min(one)
+                .intoArray(out, oo + j);
+        }
+        
+        // Tail
+        ScalarDiffusionKernel.interior(a, ao, m, mo, b, bo, out, oo, j, to, spread);
+    }
+    
+    @Override
+    public String getName() {
+        return "vector-" + SPECIES.length() + "x64";
+    }
+}
@@ -0,0 +1,178 @@
+package com.drones.cli;
+
+import com.drones.config.SimulationConfig;
+import com.drones.config.SimulationParams;
+import com.drones.config.SimulationScenario;
+import com.drones.control.SimulationEngine;
+import com.drones.metrics.ExportUtils;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Locale;
+
+/**
+ * Headless entry point: runs a scenario for a number of ticks (or simulated minutes)
+ * as fast as the machine allows, then prints the final metrics and the throughput.
+ *
+ *   java -cp swarm-simulator.jar com.drones.cli.BatchRunner --scenario HEAVY_POLLUTION --seed 42 --minutes 600
+ */
+public class BatchRunner {
+    
+    static final String USAGE =
+        "Usage: BatchRunner [--scenario NAME] [--drones N] [--seed N] (--ticks N | --minutes M) [--event-driven] [--csv FILE]\n" +
+        "  --scenario  one of NO_ANOMALIES, SPARSE_ANOMALIES, NORMAL_SCENARIO, HEAVY_POLLUTION, RAPIDLY_SPREADING\n" +
+        "  --drones    fleet size (default " + SimulationParams.NUM_DRONES + ")\n" +
+        "  --seed      random seed (default: current time)\n" +
+        "  --ticks     ticks to run, each " + SimulationParams.TICK_DURATION_MS + " ms of simulated time\n" +
+        "  --minutes   simulated minutes to run (default 60)\n" +
+        "  --event-driven  jump over quiet stretches instead of running every tick\n" +
+        "  --csv       write the metrics snapshots to this file";
+    
+    // Parsed command line
+    static class Options {
+        SimulationScenario scenario = SimulationScenario.NORMAL_SCENARIO;
+        int drones = SimulationParams.NUM_DRONES;
+        long seed = System.currentTimeMillis();
+        long ticks = 60L * 60 * 1000 / SimulationParams.TICK_DURATION_MS;
+        String csvFile;
+        boolean eventDriven;
+        
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--event-driven")) {
+                    o.eventDriven = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                try {
+                    switch (arg) {
+                        case "--scenario":
+                            o.scenario = SimulationScenario.valueOf(value.toUpperCase(Locale.ROOT));
+                            break;
+                        case "--drones":
+                            o.drones = Integer.parseInt(value);
+                            break;
+                        case "--seed":
+                            o.seed = Long.parseLong(value);
+                            break;
+                        case "--ticks":
+                            o.ticks = Long.parseLong(value);
+                            break;
+                        case "--minutes":
+                            o.ticks = Math.round(Double.parseDouble(value) * 60_000 / SimulationParams.TICK_DURATION_MS);
+                            break;
+                        case "--csv":
+                            o.csvFile = value;
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown option " + arg);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad value for " + arg + ": " + value);
+                }
+            }
+            if (o.ticks <= 0) {
+                throw new IllegalArgumentException("Nothing to run: ticks must be positive");
+            }
+            if (o.drones <= 0) {
+                throw new IllegalArgumentException("The fleet needs at least one drone");
+            }
+            return o;
+        }
+    }
+    
+    // Outcome of one run
+    static class Report {
+        SimulationEngine engine;
+        long ticks;
+        long wallNanos;
+        long peakHeapBytes;
+        
+        double ticksPerSecond() { return ticks * 1e9 / Math.max(1, wallNanos); }
+        double nanosPerTick() { return (double) wallNanos / ticks; }
+    }
+    
+    static Report run(Options options) {
+        SimulationConfig config = SimulationConfig.forScenario(options.scenario);
+        config.numDrones = options.drones;
+        SimulationEngine engine = new SimulationEngine(options.seed, config);
+        engine.setEventDriven(options.eventDriven);
+        resetHeapPeaks();
+        
+        engine.start();
+        long start = System.nanoTime();
+        for (long t = 0; t < options.ticks; ) {
+            t += engine.advance(options.ticks - t);
+        }
+        long wall = System.nanoTime() - start;
+        engine.stop();
+        
+        Report report = new Report();
+        report.engine = engine;
+        report.ticks = options.ticks;
+        report.wallNanos = wall;
+        report.peakHeapBytes = heapPeak();
+        return report;
+    }
+    
+    static void print(Options options, Report r) {
+        SimulationEngine.SimulationMetrics m = r.engine.getMetrics();
+        System.out.printf(Locale.ROOT, "scenario        %s (%s), %d drones%n", options.scenario, options.scenario.name, options.drones);
+        System.out.printf(Locale.ROOT, "seed            %d%n", r.engine.getSeed());
+        System.out.printf(Locale.ROOT, "ticks           %d (%.1f simulated minutes%s)%n", r.ticks, r.engine.getSimulationTime() / 60_000.0,
+                          options.eventDriven ? ", event-driven" : "");
+        System.out.printf(Locale.ROOT, "wall time       %.3f s%n", r.wallNanos / 1e9);
+        System.out.printf(Locale.ROOT, "throughput      %.0f ticks/s, %.0f ns/tick%n", r.ticksPerSecond(), r.nanosPerTick());
+        System.out.printf(Locale.ROOT, "peak heap       %.1f MB%n", r.peakHeapBytes / (1024.0 * 1024.0));
+        System.out.printf(Locale.ROOT, "coverage        %.2f %%%n", m.coveragePercentage);
+        System.out.printf(Locale.ROOT, "anomaly area    %.2f %%%n", m.anomalyAreaPercentage);
+        System.out.printf(Locale.ROOT, "anomalies       %d%n", m.anomaliesDetected);
+        System.out.printf(Locale.ROOT, "avg detection   %.0f ms%n", m.averageDetectionTime);
+        System.out.printf(Locale.ROOT, "drones          %d active, %d charging%n", m.activeDrones, m.rechargingDrones);
+    }
+    
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        
+        Report report = run(options);
+        print(options, report);
+        
+        if (options.csvFile != null) {
+            try {
+                ExportUtils.exportMetricsToCSV(report.engine.getMetrics().toSnapshots(), options.csvFile);
+            } catch (IOException e) {
+                System.err.println("Cannot write " + options.csvFile + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+    
+    private static void resetHeapPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+    
+    // Sum of the heap pools' peaks since the reset (an upper bound on the true peak)
+    private static long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,131 @@
+package com.drones.cli;
+
+import com.drones.config.SimulationConfig;
+import com.drones.config.SimulationParams;
+import com.drones.config.SimulationScenario;
+import com.drones.control.ParameterSweep;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parameter sweep from the command line. Prints one CSV line per grid point as soon
+ * as all its runs are done (so lines come out of order), with mean and percentiles
+ * of the final metrics over the runs.
+ *
+ *   java -cp swarm-simulator.jar com.drones.cli.SweepRunner --drones 5,7,10 --decay 0.9,0.95 --runs 50 --minutes 60
+ */
+public class SweepRunner {
+    
+    static final String USAGE =
+        "Usage: SweepRunner [--scenario NAME] [--drones N,..] [--decay R,..] [--diffusion F,..] [--spawn P,..]\n" +
+        "                   [--runs N] [--seed N] (--ticks N | --minutes M) [--threads N]\n" +
+        "  --scenario  base dynamics (default NORMAL_SCENARIO); swept values override it\n" +
+        "  --runs      independent runs per grid point (default 20)\n" +
+        "  --minutes   simulated minutes per run (default 60)\n" +
+        "  --threads   worker threads (default: all cores)";
+    
+    static class Options {
+        SimulationScenario scenario = SimulationScenario.NORMAL_SCENARIO;
+        double[] drones, decay, diffusion, spawn;
+        int runs = 20;
+        long seed = System.currentTimeMillis();
+        long ticks = 60L * 60 * 1000 / SimulationParams.TICK_DURATION_MS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                try {
+                    switch (arg) {
+                        case "--scenario":
+                            o.scenario = SimulationScenario.valueOf(value.toUpperCase(Locale.ROOT));
+                            break;
+                        case "--drones": o.drones = list(value); break;
+                        case "--decay": o.decay = list(value); break;
+                        case "--diffusion": o.diffusion = list(value); break;
+                        case "--spawn": o.spawn = list(value); break;
+                        case "--runs": o.runs = Integer.parseInt(value); break;
+                        case "--seed": o.seed = Long.parseLong(value); break;
+                        case "--ticks": o.ticks = Long.parseLong(value); break;
+                        case "--minutes":
+                            o.ticks = Math.round(Double.parseDouble(value) * 60_000 / SimulationParams.TICK_DURATION_MS);
+                            break;
+                        case "--threads": o.threads = Integer.parseInt(value); break;
+                        default:
+                            throw new IllegalArgumentException("Unknown option " + arg);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad value for " + arg + ": " + value);
+                }
+            }
+            if (o.ticks <= 0 || o.runs <= 0 || o.threads <= 0) {
+                throw new IllegalArgumentException("ticks, runs and threads must be positive");
+            }
+            return o;
+        }
+        
+        private static double[] list(String value) {
+            return Arrays.stream(value.split(",")).mapToDouble(s -> Double.parseDouble(s.trim())).toArray();
+        }
+        
+        ParameterSweep sweep() {
+            ParameterSweep sweep = new ParameterSweep(SimulationConfig.forScenario(scenario), ticks, runs, seed);
+            if (drones != null) sweep.vary(ParameterSweep.Axis.DRONES, drones);
+            if (decay != null) sweep.vary(ParameterSweep.Axis.DECAY, decay);
+            if (diffusion != null) sweep.vary(ParameterSweep.Axis.DIFFUSION, diffusion);
+            if (spawn != null) sweep.vary(ParameterSweep.Axis.SPAWN, spawn);
+            return sweep;
+        }
+    }
+    
+    static String header() {
+        return "drones,decay,diffusion,spawn,runs," +
+               "coverage_mean,coverage_p50,coverage_p90," +
+               "detections_mean,detections_p50,detections_p90," +
+               "latency_ms_mean,latency_ms_p50,latency_ms_p90,latency_ms_p99";
+    }
+    
+    static String line(ParameterSweep.PointSummary s) {
+        SimulationConfig c = s.point.config;
+        return String.format(Locale.ROOT, "%d,%.4f,%.4f,%.4f,%d,%.3f,%.3f,%.3f,%.2f,%.0f,%.0f,%.0f,%.0f,%.0f,%.0f",
+            c.numDrones, c.decayRate, c.diffusionFactor, c.spawnProbability, s.runs,
+            s.coverage.mean, s.coverage.p50, s.coverage.p90,
+            s.detections.mean, s.detections.p50, s.detections.p90,
+            s.detectionLatency.mean, s.detectionLatency.p50, s.detectionLatency.p90, s.detectionLatency.p99);
+    }
+    
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        
+        ParameterSweep sweep = options.sweep();
+        ForkJoinPool pool = new ForkJoinPool(options.threads);
+        long start = System.nanoTime();
+        try {
+            System.out.println(header());
+            sweep.run(pool, summary -> {
+                System.out.println(line(summary));
+                System.out.flush();
+            });
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long runs = (long) sweep.points().size() * options.runs;
+        System.err.printf(Locale.ROOT, "%d runs, %d ticks each, in %.1f s (%.0f ticks/s)%n",
+                          runs, options.ticks, seconds, runs * options.ticks / seconds);
+    }
+}
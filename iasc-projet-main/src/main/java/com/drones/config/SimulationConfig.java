@@ -0,0 +1,99 @@
+package com.drones.config;
+
+/**
+ * One simulation's parameters. Starts from the SimulationParams defaults; each
+ * engine owns its own instance, so several configurations can run in one JVM.
+ */
+public class SimulationConfig {
+    // Grid dimensions
+    public int gridWidth = SimulationParams.GRID_WIDTH;
+    public int gridHeight = SimulationParams.GRID_HEIGHT;
+    
+    // Simulation timing (ms)
+    public int tickDurationMs = SimulationParams.TICK_DURATION_MS;
+    
+    // Drone parameters
+    public int numDrones = SimulationParams.NUM_DRONES;
+    public double droneSpeed = SimulationParams.DRONE_SPEED;
+    public int droneAutonomyMs = SimulationParams.DRONE_AUTONOMY_MS;
+    public int droneRechargeMs = SimulationParams.DRONE_RECHARGE_MS;
+    public int measurementDurationMs = SimulationParams.MEASUREMENT_DURATION_MS;
+    public int trajectoryPoints = SimulationParams.TRAJECTORY_POINTS;
+    public double trajectoryTolerance = SimulationParams.TRAJECTORY_TOLERANCE;
+    public int eventLogCapacity = SimulationParams.EVENT_LOG_CAPACITY;
+    
+    // Anomaly parameters
+    public double spawnProbability = SimulationParams.ANOMALY_SPAWN_PROBABILITY;
+    public double diffusionFactor = SimulationParams.ANOMALY_DIFFUSION_FACTOR;
+    public double decayRate = SimulationParams.ANOMALY_DECAY_RATE;
+    public double detectionThreshold = SimulationParams.ANOMALY_DETECTION_THRESHOLD;
+    public double detectionRadius = SimulationParams.ANOMALY_DETECTION_RADIUS;
+    public double hotspotThreshold = SimulationParams.HOTSPOT_THRESHOLD;
+    
+    // Re-tasking
+    public double retaskRadius = SimulationParams.RETASK_RADIUS;
+    public int retaskCandidates = SimulationParams.RETASK_CANDIDATES;
+    public int retaskMaxBids = SimulationParams.RETASK_MAX_BIDS;
+    public int revisitAgeMs = SimulationParams.REVISIT_AGE_MS;
+    
+    // Navigation
+    public double[] bases = {SimulationParams.BASE_X, SimulationParams.BASE_Y}; // (x, y) pairs
+    public int[] noFlyZones = {}; // cell rectangles (x0, y0, x1, y1), ends exclusive
+    public int navigationCacheSize = SimulationParams.NAVIGATION_CACHE_SIZE;
+    public int navigationWindowMargin = SimulationParams.NAVIGATION_WINDOW_MARGIN;
+    
+    // Parallelism thresholds
+    public int parallelFieldMinCells = SimulationParams.PARALLEL_FIELD_MIN_CELLS;
+    public int parallelDronesMin = SimulationParams.PARALLEL_DRONES_MIN;
+    
+    public static SimulationConfig defaults() {
+        return new SimulationConfig();
+    }
+    
+    // Defaults with the scenario's anomaly dynamics
+    public static SimulationConfig forScenario(SimulationScenario scenario) {
+        SimulationConfig config = new SimulationConfig();
+        scenario.applyTo(config);
+        return config;
+    }
+    
+    public SimulationConfig copy() {
+        SimulationConfig c = new SimulationConfig();
+        c.gridWidth = gridWidth;
+        c.gridHeight = gridHeight;
+        c.tickDurationMs = tickDurationMs;
+        c.numDrones = numDrones;
+        c.droneSpeed = droneSpeed;
+        c.droneAutonomyMs = droneAutonomyMs;
+        c.droneRechargeMs = droneRechargeMs;
+        c.measurementDurationMs = measurementDurationMs;
+        c.trajectoryPoints = trajectoryPoints;
+        c.trajectoryTolerance = trajectoryTolerance;
+        c.eventLogCapacity = eventLogCapacity;
+        c.spawnProbability = spawnProbability;
+        c.diffusionFactor = diffusionFactor;
+        c.decayRate = decayRate;
+        c.detectionThreshold = detectionThreshold;
+        c.detectionRadius = detectionRadius;
+        c.hotspotThreshold = hotspotThreshold;
+        c.retaskRadius = retaskRadius;
+        c.retaskCandidates = retaskCandidates;
+        c.retaskMaxBids = retaskMaxBids;
+        c.revisitAgeMs = revisitAgeMs;
+        c.bases = bases.clone();
+        c.noFlyZones = noFlyZones.clone();
+        c.navigationCacheSize = navigationCacheSize;
+        c.navigationWindowMargin = navigationWindowMargin;
+        c.parallelFieldMinCells = parallelFieldMinCells;
+        c.parallelDronesMin = parallelDronesMin;
+        return c;
+    }
+    
+    // Same configuration with a different grid size
+    public SimulationConfig withGrid(int width, int height) {
+        SimulationConfig c = copy();
+        c.gridWidth = width;
+        c.gridHeight = height;
+        return c;
+    }
+}
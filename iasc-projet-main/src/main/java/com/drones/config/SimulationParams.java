@@ -14,15 +14,39 @@ public class SimulationParams {
     public static final int DRONE_AUTONOMY_MS = 30 * 60 * 1000; // 30 minutes
     public static final int DRONE_RECHARGE_MS = 10 * 60 * 1000; // 10 minutes
     public static final int MEASUREMENT_DURATION_MS = 10 * 1000; // 10 seconds
+    public static final int TRAJECTORY_POINTS = 4096; // kept per drone after simplification
+    public static final double TRAJECTORY_TOLERANCE = 0.05; // cells off a straight line still dropped
+    public static final int EVENT_LOG_CAPACITY = 10_000; // events kept, oldest overwritten
     
     // Anomaly parameters
     public static final double ANOMALY_SPAWN_PROBABILITY = 0.05; // 5% per tick
     public static final double ANOMALY_DIFFUSION_FACTOR = 0.1; // spread to neighbors
     public static final double ANOMALY_DECAY_RATE = 0.95; // intensity *= 0.95 per tick
     public static final double ANOMALY_DETECTION_THRESHOLD = 0.3;
+    public static final double ANOMALY_DETECTION_RADIUS = 1.5; // cells from a reading to its source
+    public static final double HOTSPOT_THRESHOLD = 0.7; // cells above this call for a drone
+    public static final double RETASK_RADIUS = 5.0; // a hotspot this close to an active drone needs none
+    public static final int RETASK_CANDIDATES = 8; // nearest drones each hotspot bids on
+    public static final int RETASK_MAX_BIDS = 16; // auction bids per hotspot before the rest go to the nearest free drone
+    public static final int REVISIT_AGE_MS = 2 * 60 * 1000; // idle drones revisit regions unseen this long
+    
+    // Navigation
+    public static final double BASE_X = 0; // default single base
+    public static final double BASE_Y = 0;
+    public static final int NAVIGATION_CACHE_SIZE = 16; // flow fields towards single targets kept
+    public static final int NAVIGATION_WINDOW_MARGIN = 64; // cells a target field reaches past its target and drones
+    
+    // Field update: grids at least this large diffuse in parallel row bands
+    public static final int PARALLEL_FIELD_MIN_CELLS = 512 * 512;
+    // Fleets at least this large update their drones in parallel chunks
+    public static final int PARALLEL_DRONES_MIN = 4096;
+    
+    // Simulation thread: most ticks run in one step to catch up, the rest is dropped
+    public static final int MAX_CATCH_UP_TICKS = 256;
     
     // UI scaling
     public static final int CELL_SIZE_PX = 12; // pixels per cell
+    public static final int HEATMAP_MIN_BLOCK_PX = 3; // smaller cells are drawn from the coarse pyramid
     
     private SimulationParams() {
         // No instantiation
@@ -52,8 +52,10 @@ public enum SimulationScenario {
         this.diffusionFactor = diffusion;
     }
     
-    public static void applyScenario(SimulationScenario scenario) {
-        // In a real project, we'd use dependency injection
-        // For now, this is a placeholder for dynamic parameter adjustment
+    // Set the scenario's anomaly dynamics on a configuration
+    public void applyTo(SimulationConfig config) {
+        config.spawnProbability = spawnProbability;
+        config.decayRate = decayRate;
+        config.diffusionFactor = diffusionFactor;
     }
 }
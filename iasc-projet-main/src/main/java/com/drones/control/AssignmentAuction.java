@@ -0,0 +1,116 @@
+package com.drones.control;
+
+import java.util.Arrays;
+
+/**
+ * Forward auction matching targets to distinct drones at least total cost (the
+ * coordinator bids squared distances, so no square root is taken per candidate).
+ * Each target only bids on its own short candidate list (its nearest drones) and
+ * may also stay unassigned at a fixed cost, so a drone's price stops rising once
+ * the targets competing for it would rather go without. Every bid raises a price
+ * by at least epsilon, which bounds the work; the result is within
+ * targets * epsilon of the best total cost over the candidate lists. Crowded lists
+ * can still take many bids to settle, so a solve may also be capped at a number of
+ * bids: the targets still bidding then stay unassigned, for the caller to place.
+ * Arrays are kept between solves, so a round allocates only when it grows.
+ */
+public class AssignmentAuction {
+    public static final double DEFAULT_EPSILON = 0.01; // cost units
+    
+    private final double epsilon;
+    private double[] price = new double[0]; // per drone
+    private int[] owner = new int[0];       // per drone: target holding it, -1 free
+    private int[] touched = new int[0];     // drones with a price, reset on the next solve
+    private int touchedCount;
+    private int[] assigned = new int[0];    // per target: drone, -1 none
+    private int[] queue = new int[0];       // targets still bidding
+    private int bids;                       // placed by the last solve
+    
+    public AssignmentAuction() {
+        this(DEFAULT_EPSILON);
+    }
+    
+    public AssignmentAuction(double epsilon) {
+        this.epsilon = epsilon;
+    }
+    
+    /**
+     * Assign targets [0, targets) given, for target t, candidates[t * k + c] (a drone
+     * index, or -1 past the end of its list) at cost distance[t * k + c]. A target left
+     * out costs unassignedCost. Returns per target the drone or -1, valid until the
+     * next solve; a drone is used by at most one target.
+     */
+    public int[] solve(int targets, int k, int[] candidates, double[] distance, int drones, double unassignedCost) {
+        return solve(targets, k, candidates, distance, drones, unassignedCost, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Same, stopping after maxBids bids: the targets outbid or not yet served by then
+     * are left unassigned (-1), the others keep distinct drones.
+     */
+    public int[] solve(int targets, int k, int[] candidates, double[] distance, int drones, double unassignedCost,
+            int maxBids) {
+        reset(targets, drones);
+        bids = 0;
+        int head = 0, tail = 0;
+        for (int t = 0; t < targets; t++) {
+            queue[tail++] = t;
+        }
+        // Each target is in the queue at most once, so a ring of targets slots suffices
+        while (head != tail && bids < maxBids) {
+            int t = queue[head];
+            head = head + 1 == queue.length ? 0 : head + 1;
+            
+            // Best and second best value: minus distance minus price, or staying out
+            int best = -1;
+            double bestValue = -unassignedCost, secondValue = -unassignedCost;
+            for (int c = t * k, end = c + k; c < end && candidates[c] >= 0; c++) {
+                double v = -distance[c] - price[candidates[c]];
+                if (v > bestValue) {
+                    secondValue = bestValue;
+                    bestValue = v;
+                    best = candidates[c];
+                } else if (v > secondValue) {
+                    secondValue = v;
+                }
+            }
+            if (best < 0) continue; // better off unassigned
+            
+            if (price[best] == 0 && owner[best] < 0) touched[touchedCount++] = best;
+            bids++;
+            price[best] += bestValue - secondValue + epsilon;
+            int outbid = owner[best];
+            owner[best] = t;
+            assigned[t] = best;
+            if (outbid >= 0) {
+                assigned[outbid] = -1;
+                queue[tail] = outbid;
+                tail = tail + 1 == queue.length ? 0 : tail + 1;
+            }
+        }
+        return assigned;
+    }
+    
+    // Bids placed by the last solve
+    public int getBids() { return bids; }
+    
+    private void reset(int targets, int drones) {
+        if (price.length < drones) {
+            price = new double[drones];
+            owner = new int[drones];
+            touched = new int[drones];
+            Arrays.fill(owner, -1);
+            touchedCount = 0;
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            price[touched[i]] = 0;
+            owner[touched[i]] = -1;
+        }
+        touchedCount = 0;
+        if (assigned.length < targets) {
+            assigned = new int[targets];
+            queue = new int[targets + 1];
+        }
+        Arrays.fill(assigned, 0, targets, -1);
+    }
+}
@@ -1,102 +1,462 @@
 package com.drones.control;
 
-import com.drones.config.SimulationParams;
+import com.drones.config.SimulationConfig;
+import com.drones.model.AnomalyIndex;
+import com.drones.model.CoverageMap;
 import com.drones.model.Drone;
-import com.drones.model.DroneState;
+import com.drones.model.DroneGrid;
 import com.drones.model.Environment;
+import com.drones.model.HotspotIndex;
+import com.drones.model.Navigation;
+import com.drones.model.WaypointCursor;
 import java.util.*;
 
+/**
+ * Drone tasking: the initial coverage plans, hotspot re-tasking and stale-region
+ * revisits. Re-tasking keeps a persistent assignment (hotspot cell <-> drone) and
+ * only does work on triggers: a hotspot appeared or vanished, a drone became active
+ * again or left active flight, an assigned drone arrived. A drone sent to a hotspot
+ * resumes its plan when it arrives, or when the hotspot vanishes with nothing left
+ * there above the detection threshold. Hotspots and regions inside no-fly zones
+ * are left alone.
+ */
 public class Coordinator {
-    private Set<String> visitedCells; // Cells already explored (x,y)
-    private Map<Integer, List<double[]>> droneWaypoints; // Cached waypoints per drone
+    private static final int WIDEN = 4; // candidate list growth for hotspots the first auction left out
+    private static final int STALE_REBUILD = 64; // drones taken since the last build before a fallback rebuilds the grid
+    
+    private Environment watched; // environment whose hotspot set we listen to
+    private int[] pending = new int[32]; // new hotspots (x, y pairs) not yet handled
+    private int pendingCount;
+    private int[] vanished = new int[32]; // hotspots (x, y pairs) that cooled down since the last call
+    private int vanishedCount;
+    private int[] waiting = new int[32]; // hotspots (x, y pairs) that needed a drone and got none
+    private int waitingCount;
+    private boolean droneFreed; // a drone became active since the last round
+    
+    // Persistent assignment, drones by list position
+    private int[] taskCell = new int[0];    // per drone: cell it was sent to, -1 none
+    private WaypointCursor[] resumePlan = new WaypointCursor[0]; // per drone: plan to go back to
+    private int[] assigned = new int[0];    // drones with a task, dense
+    private int[] assignedPos = new int[0]; // per drone: position in assigned
+    private int assignedCount;
+    
+    // Open addressing: hotspot cell -> drone sent there, sized for twice the drones
+    private int[] cellKeys = new int[0], cellDrones = new int[0];
+    private int cellMask;
+    
+    // Re-tasking scratch, kept between calls
+    private DroneGrid droneGrid;  // active drones, rebuilt every round
+    private AnomalyIndex picked;  // targets of the assigned drones (slot = drone), and of this round (slot past the drones)
+    private final AssignmentAuction auction = new AssignmentAuction();
+    private int[] targets = new int[0];       // this round's hotspots, x, y pairs
+    private int[] candidates = new int[0];    // k nearest drones per target
+    private double[] costs = new double[0];   // squared distances to the candidates
+    private int[] winner = new int[0];        // per target: drone, -1 none
+    private int[] rest = new int[0];          // targets the first auction left out
+    private int auctionBids;
+    private int[] nearDrone = new int[0];
+    private double[] nearDistSq = new double[0];
+    private boolean[] taken = new boolean[0];
+    private int[] idle = new int[0]; // idle drones, by list position
+    private int[] staleRegions = new int[0]; // regions to revisit, oldest first
+    
+    private final SimulationConfig config;
+    private final CoveragePlanner planner;
+    private Navigation navigation; // no-fly zones, null for none
     
     public Coordinator() {
-        visitedCells = new HashSet<>();
-        droneWaypoints = new HashMap<>();
+        this(SimulationConfig.defaults());
     }
     
-    // Generate initial coverage plan (raster scan)
-    public Map<Integer, List<double[]>> generateCoveragePlan(int numDrones) {
-        Map<Integer, List<double[]>> plan = new HashMap<>();
-        
-        int dronesPerRow = (int) Math.ceil(Math.sqrt(numDrones));
-        int cellsPerDrone = SimulationParams.GRID_WIDTH / dronesPerRow;
+    public Coordinator(SimulationConfig config) {
+        this.config = config;
+        planner = new CoveragePlanner(config.gridWidth, config.gridHeight, config.bases);
+    }
+    
+    public void setNavigation(Navigation navigation) {
+        this.navigation = navigation;
+    }
+    
+    // Initial coverage plan: one balanced rectangle of the grid per drone, see CoveragePlanner
+    public WaypointCursor[] generateCoveragePlan(int numDrones) {
+        return planner.plans(numDrones);
+    }
+    
+    private final HotspotIndex.Listener hotspotListener = new HotspotIndex.Listener() {
+        @Override
+        public void added(int x, int y, double value) {
+            pending = push(pending, pendingCount++, x, y);
+        }
         
-        for (int i = 0; i < numDrones; i++) {
-            List<double[]> waypoints = new ArrayList<>();
-            
-            int row = i / dronesPerRow;
-            int col = i % dronesPerRow;
-            
-            int startX = col * cellsPerDrone;
-            int startY = row * cellsPerDrone;
-            int endX = Math.min((col + 1) * cellsPerDrone, SimulationParams.GRID_WIDTH - 1);
-            int endY = Math.min((row + 1) * cellsPerDrone, SimulationParams.GRID_HEIGHT - 1);
-            
-            // Raster scan pattern within region
-            for (int y = startY; y <= endY; y++) {
-                if ((y - startY) % 2 == 0) {
-                    for (int x = startX; x <= endX; x++) {
-                        waypoints.add(new double[]{x, y});
-                    }
-                } else {
-                    for (int x = endX; x >= startX; x--) {
-                        waypoints.add(new double[]{x, y});
+        @Override
+        public void removed(int x, int y) {
+            // Only matters for hotspots a drone was sent to
+            if (droneAt(y * config.gridWidth + x) >= 0) {
+                vanished = push(vanished, vanishedCount++, x, y);
+            }
+        }
+    };
+    
+    private static int[] push(int[] pairs, int count, int x, int y) {
+        if (2 * count + 2 > pairs.length) {
+            pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        }
+        pairs[2 * count] = x;
+        pairs[2 * count + 1] = y;
+        return pairs;
+    }
+    
+    // Listen to the environment's hotspot set; hotspots already there are queued once
+    public void watch(Environment env) {
+        if (watched == env) return;
+        if (watched != null) watched.getHotspots().removeListener(hotspotListener);
+        watched = env;
+        pendingCount = 0;
+        vanishedCount = 0;
+        HotspotIndex hotspots = env.getHotspots();
+        for (int i = 0; i < hotspots.size(); i++) {
+            hotspotListener.added(hotspots.getX(i), hotspots.getY(i), 0);
+        }
+        hotspots.addListener(hotspotListener);
+    }
+    
+    /**
+     * Trigger: a drone changed state. Back to active, it may take a waiting hotspot;
+     * leaving active flight (returning, charging), it gives its hotspot up.
+     */
+    public void droneStateChanged(Drone drone) {
+        int d = drone.getFleetIndex();
+        switch (drone.getState()) {
+            case ACTIVE:
+                droneFreed = true;
+                break;
+            case RETURNING:
+            case CHARGING:
+                if (d < taskCell.length && taskCell[d] >= 0) {
+                    int cell = taskCell[d];
+                    if (watched != null && watched.getHotspots().contains(cell % config.gridWidth, cell / config.gridWidth)) {
+                        waiting = push(waiting, waitingCount++, cell % config.gridWidth, cell / config.gridWidth);
                     }
+                    release(drone, d);
                 }
-            }
-            
-            // Return to base
-            waypoints.add(new double[]{0, 0});
-            
-            plan.put(i, waypoints);
+                break;
+            default:
+                break;
         }
-        
-        return plan;
     }
     
-    // Adaptive re-tasking: if high anomaly detected, assign nearby drones
+    /**
+     * Adaptive re-tasking, run every tick: handles the triggers since the last call.
+     * Assigned drones that arrived, or whose hotspot vanished with nothing left to
+     * measure, go back to their plan.
+     * Then, if hotspots appeared (or some are waiting and a drone became active), one
+     * round matches them to free drones. A hotspot needs a drone unless an active drone,
+     * or another hotspot that has one, is within the re-tasking radius. Hotspots that
+     * need one are matched to distinct free active drones in an auction over their
+     * nearest candidates, capped at retaskMaxBids bids per hotspot; the ones it leaves
+     * out get a second capped auction over four times as many candidates, and any
+     * still left take the nearest drone still free, or wait.
+     * Without triggers a call costs one distance check per assigned drone.
+     */
     public void adaptiveRetasking(List<Drone> drones, Environment env) {
-        double[][] grid = env.getAnomalyIntensity();
+        watch(env);
+        ensureCapacity(drones.size());
+        
+        // Arrivals free their drones, and so do vanished hotspots with nothing left to measure
+        for (int i = 0; i < vanishedCount; i++) {
+            int x = vanished[2 * i], y = vanished[2 * i + 1];
+            int d = droneAt(y * config.gridWidth + x);
+            if (d >= 0 && env.getAnomalyAt(x, y) <= config.detectionThreshold) release(drones.get(d), d);
+        }
+        vanishedCount = 0;
+        for (int k = assignedCount - 1; k >= 0; k--) {
+            int d = assigned[k];
+            Drone drone = drones.get(d);
+            double dx = drone.getX() - taskCell[d] % config.gridWidth, dy = drone.getY() - taskCell[d] / config.gridWidth;
+            if (dx * dx + dy * dy < 0.25) release(drone, d);
+        }
+        
+        if (pendingCount == 0 && !(droneFreed && waitingCount > 0)) return;
+        droneFreed = false;
+        assignRound(drones, env.getHotspots());
+    }
+    
+    // Match waiting and new hotspots to free drones; the ones left over wait
+    private void assignRound(List<Drone> drones, HotspotIndex hotspots) {
+        int n = drones.size();
+        droneGrid.build(drones);
+        int k = Math.max(1, config.retaskCandidates);
+        double radius = config.retaskRadius;
+        int queued = waitingCount + pendingCount;
+        if (targets.length < 2 * queued) {
+            targets = new int[2 * queued];
+            winner = new int[queued];
+            rest = new int[queued];
+        }
+        if (candidates.length < queued * k) {
+            candidates = new int[queued * k];
+            costs = new double[queued * k];
+        }
+        if (nearDrone.length < k) {
+            nearDrone = new int[k];
+            nearDistSq = new double[k];
+        }
+        for (int i = 0; i < n; i++) {
+            taken[i] = taskCell[i] >= 0; // busy drones are not candidates
+        }
+        
+        // Hotspots that need a drone, waiting ones first, each with its nearest free drones
+        int count = 0;
+        for (int i = 0; i < queued; i++) {
+            int hx = i < waitingCount ? waiting[2 * i] : pending[2 * (i - waitingCount)];
+            int hy = i < waitingCount ? waiting[2 * i + 1] : pending[2 * (i - waitingCount) + 1];
+            if (!hotspots.contains(hx, hy)) continue; // cooled down before we got to it
+            if (navigation != null && navigation.isBlocked(hx, hy)) continue; // no-fly zone
+            if (droneGrid.anyWithin(hx, hy, radius) || picked.anyWithin(hx, hy, radius)) continue;
+            
+            picked.insert(n + count, hx, hy);
+            targets[2 * count] = hx;
+            targets[2 * count + 1] = hy;
+            int found = droneGrid.nearest(hx, hy, k, taken, nearDrone, nearDistSq);
+            for (int c = 0; c < k; c++) {
+                candidates[count * k + c] = c < found ? nearDrone[c] : -1;
+                costs[count * k + c] = c < found ? nearDistSq[c] : 0;
+            }
+            count++;
+        }
+        pendingCount = 0;
+        waitingCount = 0;
+        for (int t = 0; t < count; t++) {
+            picked.remove(n + t);
+        }
+        if (count == 0) return;
         
-        // Find hotspots (cells with high anomaly)
-        List<int[]> hotspots = new ArrayList<>();
-        for (int y = 0; y < env.getHeight(); y++) {
-            for (int x = 0; x < env.getWidth(); x++) {
-                if (grid[y][x] > 0.7) { // High anomaly threshold
-                    hotspots.add(new int[]{x, y});
+        // Distinct drones: a capped auction over the nearest candidates, a second one over
+        // wider lists for the hotspots it left out, then the nearest free drone for the rest
+        double span = config.gridWidth + config.gridHeight;
+        double unassignedCost = span * span; // more than any cost on the grid
+        int maxBids = Math.max(1, config.retaskMaxBids);
+        int[] won = auction.solve(count, k, candidates, costs, n, unassignedCost, count * maxBids);
+        auctionBids = auction.getBids();
+        int left = 0;
+        for (int t = 0; t < count; t++) {
+            winner[t] = won[t];
+            if (won[t] >= 0) taken[won[t]] = true;
+            else rest[left++] = t;
+        }
+        if (left > 0) {
+            int wide = k * WIDEN;
+            if (candidates.length < left * wide) {
+                candidates = new int[left * wide];
+                costs = new double[left * wide];
+            }
+            if (nearDrone.length < wide) {
+                nearDrone = new int[wide];
+                nearDistSq = new double[wide];
+            }
+            for (int i = 0; i < left; i++) {
+                int t = rest[i];
+                int found = droneGrid.nearest(targets[2 * t], targets[2 * t + 1], wide, taken, nearDrone, nearDistSq);
+                for (int c = 0; c < wide; c++) {
+                    candidates[i * wide + c] = c < found ? nearDrone[c] : -1;
+                    costs[i * wide + c] = c < found ? nearDistSq[c] : 0;
                 }
             }
+            won = auction.solve(left, wide, candidates, costs, n, unassignedCost, left * maxBids);
+            auctionBids += auction.getBids();
+            for (int i = 0; i < left; i++) {
+                winner[rest[i]] = won[i];
+                if (won[i] >= 0) taken[won[i]] = true;
+            }
+        }
+        // The fallback searches a grid without the taken drones, rebuilt as it takes more
+        int stale = STALE_REBUILD;
+        for (int t = 0, i = 0, wide = k * WIDEN; t < count; t++) {
+            int hx = targets[2 * t], hy = targets[2 * t + 1];
+            int drone = winner[t];
+            if (i < left && rest[i] == t) {
+                // Left out: first free drone of its wide list, closest first, if any
+                for (int c = i * wide, end = c + wide; drone < 0 && c < end && candidates[c] >= 0; c++) {
+                    if (!taken[candidates[c]]) drone = candidates[c];
+                }
+                i++;
+            }
+            if (drone < 0) {
+                if (stale >= STALE_REBUILD) {
+                    droneGrid.build(drones, taken);
+                    stale = 0;
+                }
+                if (droneGrid.nearest(hx, hy, 1, taken, nearDrone, nearDistSq) == 0) {
+                    waiting = push(waiting, waitingCount++, hx, hy);
+                    continue;
+                }
+                drone = nearDrone[0];
+            }
+            if (!taken[drone]) stale++; // still in the grid
+            taken[drone] = true;
+            assign(drones.get(drone), drone, hx, hy);
+        }
+    }
+    
+    // Auction bids placed by the last round, at most retaskMaxBids per hotspot and pass
+    int getAuctionBids() { return auctionBids; }
+    
+    // Send a drone to a hotspot; its plan is kept to resume afterwards
+    private void assign(Drone drone, int d, int hx, int hy) {
+        int cell = hy * config.gridWidth + hx;
+        putDrone(cell, d);
+        taskCell[d] = cell;
+        resumePlan[d] = drone.getPlan();
+        assigned[assignedCount] = d;
+        assignedPos[d] = assignedCount++;
+        picked.insert(d, hx, hy);
+        List<double[]> emergency = new ArrayList<>();
+        emergency.add(new double[]{hx, hy});
+        drone.setWaypoints(emergency);
+    }
+    
+    // End a drone's task and put it back on its plan
+    private void release(Drone drone, int d) {
+        removeDrone(taskCell[d]);
+        taskCell[d] = -1;
+        int last = assigned[--assignedCount];
+        assigned[assignedPos[d]] = last;
+        assignedPos[last] = assignedPos[d];
+        picked.remove(d);
+        drone.setPlan(resumePlan[d]);
+        resumePlan[d] = null;
+    }
+    
+    private void ensureCapacity(int drones) {
+        if (droneGrid == null) {
+            droneGrid = new DroneGrid(config.gridWidth, config.gridHeight);
+            picked = new AnomalyIndex(config.gridWidth, config.gridHeight);
+        }
+        if (taskCell.length < drones) {
+            int old = taskCell.length;
+            taskCell = Arrays.copyOf(taskCell, drones);
+            Arrays.fill(taskCell, old, drones, -1);
+            resumePlan = Arrays.copyOf(resumePlan, drones);
+            assigned = Arrays.copyOf(assigned, drones);
+            assignedPos = Arrays.copyOf(assignedPos, drones);
+            taken = new boolean[drones];
+            allocateCells(Integer.highestOneBit(Math.max(8, drones)) << 2);
+        }
+    }
+    
+    // Drone sent to a hotspot cell, -1 none
+    private int droneAt(int cell) {
+        if (cellKeys.length == 0) return -1;
+        for (int s = hash(cell); cellKeys[s] >= 0; s = (s + 1) & cellMask) {
+            if (cellKeys[s] == cell) return cellDrones[s];
+        }
+        return -1;
+    }
+    
+    private void putDrone(int cell, int d) {
+        int s = hash(cell);
+        while (cellKeys[s] >= 0 && cellKeys[s] != cell) s = (s + 1) & cellMask;
+        cellKeys[s] = cell;
+        cellDrones[s] = d;
+    }
+    
+    // Linear probing delete: shift later entries of the run back into the hole
+    private void removeDrone(int cell) {
+        int hole = hash(cell);
+        while (cellKeys[hole] != cell) {
+            if (cellKeys[hole] < 0) return;
+            hole = (hole + 1) & cellMask;
+        }
+        for (int s = (hole + 1) & cellMask; cellKeys[s] >= 0; s = (s + 1) & cellMask) {
+            int home = hash(cellKeys[s]);
+            if (((s - home) & cellMask) >= ((s - hole) & cellMask)) {
+                cellKeys[hole] = cellKeys[s];
+                cellDrones[hole] = cellDrones[s];
+                hole = s;
+            }
+        }
+        cellKeys[hole] = -1;
+    }
+    
+    // At most one entry per drone, so the table stays under half full
+    private void allocateCells(int capacity) {
+        cellKeys = new int[capacity];
+        cellDrones = new int[capacity];
+        cellMask = capacity - 1;
+        Arrays.fill(cellKeys, -1);
+        for (int k = 0; k < assignedCount; k++) {
+            putDrone(taskCell[assigned[k]], assigned[k]);
+        }
+    }
+    
+    private int hash(int cell) {
+        int h = cell * 0x9E3779B1;
+        return (h ^ (h >>> 16)) & cellMask;
+    }
+    
+    public int getAssignedCount() { return assignedCount; }
+    public int getWaitingCount() { return waitingCount; }
+    
+    // Hotspot cell a drone was sent to, -1 if none
+    public int getTask(int drone) {
+        return drone < taskCell.length ? taskCell[drone] : -1;
+    }
+    
+    /**
+     * Send idle drones where information is oldest. Once the stalest region has gone
+     * unseen for revisitAgeMs, the stale regions are taken oldest first, each by the
+     * nearest idle drone left, which sweeps it row by row.
+     */
+    public void revisitStaleRegions(List<Drone> drones, CoverageMap coverage, long now) {
+        int idleCount = 0;
+        for (int i = 0, n = drones.size(); i < n; i++) {
+            if (!drones.get(i).isIdle()) continue;
+            if (idle.length == idleCount) idle = Arrays.copyOf(idle, Math.max(8, 2 * idleCount));
+            idle[idleCount++] = i;
         }
+        if (idleCount == 0) return;
+        if (coverage.getRegionAge(coverage.stalestRegion(), now) < config.revisitAgeMs) return;
         
-        // For each hotspot, if no drone nearby, redirect one
-        for (int[] hotspot : hotspots) {
-            boolean droneNearby = drones.stream()
-                .filter(d -> d.getState() == DroneState.ACTIVE)
-                .anyMatch(d -> Math.sqrt(Math.pow(d.getX() - hotspot[0], 2) + 
-                                       Math.pow(d.getY() - hotspot[1], 2)) < 5);
-            
-            if (!droneNearby && !hotspots.isEmpty()) {
-                // Find idle active drone
-                Optional<Drone> idleDrone = drones.stream()
-                    .filter(d -> d.getState() == DroneState.ACTIVE)
-                    .min(Comparator.comparingDouble(d -> 
-                        Math.sqrt(Math.pow(d.getX() - hotspot[0], 2) + 
-                                 Math.pow(d.getY() - hotspot[1], 2))));
-                
-                if (idleDrone.isPresent()) {
-                    // Create emergency waypoints to hotspot
-                    List<double[]> emergency = new ArrayList<>();
-                    emergency.add(new double[]{hotspot[0], hotspot[1]});
-                    emergency.add(new double[]{0, 0}); // Return to base
-                    idleDrone.get().setWaypoints(emergency);
+        if (staleRegions.length < idleCount) staleRegions = new int[idle.length];
+        int count = coverage.stalestRegions(now, config.revisitAgeMs, staleRegions, idleCount);
+        for (int k = 0; k < count; k++) {
+            int r = staleRegions[k];
+            if (navigation != null && navigation.isBlocked(coverage.getRegionX0(r), coverage.getRegionY0(r),
+                                                           coverage.getRegionX1(r), coverage.getRegionY1(r))) {
+                continue; // nothing there a drone may fly over
+            }
+            double cx = coverage.getRegionCenterX(r), cy = coverage.getRegionCenterY(r);
+            int nearest = 0;
+            double best = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < idleCount; j++) {
+                Drone d = drones.get(idle[j]);
+                double dist = Math.hypot(d.getX() - cx, d.getY() - cy);
+                if (dist < best) {
+                    best = dist;
+                    nearest = j;
                 }
             }
+            drones.get(idle[nearest]).setPlan(new WaypointCursor(coverage.getRegionX0(r), coverage.getRegionY0(r),
+                                                                 coverage.getRegionX1(r), coverage.getRegionY1(r)));
+            idle[nearest] = idle[--idleCount];
         }
     }
     
+    // Ticks from the one at now until revisitStaleRegions() may send a drone, rounded down
+    public long ticksUntilRevisit(CoverageMap coverage, long now, long tickDurationMs) {
+        double wait = config.revisitAgeMs - coverage.getRegionAge(coverage.stalestRegion(), now);
+        return Math.max(0, (long) Math.ceil(wait / tickDurationMs) - 1);
+    }
+    
     public void reset() {
-        visitedCells.clear();
-        droneWaypoints.clear();
+        pendingCount = 0;
+        vanishedCount = 0;
+        waitingCount = 0;
+        droneFreed = false;
+        assignedCount = 0;
+        Arrays.fill(cellKeys, -1);
+        Arrays.fill(taskCell, -1);
+        Arrays.fill(resumePlan, null);
+        if (picked != null) picked.clear();
     }
 }
@@ -0,0 +1,81 @@
+package com.drones.control;
+
+import com.drones.model.WaypointCursor;
+
+/**
+ * Splits a grid into one rectangle per drone that tile it exactly with balanced
+ * areas, for any grid size and drone count. The grid is cut into columns, about as
+ * many as makes the rectangles square; each column holds a share of the drones and
+ * is as wide as that share of the grid, and is cut into that many equal rows. Every
+ * rectangle's bounds are computed in O(1) from the drone's index, and its plan is a
+ * WaypointCursor, so plans take O(drones) memory, not O(cells). A sweep ends at the
+ * base closest to the centre of its rectangle.
+ */
+public class CoveragePlanner {
+    private final int width, height;
+    private final double[] bases; // (x, y) pairs
+    
+    public CoveragePlanner(int width, int height) {
+        this(width, height, new double[]{0, 0});
+    }
+    
+    public CoveragePlanner(int width, int height, double[] bases) {
+        this.width = width;
+        this.height = height;
+        this.bases = bases.clone();
+    }
+    
+    // Sweep of drone i's rectangle out of drones, then back to the nearest base
+    public WaypointCursor plan(int drones, int i) {
+        int columns = columns(drones);
+        int perColumn = drones / columns, extra = drones % columns;
+        // The first extra columns hold one drone more
+        int column, row, inColumn;
+        if (i < extra * (perColumn + 1)) {
+            column = i / (perColumn + 1);
+            row = i % (perColumn + 1);
+            inColumn = perColumn + 1;
+        } else {
+            column = extra + (i - extra * (perColumn + 1)) / perColumn;
+            row = (i - extra * (perColumn + 1)) % perColumn;
+            inColumn = perColumn;
+        }
+        int x0 = (int) ((long) width * dronesBefore(column, perColumn, extra) / drones);
+        int x1 = (int) ((long) width * dronesBefore(column + 1, perColumn, extra) / drones);
+        int y0 = (int) ((long) height * row / inColumn);
+        int y1 = (int) ((long) height * (row + 1) / inColumn);
+        int b = nearestBase((x0 + x1) / 2.0, (y0 + y1) / 2.0);
+        return new WaypointCursor(x0, y0, x1, y1, bases[2 * b], bases[2 * b + 1]);
+    }
+    
+    public WaypointCursor[] plans(int drones) {
+        WaypointCursor[] plans = new WaypointCursor[drones];
+        for (int i = 0; i < drones; i++) {
+            plans[i] = plan(drones, i);
+        }
+        return plans;
+    }
+    
+    // Columns giving rectangles closest to square: drones * width / height of them
+    int columns(int drones) {
+        long c = Math.round(Math.sqrt((double) drones * width / Math.max(1, height)));
+        return (int) Math.max(1, Math.min(drones, c));
+    }
+    
+    private int nearestBase(double x, double y) {
+        int best = 0;
+        double bestSq = Double.MAX_VALUE;
+        for (int b = 0; b < bases.length / 2; b++) {
+            double dx = bases[2 * b] - x, dy = bases[2 * b + 1] - y;
+            if (dx * dx + dy * dy < bestSq) {
+                bestSq = dx * dx + dy * dy;
+                best = b;
+            }
+        }
+        return best;
+    }
+    
+    private static long dronesBefore(int column, int perColumn, int extra) {
+        return (long) column * perColumn + Math.min(column, extra);
+    }
+}
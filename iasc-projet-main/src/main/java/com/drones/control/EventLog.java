@@ -0,0 +1,170 @@
+package com.drones.control;
+
+import com.drones.model.DroneState;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simulation events as primitive records (time, type, drone, x, y, value) in a
+ * bounded ring. Appending writes a few array slots; text is only built when an
+ * event is read. Every event gets a sequence number; once the ring is full the
+ * oldest are overwritten, so retained events are [getFirstSequence(), getNextSequence()).
+ * Subscribers are told about new ranges when publish() is called (once per tick).
+ * Only the simulation thread appends; other threads may read with tryFormat().
+ */
+public class EventLog {
+    // Event types
+    public static final byte MESSAGE = 0;          // free text
+    public static final byte STATE_CHANGE = 1;     // value = new DroneState ordinal
+    public static final byte DETECTION = 2;        // x, y = position, value = measured intensity
+    public static final byte RETURNED_TO_BASE = 3;
+    
+    private static final DroneState[] STATES = DroneState.values();
+    
+    private final int capacity;
+    private final long[] time; // simulation ms
+    private final byte[] type;
+    private final int[] drone;
+    private final double[] x, y;
+    private final double[] value;
+    private final String[] text; // MESSAGE events only
+    private volatile long next; // sequence of the next event, written after its slot
+    private long published; // events before this were handed to subscribers
+    
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final List<String> view = new TextView();
+    
+    public interface Subscriber {
+        // Events [from, to) were appended; read them from the log before they are overwritten
+        void eventsAppended(EventLog log, long from, long to);
+        
+        default void logCleared() { }
+    }
+    
+    public EventLog(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.time = new long[this.capacity];
+        this.type = new byte[this.capacity];
+        this.drone = new int[this.capacity];
+        this.x = new double[this.capacity];
+        this.y = new double[this.capacity];
+        this.value = new double[this.capacity];
+        this.text = new String[this.capacity];
+    }
+    
+    public int getCapacity() { return capacity; }
+    public long getNextSequence() { return next; }
+    public long getFirstSequence() { return Math.max(0, next - capacity); }
+    public int size() { return (int) (next - getFirstSequence()); }
+    
+    public long append(byte eventType, long timeMs, int droneId, double ex, double ey, double eventValue) {
+        int s = (int) (next % capacity);
+        time[s] = timeMs;
+        type[s] = eventType;
+        drone[s] = droneId;
+        x[s] = ex;
+        y[s] = ey;
+        value[s] = eventValue;
+        text[s] = null;
+        return next++;
+    }
+    
+    public long message(long timeMs, String message) {
+        long seq = append(MESSAGE, timeMs, -1, 0, 0, 0);
+        text[(int) (seq % capacity)] = message;
+        return seq;
+    }
+    
+    public long getTime(long seq) { return time[slot(seq)]; }
+    public byte getType(long seq) { return type[slot(seq)]; }
+    public int getDrone(long seq) { return drone[slot(seq)]; }
+    public double getX(long seq) { return x[slot(seq)]; }
+    public double getY(long seq) { return y[slot(seq)]; }
+    public double getValue(long seq) { return value[slot(seq)]; }
+    
+    // The event as a log line, built now
+    public String format(long seq) {
+        int s = slot(seq);
+        String timestamp = String.format("[%.1f s] ", time[s] / 1000.0);
+        switch (type[s]) {
+            case STATE_CHANGE:
+                return timestamp + "Drone " + drone[s] + " → " + STATES[(int) value[s]].getLabel();
+            case DETECTION:
+                return timestamp + "Drone " + drone[s] + " détecte anomalie à (" +
+                       String.format("%.1f", x[s]) + "," +
+                       String.format("%.1f", y[s]) + ") - Intensité: " +
+                       String.format("%.2f", value[s]);
+            case RETURNED_TO_BASE:
+                return timestamp + "Drone " + drone[s] + " est retourné à la base";
+            default:
+                return timestamp + text[s];
+        }
+    }
+    
+    /**
+     * The event as a log line, from a thread other than the one appending: null if
+     * the event is no longer retained or its slot was being reused while read.
+     */
+    public String tryFormat(long seq) {
+        long n = next;
+        if (seq < n - capacity + 1 || seq >= n) return null; // next append writes seq's slot when n == seq + capacity
+        String line;
+        try {
+            line = format(seq);
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+        VarHandle.acquireFence(); // the slot reads above happen before the check below
+        return next < seq + capacity ? line : null;
+    }
+    
+    public void subscribe(Subscriber subscriber) { subscribers.add(subscriber); }
+    public void unsubscribe(Subscriber subscriber) { subscribers.remove(subscriber); }
+    
+    // Hand the events appended since the last call to the subscribers
+    public void publish() {
+        if (published == next) return;
+        long from = Math.max(published, getFirstSequence());
+        published = next;
+        for (Subscriber s : subscribers) {
+            s.eventsAppended(this, from, next);
+        }
+    }
+    
+    public void clear() {
+        next = 0;
+        published = 0;
+        Arrays.fill(text, null);
+        for (Subscriber s : subscribers) {
+            s.logCleared();
+        }
+    }
+    
+    // Retained events as formatted lines, oldest first
+    public List<String> asList() { return view; }
+    
+    private int slot(long seq) {
+        if (seq < getFirstSequence() || seq >= next) {
+            throw new IndexOutOfBoundsException("Event " + seq + " not retained [" + getFirstSequence() + ", " + next + ")");
+        }
+        return (int) (seq % capacity);
+    }
+    
+    private class TextView extends AbstractList<String> {
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= EventLog.this.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + EventLog.this.size());
+            }
+            return format(getFirstSequence() + index);
+        }
+        
+        @Override
+        public int size() {
+            return EventLog.this.size();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.drones.control;
+
+import com.drones.config.SimulationConfig;
+import com.drones.model.RandomStreams;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Monte Carlo sweep over a grid of configurations. Every grid point is a copy of
+ * the base configuration with some parameters replaced; each point is run
+ * runsPerPoint times with independent seeds, every run on its own engine, as tasks
+ * of a work-stealing pool. Results are aggregated as runs complete and a point's
+ * summary is handed to the listener as soon as its last run is in.
+ * Run k uses the same seed at every point (common random numbers), so differences
+ * between points come from the parameters rather than from the draws.
+ */
+public class ParameterSweep {
+    
+    // Parameters that can be swept
+    public enum Axis {
+        DRONES, DECAY, DIFFUSION, SPAWN;
+        
+        void apply(SimulationConfig config, double value) {
+            switch (this) {
+                case DRONES: config.numDrones = (int) value; break;
+                case DECAY: config.decayRate = value; break;
+                case DIFFUSION: config.diffusionFactor = value; break;
+                case SPAWN: config.spawnProbability = value; break;
+            }
+        }
+    }
+    
+    private final SimulationConfig base;
+    private final Map<Axis, double[]> axes = new EnumMap<>(Axis.class);
+    private final long ticks;
+    private final int runsPerPoint;
+    private final long seed;
+    
+    public interface Listener {
+        void pointFinished(PointSummary summary);
+    }
+    
+    public ParameterSweep(SimulationConfig base, long ticks, int runsPerPoint, long seed) {
+        this.base = base;
+        this.ticks = ticks;
+        this.runsPerPoint = runsPerPoint;
+        this.seed = seed;
+    }
+    
+    // Sweep this parameter over the given values (replaces earlier values for the axis)
+    public ParameterSweep vary(Axis axis, double... values) {
+        axes.put(axis, values.clone());
+        return this;
+    }
+    
+    // Cartesian product of the axes, first axis varying slowest
+    public List<Point> points() {
+        List<Point> points = new ArrayList<>();
+        Axis[] order = axes.keySet().toArray(new Axis[0]);
+        int[] digit = new int[order.length];
+        while (true) {
+            SimulationConfig config = base.copy();
+            double[] values = new double[order.length];
+            for (int a = 0; a < order.length; a++) {
+                values[a] = axes.get(order[a])[digit[a]];
+                order[a].apply(config, values[a]);
+            }
+            points.add(new Point(points.size(), order, values, config));
+            
+            int a = order.length - 1;
+            while (a >= 0 && ++digit[a] == axes.get(order[a]).length) {
+                digit[a--] = 0;
+            }
+            if (a < 0) return points;
+        }
+    }
+    
+    public long getRunSeed(int run) {
+        return new RandomStreams(seed).forRun(run).getSeed();
+    }
+    
+    // Run the whole sweep on the pool; listener calls happen on the calling thread
+    public void run(ForkJoinPool pool, Listener listener) {
+        List<Point> points = points();
+        CompletionService<RunResult> done = new ExecutorCompletionService<>(pool);
+        for (Point p : points) {
+            for (int r = 0; r < runsPerPoint; r++) {
+                done.submit(new RunTask(p, r));
+            }
+        }
+        
+        RunResult[][] results = new RunResult[points.size()][runsPerPoint];
+        int[] finished = new int[points.size()];
+        try {
+            for (int n = points.size() * runsPerPoint; n > 0; n--) {
+                RunResult r = done.take().get();
+                results[r.point][r.run] = r;
+                if (++finished[r.point] == runsPerPoint) {
+                    listener.pointFinished(new PointSummary(points.get(r.point), results[r.point]));
+                    results[r.point] = null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sweep interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sweep run failed", e.getCause());
+        }
+    }
+    
+    // One independent run: a fresh engine, ticked to the end
+    static RunResult runOnce(SimulationConfig config, long seed, long ticks) {
+        SimulationEngine engine = new SimulationEngine(seed, config.copy());
+        engine.start();
+        for (long t = 0; t < ticks; t++) {
+            engine.tick();
+        }
+        SimulationEngine.SimulationMetrics m = engine.getMetrics();
+        RunResult r = new RunResult();
+        r.coverage = m.coveragePercentage;
+        r.detections = m.getDetections();
+        r.detectionLatency = m.getDetections() > 0 ? m.averageDetectionTime : Double.NaN;
+        r.anomalies = m.anomaliesDetected;
+        return r;
+    }
+    
+    private class RunTask implements Callable<RunResult> {
+        final Point point;
+        final int run;
+        
+        RunTask(Point point, int run) {
+            this.point = point;
+            this.run = run;
+        }
+        
+        @Override
+        public RunResult call() {
+            RunResult r = runOnce(point.config, getRunSeed(run), ticks);
+            r.point = point.index;
+            r.run = run;
+            return r;
+        }
+    }
+    
+    // One grid point: its configuration and the swept values that define it
+    public static class Point {
+        public final int index;
+        public final Axis[] axes;
+        public final double[] values;
+        public final SimulationConfig config;
+        
+        Point(int index, Axis[] axes, double[] values, SimulationConfig config) {
+            this.index = index;
+            this.axes = axes;
+            this.values = values;
+            this.config = config;
+        }
+    }
+    
+    // Final metrics of one run
+    public static class RunResult {
+        public int point, run;
+        public double coverage;
+        public int detections;
+        public double detectionLatency; // ms, NaN without detections
+        public int anomalies;
+    }
+    
+    // Aggregates over the runs of one point
+    public static class PointSummary {
+        public final Point point;
+        public final int runs;
+        public final Stat coverage, detections, detectionLatency, anomalies;
+        
+        PointSummary(Point point, RunResult[] results) {
+            this.point = point;
+            this.runs = results.length;
+            double[] cov = new double[runs], det = new double[runs], lat = new double[runs], ano = new double[runs];
+            for (int i = 0; i < runs; i++) {
+                cov[i] = results[i].coverage;
+                det[i] = results[i].detections;
+                lat[i] = results[i].detectionLatency;
+                ano[i] = results[i].anomalies;
+            }
+            this.coverage = new Stat(cov);
+            this.detections = new Stat(det);
+            this.detectionLatency = new Stat(lat);
+            this.anomalies = new Stat(ano);
+        }
+    }
+    
+    // Mean and nearest-rank percentiles, NaN samples ignored
+    public static class Stat {
+        public final int count;
+        public final double mean, min, p50, p90, p99, max;
+        
+        public Stat(double[] samples) {
+            double[] s = Arrays.stream(samples).filter(v -> !Double.isNaN(v)).sorted().toArray();
+            count = s.length;
+            mean = count == 0 ? Double.NaN : Arrays.stream(s).sum() / count;
+            min = percentile(s, 0);
+            p50 = percentile(s, 50);
+            p90 = percentile(s, 90);
+            p99 = percentile(s, 99);
+            max = percentile(s, 100);
+        }
+        
+        private static double percentile(double[] sorted, double p) {
+            if (sorted.length == 0) return Double.NaN;
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
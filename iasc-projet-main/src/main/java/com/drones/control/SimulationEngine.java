@@ -1,126 +1,313 @@
 package com.drones.control;
 
-import com.drones.config.SimulationParams;
+import com.drones.config.SimulationConfig;
+import com.drones.config.SimulationScenario;
 import com.drones.model.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class SimulationEngine {
     private Environment environment;
-    private List<Drone> drones;
+    private DroneFleet fleet; // drone data, primitive arrays
+    private final TimingWheel timers; // drone deadlines, fired once per tick before the drone phase
+    private List<Drone> drones; // flyweight views over the fleet
+    private double[] readings; // field intensity under each drone, this tick
+    private double[] measured; // noisy reading of each detecting drone, NaN for the others
+    private ExecutorService droneExecutor; // null: drone phase runs on the caller thread
+    private List<DroneChunk> droneChunks;
     private long simulationTime;
     private boolean running;
     private SimulationMetrics metrics;
     private Coordinator coordinator;
-    private int tickCount;
-    private List<String> eventLog; // Logging des événements
+    private BaseStationStore baseStation; // readings uploaded by docked drones
+    private final CoverageMap coverage; // cells flown over, and when
+    private final Navigation navigation; // no-fly zones, bases and cached flow fields
+    private double[] lastX, lastY; // drone positions at the previous commit
+    private long tickCount;
+    private boolean eventDriven; // advance() skips quiet ticks
+    private EventLog eventLog; // Logging des événements, formatted when read
     private Map<Integer, List<double[]>> droneTrajectories; // Trajectoires des drones
+    private TrajectoryBuffer[] trajectories; // same buffers, by fleet index
+    private RandomStreams randomStreams;
+    private SimulationScenario scenario;
+    private final SimulationConfig config;
+    private SplittableRandom[] sensorNoise; // one stream per drone
     
     public SimulationEngine() {
-        this.environment = new Environment(SimulationParams.GRID_WIDTH, SimulationParams.GRID_HEIGHT);
-        this.drones = new ArrayList<>();
+        this(System.currentTimeMillis());
+    }
+    
+    // Same seed, same run: spawns and sensor noise come from seeded per-purpose streams
+    public SimulationEngine(long seed) {
+        this(seed, SimulationScenario.NORMAL_SCENARIO);
+    }
+    
+    public SimulationEngine(long seed, SimulationScenario scenario) {
+        this(seed, SimulationConfig.forScenario(scenario));
+        this.scenario = scenario;
+    }
+    
+    // Engine for one configuration; the config is owned by this engine from here on
+    public SimulationEngine(long seed, SimulationConfig config) {
+        this.config = config;
+        this.randomStreams = new RandomStreams(seed);
+        this.environment = new Environment(config, randomStreams);
+        this.timers = new TimingWheel(config.tickDurationMs);
+        this.navigation = new Navigation(config);
+        this.fleet = new DroneFleet(config, config.numDrones, timers, navigation);
+        this.drones = fleet.asList();
         this.simulationTime = 0;
         this.running = false;
-        this.metrics = new SimulationMetrics();
-        this.coordinator = new Coordinator();
+        this.coverage = new CoverageMap(config.gridWidth, config.gridHeight, config.tickDurationMs);
+        this.metrics = new SimulationMetrics(config.detectionThreshold, coverage);
+        this.coordinator = new Coordinator(config);
+        coordinator.setNavigation(navigation);
+        this.baseStation = new BaseStationStore(config.gridWidth, config.gridHeight);
+        coordinator.watch(environment);
         this.tickCount = 0;
-        this.eventLog = new ArrayList<>();
+        this.eventLog = new EventLog(config.eventLogCapacity);
         this.droneTrajectories = new HashMap<>();
         
-        // Initialize drones at base (0, 0)
-        for (int i = 0; i < SimulationParams.NUM_DRONES; i++) {
-            Drone drone = new Drone(i, 0, 0);
-            drones.add(drone);
-            droneTrajectories.put(i, new ArrayList<>());
+        // Initialize drones at the bases in turn, each with a bounded, simplified trajectory
+        this.trajectories = new TrajectoryBuffer[config.numDrones];
+        for (int i = 0; i < config.numDrones; i++) {
+            int b = i % navigation.getBaseCount();
+            fleet.add(i, navigation.getBaseX(b), navigation.getBaseY(b));
+            trajectories[i] = new TrajectoryBuffer(config.trajectoryPoints, config.trajectoryTolerance);
+            droneTrajectories.put(i, trajectories[i]);
         }
+        this.readings = new double[fleet.size()];
+        this.lastX = new double[fleet.size()];
+        this.lastY = new double[fleet.size()];
+        for (int i = 0; i < fleet.size(); i++) {
+            lastX[i] = fleet.getX(i);
+            lastY[i] = fleet.getY(i);
+        }
+        this.measured = new double[fleet.size()];
+        if (fleet.size() >= config.parallelDronesMin) {
+            setDroneExecutor(ForkJoinPool.commonPool());
+        }
+        
+        initializeSensorNoise();
         
         // Initialize waypoints (simple raster scan)
         initializeCoverageWaypoints();
     }
     
+    private void initializeSensorNoise() {
+        sensorNoise = new SplittableRandom[drones.size()];
+        for (Drone drone : drones) {
+            sensorNoise[drone.getId()] = randomStreams.forDrone(drone.getId());
+        }
+    }
+    
+    // Each drone sweeps its own rectangle of the grid, then flies back to base
     private void initializeCoverageWaypoints() {
-        int dronesPerRow = (int) Math.ceil(Math.sqrt(SimulationParams.NUM_DRONES));
-        int cellsPerDrone = SimulationParams.GRID_WIDTH / dronesPerRow;
-        
-        for (int i = 0; i < drones.size(); i++) {
-            List<double[]> waypoints = new ArrayList<>();
-            
-            // Assign a region to each drone
-            int row = i / dronesPerRow;
-            int col = i % dronesPerRow;
-            
-            int startX = col * cellsPerDrone;
-            int startY = row * cellsPerDrone;
-            int endX = Math.min((col + 1) * cellsPerDrone, SimulationParams.GRID_WIDTH);
-            int endY = Math.min((row + 1) * cellsPerDrone, SimulationParams.GRID_HEIGHT);
-            
-            // Raster scan pattern
-            for (int y = startY; y < endY; y++) {
-                if ((y - startY) % 2 == 0) {
-                    for (int x = startX; x < endX; x++) {
-                        waypoints.add(new double[]{x, y});
-                    }
-                } else {
-                    for (int x = endX - 1; x >= startX; x--) {
-                        waypoints.add(new double[]{x, y});
-                    }
-                }
+        WaypointCursor[] plans = coordinator.generateCoveragePlan(drones.size());
+        for (int i = 0; i < plans.length; i++) {
+            drones.get(i).setPlan(plans[i]);
+        }
+    }
+    
+    public boolean isEventDriven() { return eventDriven; }
+    
+    /**
+     * Event-driven mode: advance() jumps over stretches of ticks in which only timers
+     * run down and anomalies decay, straight to the next tick where something happens
+     * (a spawn, a timer running out, a drone moving or measuring, a metrics snapshot
+     * while anomalies are alive). Spawns are then drawn as geometric gaps, so runs match
+     * the fixed-tick mode statistically rather than draw for draw.
+     */
+    public void setEventDriven(boolean on) {
+        eventDriven = on;
+        environment.setGeometricSpawns(on);
+    }
+    
+    // Advance by up to maxTicks: several quiet ticks at once in event-driven mode, else one tick.
+    // Returns the ticks advanced (0 when stopped).
+    public long advance(long maxTicks) {
+        if (!running || maxTicks <= 0) return 0;
+        if (eventDriven) {
+            long quiet = quietTicks(maxTicks);
+            if (quiet > 1) {
+                skip(quiet);
+                return quiet;
             }
-            
-            // Go back to base
-            waypoints.add(new double[]{0, 0});
-            
-            drones.get(i).setWaypoints(waypoints);
         }
+        tick();
+        return 1;
+    }
+    
+    // Ticks ahead (at most limit) that would change nothing but timers and decay
+    private long quietTicks(long limit) {
+        long dt = config.tickDurationMs;
+        long quiet = Math.min(limit, environment.getQuietTicks());
+        if (!environment.isQuiescent()) {
+            // Decaying field: no new hotspot or reading can appear, but metrics sample it
+            if (config.decayRate > 1) return 0;
+            quiet = Math.min(quiet, metrics.ticksUntilSnapshot(simulationTime, dt));
+        }
+        for (int i = 0, n = fleet.size(); i < n && quiet > 0; i++) {
+            quiet = Math.min(quiet, fleet.quietTicks(i, dt));
+            if (fleet.isIdle(i)) {
+                quiet = Math.min(quiet, coordinator.ticksUntilRevisit(coverage, simulationTime, dt));
+            }
+            if (fleet.getState(i) == DroneState.ACTIVE
+                && environment.getAnomalyAt(fleet.getX(i), fleet.getY(i)) > config.detectionThreshold) {
+                return 0; // would measure
+            }
+        }
+        return quiet;
+    }
+    
+    private void skip(long ticks) {
+        long dt = config.tickDurationMs;
+        environment.skip(ticks, dt);
+        fleet.skip(ticks, dt);
+        // Drones hovering or measuring keep seeing their cell; the last skipped tick is what counts
+        long last = simulationTime + (ticks - 1) * dt;
+        for (int i = 0, n = fleet.size(); i < n; i++) {
+            if (fleet.getState(i) != DroneState.CHARGING) coverage.visit(fleet.getX(i), fleet.getY(i), last);
+        }
+        metrics.skipped(fleet, environment, simulationTime, ticks, dt);
+        tickCount += ticks;
+        simulationTime += ticks * dt;
     }
     
     public void tick() {
         if (!running) return;
         
         // Update environment
-        environment.update(SimulationParams.TICK_DURATION_MS);
+        environment.update(config.tickDurationMs);
         
-        // Update drones
-        for (Drone drone : drones) {
-            double oldState = drone.getState().ordinal();
-            drone.update(SimulationParams.TICK_DURATION_MS);
+        // Drone phase: timers due this tick fire first, then each drone moves and senses
+        // on its own data only, possibly in parallel
+        fleet.advanceTimers(config.tickDurationMs);
+        if (droneExecutor == null) {
+            updateDrones(0, fleet.size());
+        } else {
+            runDroneChunks();
+        }
+        
+        // Commit phase, in drone order: trajectories, logs, measurements, detections
+        for (int i = 0, n = fleet.size(); i < n; i++) {
+            Drone drone = fleet.get(i);
             
-            // Track trajectory
-            droneTrajectories.get(drone.getId()).add(new double[]{drone.getX(), drone.getY()});
+            // Track trajectory, and the cells flown over since the last tick
+            trajectories[i].add(drone.getX(), drone.getY());
+            if (fleet.getState(i) != DroneState.CHARGING) {
+                coverage.visitSegment(lastX[i], lastY[i], drone.getX(), drone.getY(), simulationTime);
+            }
+            lastX[i] = drone.getX();
+            lastY[i] = drone.getY();
             
             // Log state changes
-            if (drone.getState().ordinal() != oldState) {
-                logEvent("Drone " + drone.getId() + " → " + drone.getState().getLabel());
+            if (fleet.stateChanged(i)) {
+                eventLog.append(EventLog.STATE_CHANGE, simulationTime, drone.getId(), 0, 0, fleet.getStateOrdinal(i));
+                coordinator.droneStateChanged(drone);
             }
             
-            // If drone is active and at a waypoint, measure
-            if (drone.getState() == DroneState.ACTIVE) {
-                double intensity = environment.getAnomalyAt(drone.getX(), drone.getY());
-                if (intensity > SimulationParams.ANOMALY_DETECTION_THRESHOLD) {
-                    // Add noise to measurement
-                    double measured = intensity + (Math.random() - 0.5) * 0.1;
-                    drone.addMeasurement(measured, simulationTime, drone.getX(), drone.getY());
-                    logEvent("Drone " + drone.getId() + " détecte anomalie à (" + 
-                            String.format("%.1f", drone.getX()) + "," + 
-                            String.format("%.1f", drone.getY()) + ") - Intensité: " +
-                            String.format("%.2f", measured));
-                }
+            // Reading taken in the drone phase: store it and record the detection
+            if (!Double.isNaN(measured[i])) {
+                drone.addMeasurement(measured[i], simulationTime, drone.getX(), drone.getY());
+                recordDetection(drone);
+                eventLog.append(EventLog.DETECTION, simulationTime, drone.getId(), drone.getX(), drone.getY(), measured[i]);
             }
             
             // Check if returning to base
             if (drone.getState() == DroneState.RETURNING && drone.isAtBase()) {
-                logEvent("Drone " + drone.getId() + " est retourné à la base");
+                eventLog.append(EventLog.RETURNED_TO_BASE, simulationTime, drone.getId(), 0, 0, 0);
+            }
+            
+            // Docked this tick: upload the sortie's readings
+            if (fleet.docked(i)) {
+                fleet.uploadMeasurements(i, baseStation);
             }
         }
         
-        // Adaptive re-tasking every 30 ticks (6 seconds)
-        if (tickCount++ % 30 == 0) {
-            coordinator.adaptiveRetasking(drones, environment);
-        }
+        // Adaptive re-tasking on this tick's triggers (hotspots, state changes, arrivals)
+        coordinator.adaptiveRetasking(drones, environment);
+        // Idle drones go where information is oldest
+        coordinator.revisitStaleRegions(drones, coverage, simulationTime);
+        tickCount++;
         
         // Update metrics
-        metrics.update(drones, environment, simulationTime);
+        metrics.update(fleet, environment, simulationTime);
+        
+        // Hand this tick's events to the log subscribers
+        eventLog.publish();
+        
+        simulationTime += config.tickDurationMs;
+    }
+    
+    // Move, sense and draw sensor noise for drones [from, to): touches only their own slots
+    private void updateDrones(int from, int to) {
+        fleet.update(config.tickDurationMs, from, to);
+        fleet.readIntensities(environment.getField(), readings, from, to);
+        for (int i = from; i < to; i++) {
+            // If drone is active and over an anomaly, measure with noise
+            if (fleet.getState(i) == DroneState.ACTIVE && readings[i] > config.detectionThreshold) {
+                measured[i] = readings[i] + (sensorNoise[fleet.getId(i)].nextDouble() - 0.5) * 0.1;
+            } else {
+                measured[i] = Double.NaN;
+            }
+        }
+    }
+    
+    private void runDroneChunks() {
+        try {
+            for (Future<Void> f : droneExecutor.invokeAll(droneChunks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Drone update interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Drone update failed", e.getCause());
+        }
+    }
+    
+    // Run the drone phase in chunks on this executor; null goes back to a single thread.
+    // Each drone's update reads only the field and its own state, so results do not change.
+    public void setDroneExecutor(ExecutorService executor) {
+        this.droneExecutor = executor;
+        this.droneChunks = new ArrayList<>();
+        if (executor == null) return;
+        int n = fleet.size();
+        int count = Math.max(1, Math.min(4 * Runtime.getRuntime().availableProcessors(), n));
+        for (int k = 0; k < count; k++) {
+            droneChunks.add(new DroneChunk((int) ((long) n * k / count), (int) ((long) n * (k + 1) / count)));
+        }
+    }
+    
+    private class DroneChunk implements Callable<Void> {
+        final int from, to;
         
-        simulationTime += SimulationParams.TICK_DURATION_MS;
+        DroneChunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        public Void call() {
+            updateDrones(from, to);
+            return null;
+        }
+    }
+    
+    // First detection of the source anomaly feeds the detection latency metric
+    private void recordDetection(Drone drone) {
+        int source = environment.nearestAnomaly(drone.getX(), drone.getY(),
+                                                config.detectionRadius);
+        AnomalyStore store = environment.getAnomalyStore();
+        if (source >= 0 && !store.isDetected(source)) {
+            store.markDetected(source, simulationTime);
+            metrics.recordDetectionLatency(Math.max(0, simulationTime - store.getCreationTime(source)));
+        }
     }
     
     public void start() {
@@ -141,19 +328,28 @@ public class SimulationEngine {
         running = false;
         metrics.reset();
         coordinator.reset();
+        baseStation.clear();
+        coverage.clear();
         eventLog.clear();
         for (List<double[]> traj : droneTrajectories.values()) {
             traj.clear();
         }
+        initializeSensorNoise();
         initializeCoverageWaypoints();
     }
     
     public void logEvent(String message) {
-        String timestamp = String.format("[%.1f s] ", simulationTime / 1000.0);
-        eventLog.add(timestamp + message);
+        eventLog.message(simulationTime, message);
+        eventLog.publish();
     }
     
+    // Retained events as text, formatted on access
     public List<String> getEventLog() {
+        return eventLog.asList();
+    }
+    
+    // Structured events; subscribe to receive new ones each tick
+    public EventLog getEvents() {
         return eventLog;
     }
     
@@ -163,50 +359,119 @@ public class SimulationEngine {
     
     public Environment getEnvironment() { return environment; }
     public List<Drone> getDrones() { return drones; }
+    public DroneFleet getFleet() { return fleet; }
+    public Navigation getNavigation() { return navigation; }
+    public TrajectoryBuffer getTrajectory(int fleetIndex) { return trajectories[fleetIndex]; }
+    public BaseStationStore getBaseStation() { return baseStation; }
     public long getSimulationTime() { return simulationTime; }
     public boolean isRunning() { return running; }
     public SimulationMetrics getMetrics() { return metrics; }
+    public CoverageMap getCoverage() { return coverage; }
+    public long getSeed() { return randomStreams.getSeed(); }
+    public SimulationScenario getScenario() { return scenario; }
+    public SimulationConfig getConfig() { return config; }
     
     // Metrics holder
     public static class SimulationMetrics {
-        public double coveragePercentage;
+        private static final long SNAPSHOT_INTERVAL_MS = 5000;
+        public double coveragePercentage;    // area the drones have flown over
+        public double anomalyAreaPercentage; // area above the detection threshold
         public int anomaliesDetected;
         public double averageDetectionTime;
         public int activeDrones;
         public int rechargingDrones;
+        private int detections;
+        private long totalDetectionLatency;
+        private final double detectionThreshold; // cells above it count as anomalous
+        private final CoverageMap coverage; // null: coverage stays 0
         private List<MetricsSnapshot> snapshots = new ArrayList<>();
         
+        public SimulationMetrics() {
+            this(SimulationConfig.defaults().detectionThreshold);
+        }
+        
+        public SimulationMetrics(double detectionThreshold) {
+            this(detectionThreshold, null);
+        }
+        
+        public SimulationMetrics(double detectionThreshold, CoverageMap coverage) {
+            this.detectionThreshold = detectionThreshold;
+            this.coverage = coverage;
+        }
+        
+        public int getDetections() { return detections; }
+        
+        // Time between an anomaly appearing and its first detection
+        public void recordDetectionLatency(long latencyMs) {
+            detections++;
+            totalDetectionLatency += latencyMs;
+            averageDetectionTime = (double) totalDetectionLatency / detections;
+        }
+        
         public void update(List<Drone> drones, Environment env, long time) {
             // Count active/charging
-            activeDrones = (int) drones.stream().filter(d -> d.getState() == DroneState.ACTIVE).count();
-            rechargingDrones = (int) drones.stream().filter(d -> d.getState() == DroneState.CHARGING).count();
+            int active = (int) drones.stream().filter(d -> d.getState() == DroneState.ACTIVE).count();
+            int charging = (int) drones.stream().filter(d -> d.getState() == DroneState.CHARGING).count();
+            update(active, charging, env, time);
+        }
+        
+        // Same, with the drone counts already known (DroneFleet.countInState)
+        public void update(DroneFleet fleet, Environment env, long time) {
+            update(fleet.countInState(DroneState.ACTIVE), fleet.countInState(DroneState.CHARGING), env, time);
+        }
+        
+        private void update(int active, int charging, Environment env, long time) {
+            refresh(active, charging, env);
             
-            // Count cells with anomalies detected
-            double[][] grid = env.getAnomalyIntensity();
-            int cellsWithAnomaly = 0;
-            for (double[] row : grid) {
-                for (double val : row) {
-                    if (val > SimulationParams.ANOMALY_DETECTION_THRESHOLD) {
-                        cellsWithAnomaly++;
-                    }
-                }
+            // Add snapshot every 5 seconds
+            if (time % SNAPSHOT_INTERVAL_MS == 0) {
+                snapshots.add(new MetricsSnapshot(time, coveragePercentage, anomaliesDetected, activeDrones, rechargingDrones));
+            }
+        }
+        
+        // After ticks skipped ticks starting at firstTime: the state now, and the
+        // snapshots that fell in the interval (the state did not change in between)
+        public void skipped(DroneFleet fleet, Environment env, long firstTime, long ticks, long tickDurationMs) {
+            refresh(fleet.countInState(DroneState.ACTIVE), fleet.countInState(DroneState.CHARGING), env);
+            long k = ticksUntilSnapshot(firstTime, tickDurationMs);
+            while (k < ticks) {
+                long t = firstTime + k * tickDurationMs;
+                snapshots.add(new MetricsSnapshot(t, coveragePercentage, anomaliesDetected, activeDrones, rechargingDrones));
+                long next = ticksUntilSnapshot(t + tickDurationMs, tickDurationMs);
+                if (next == Long.MAX_VALUE) break;
+                k += 1 + next;
             }
+        }
+        
+        // Ticks from the one at time until the next that takes a snapshot (0 = this one)
+        public long ticksUntilSnapshot(long time, long tickDurationMs) {
+            for (long k = 0; k * tickDurationMs <= SNAPSHOT_INTERVAL_MS; k++) {
+                if ((time + k * tickDurationMs) % SNAPSHOT_INTERVAL_MS == 0) return k;
+            }
+            return Long.MAX_VALUE;
+        }
+        
+        private void refresh(int active, int charging, Environment env) {
+            activeDrones = active;
+            rechargingDrones = charging;
+            
+            coveragePercentage = coverage == null ? 0 : coverage.getCoveragePercentage();
             
+            // Count cells with anomalies detected
+            int cellsWithAnomaly = env.countCellsAbove(detectionThreshold);
             int totalCells = env.getWidth() * env.getHeight();
-            coveragePercentage = (double) cellsWithAnomaly / totalCells * 100.0;
+            anomalyAreaPercentage = (double) cellsWithAnomaly / totalCells * 100.0;
             
             anomaliesDetected = env.getAnomalies().size();
-            
-            // Add snapshot every 5 seconds
-            if (time % 5000 == 0) {
-                snapshots.add(new MetricsSnapshot(time, coveragePercentage, anomaliesDetected, activeDrones, rechargingDrones));
-            }
         }
         
         public void reset() {
             coveragePercentage = 0;
+            anomalyAreaPercentage = 0;
             anomaliesDetected = 0;
             averageDetectionTime = 0;
+            detections = 0;
+            totalDetectionLatency = 0;
             activeDrones = 0;
             rechargingDrones = 0;
             snapshots.clear();
@@ -0,0 +1,165 @@
+package com.drones.control;
+
+import com.drones.config.SimulationParams;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Runs an engine on its own thread with a fixed timestep: real elapsed time times
+ * the speed factor is owed to the simulation, and every step runs as many ticks as
+ * are due (at most MAX_CATCH_UP_TICKS, beyond which the backlog is dropped rather
+ * than letting the loop fall further behind). After a step that changed the engine,
+ * its state is copied into a SimulationSnapshot and published through an atomic
+ * reference, once the reader has taken the previous snapshot or a frame interval
+ * has passed, so fast steps do not capture snapshots nobody reads.
+ * Three snapshots rotate: the loop fills one, one waits in the reference, the reader
+ * holds the third, so neither side ever waits for the other.
+ * The engine belongs to the loop thread: other threads act on it through submit().
+ */
+public class SimulationLoop implements Runnable {
+    private static final long IDLE_PARK_NANOS = 20_000_000L; // paused: wake up for commands
+    private static final long MIN_PARK_NANOS = 500_000L;     // running: batch ticks at high speed
+    private static final long FRAME_NANOS = 16_666_667L;     // publish at least this often while unread
+    
+    private final SimulationEngine engine;
+    private final long tickNanos; // simulated duration of one tick
+    private final Queue<Consumer<SimulationEngine>> commands = new ConcurrentLinkedQueue<>();
+    private volatile double speedFactor = 1.0;
+    private volatile int heatmapLevel;
+    private volatile boolean alive;
+    private Thread thread;
+    
+    // Triple buffer: back is the loop's, front the reader's, ready is the latest published
+    private final AtomicReference<SimulationSnapshot> ready = new AtomicReference<>(new SimulationSnapshot());
+    private SimulationSnapshot back = new SimulationSnapshot();
+    private SimulationSnapshot front = new SimulationSnapshot();
+    private long published;
+    private volatile long consumed; // sequence the reader last took
+    private boolean dirty;          // engine changed since the last snapshot
+    private long sincePublish;      // real time since the last snapshot
+    
+    private double owedNanos; // simulated time due but not yet ticked
+    private long ticks;
+    
+    public SimulationLoop(SimulationEngine engine) {
+        this.engine = engine;
+        this.tickNanos = engine.getConfig().tickDurationMs * 1_000_000L;
+    }
+    
+    public SimulationEngine getEngine() { return engine; }
+    public long getTicks() { return ticks; }
+    
+    public double getSpeedFactor() { return speedFactor; }
+    
+    // Simulated time per real time, e.g. 100 for a hundred ticks' worth per tick duration
+    public void setSpeedFactor(double factor) {
+        this.speedFactor = factor;
+        LockSupport.unpark(thread);
+    }
+    
+    // Pyramid level copied into the snapshots' heatmap (0 = every cell)
+    public void setHeatmapLevel(int level) {
+        this.heatmapLevel = level;
+    }
+    
+    // Run a command on the loop thread before its next step
+    public void submit(Consumer<SimulationEngine> command) {
+        commands.add(command);
+        LockSupport.unpark(thread);
+    }
+    
+    public synchronized void start() {
+        if (thread != null) return;
+        publish(); // first snapshot before any tick
+        alive = true;
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    public synchronized void shutdown() {
+        if (thread == null) return;
+        alive = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+    
+    /**
+     * Newest published snapshot. Meant for one reader thread; the returned snapshot
+     * stays unchanged until that thread calls latest() again.
+     */
+    public SimulationSnapshot latest() {
+        if (ready.get().sequence > front.sequence) {
+            front = ready.getAndSet(front);
+            consumed = front.sequence;
+        }
+        return front;
+    }
+    
+    @Override
+    public void run() {
+        long last = System.nanoTime();
+        while (alive) {
+            long now = System.nanoTime();
+            step(now - last);
+            last = now;
+            LockSupport.parkNanos(this, parkNanos());
+        }
+    }
+    
+    // One iteration: pending commands, the ticks now due, then a snapshot if due; returns ticks run
+    long step(long elapsedNanos) {
+        boolean changed = false;
+        Consumer<SimulationEngine> command;
+        while ((command = commands.poll()) != null) {
+            command.accept(engine);
+            changed = true;
+        }
+        
+        long n = 0;
+        if (engine.isRunning()) {
+            owedNanos += elapsedNanos * speedFactor;
+            // Bounded by engine steps: in event-driven mode one step may cover many ticks
+            for (int steps = 0; owedNanos >= tickNanos && steps < SimulationParams.MAX_CATCH_UP_TICKS; steps++) {
+                long advanced = engine.advance((long) (owedNanos / tickNanos));
+                owedNanos -= advanced * tickNanos;
+                n += advanced;
+            }
+            if (owedNanos >= tickNanos) {
+                owedNanos = 0; // too far behind: drop the backlog
+            }
+        } else {
+            owedNanos = 0;
+        }
+        ticks += n;
+        
+        dirty |= n > 0 || changed;
+        sincePublish += elapsedNanos;
+        if (dirty && (consumed == published || sincePublish >= FRAME_NANOS)) {
+            publish();
+        }
+        return n;
+    }
+    
+    // Real time until the next tick is due
+    private long parkNanos() {
+        if (!engine.isRunning()) return IDLE_PARK_NANOS;
+        long due = (long) ((tickNanos - owedNanos) / speedFactor);
+        return Math.max(MIN_PARK_NANOS, due);
+    }
+    
+    private void publish() {
+        back.capture(engine, heatmapLevel, ++published);
+        back = ready.getAndSet(back);
+        dirty = false;
+        sincePublish = 0;
+    }
+}
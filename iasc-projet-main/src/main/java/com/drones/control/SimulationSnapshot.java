@@ -0,0 +1,141 @@
+package com.drones.control;
+
+import com.drones.model.DroneFleet;
+import com.drones.model.DroneState;
+import com.drones.model.IntensityField;
+import com.drones.model.IntensityPyramid;
+import com.drones.model.TrajectoryBuffer;
+import java.util.Arrays;
+
+/**
+ * What the UI needs to draw one frame, copied out of the engine by the simulation
+ * thread: drone positions and states, trails, the heatmap at the requested pyramid
+ * level and the metrics. SimulationLoop recycles three of these; a snapshot handed
+ * out by latest() is not written again until the reader asks for a newer one.
+ */
+public class SimulationSnapshot {
+    private static final DroneState[] STATES = DroneState.values();
+    
+    long sequence; // publication number, 0 = never filled
+    long simulationTime;
+    boolean running;
+    
+    // Drones, by fleet index
+    int droneCount;
+    int[] droneIds = new int[0];
+    float[] droneX = new float[0], droneY = new float[0];
+    byte[] droneState = new byte[0];
+    float[][] trails = new float[0][]; // interleaved (x, y) per drone
+    int[] trailPoints = new int[0];
+    
+    // Heatmap: level 0 is the field itself, higher levels are pyramid blocks
+    int heatLevel;
+    int heatWidth, heatHeight;
+    float[] heatMean = new float[0], heatMax = new float[0];
+    
+    // Metrics
+    double coveragePercentage;
+    double anomalyAreaPercentage;
+    int anomaliesDetected;
+    int activeDrones, rechargingDrones;
+    int measurementsOnBoard;
+    long measurementsAtBase;
+    
+    public long getSequence() { return sequence; }
+    public long getSimulationTime() { return simulationTime; }
+    public boolean isRunning() { return running; }
+    
+    public int getDroneCount() { return droneCount; }
+    public int getDroneId(int i) { return droneIds[i]; }
+    public double getDroneX(int i) { return droneX[i]; }
+    public double getDroneY(int i) { return droneY[i]; }
+    public DroneState getDroneState(int i) { return STATES[droneState[i]]; }
+    public int getTrailPoints(int i) { return trailPoints[i]; }
+    public double getTrailX(int i, int p) { return trails[i][2 * p]; }
+    public double getTrailY(int i, int p) { return trails[i][2 * p + 1]; }
+    
+    public int getHeatLevel() { return heatLevel; }
+    public int getHeatWidth() { return heatWidth; }
+    public int getHeatHeight() { return heatHeight; }
+    public double getHeatMean(int cx, int cy) { return heatMean[cy * heatWidth + cx]; }
+    public double getHeatMax(int cx, int cy) { return heatMax[cy * heatWidth + cx]; }
+    
+    public double getCoveragePercentage() { return coveragePercentage; }
+    public double getAnomalyAreaPercentage() { return anomalyAreaPercentage; }
+    public int getAnomaliesDetected() { return anomaliesDetected; }
+    public int getActiveDrones() { return activeDrones; }
+    public int getRechargingDrones() { return rechargingDrones; }
+    public int getMeasurementsOnBoard() { return measurementsOnBoard; }
+    public long getMeasurementsAtBase() { return measurementsAtBase; }
+    
+    // Copy the engine's current state; runs on the simulation thread
+    void capture(SimulationEngine engine, int level, long seq) {
+        sequence = seq;
+        simulationTime = engine.getSimulationTime();
+        running = engine.isRunning();
+        
+        DroneFleet fleet = engine.getFleet();
+        int n = fleet.size();
+        if (droneIds.length < n) {
+            droneIds = new int[n];
+            droneX = new float[n];
+            droneY = new float[n];
+            droneState = new byte[n];
+            trails = Arrays.copyOf(trails, n);
+            trailPoints = new int[n];
+        }
+        droneCount = n;
+        for (int i = 0; i < n; i++) {
+            droneIds[i] = fleet.getId(i);
+            droneX[i] = (float) fleet.getX(i);
+            droneY[i] = (float) fleet.getY(i);
+            droneState[i] = (byte) fleet.getStateOrdinal(i);
+            TrajectoryBuffer t = engine.getTrajectory(i);
+            if (trails[i] == null || trails[i].length < 2 * t.size()) {
+                trails[i] = new float[2 * t.getCapacity()];
+            }
+            trailPoints[i] = t.copyTo(trails[i]);
+        }
+        
+        captureHeatmap(engine.getEnvironment().getField(), level);
+        
+        SimulationEngine.SimulationMetrics m = engine.getMetrics();
+        coveragePercentage = m.coveragePercentage;
+        anomalyAreaPercentage = m.anomalyAreaPercentage;
+        anomaliesDetected = m.anomaliesDetected;
+        activeDrones = m.activeDrones;
+        rechargingDrones = m.rechargingDrones;
+        measurementsOnBoard = fleet.getMeasurementCount();
+        measurementsAtBase = engine.getBaseStation().getTotalMeasurements();
+    }
+    
+    private void captureHeatmap(IntensityField field, int level) {
+        IntensityPyramid pyramid = field.getPyramid();
+        level = Math.min(level, pyramid.getTopLevel());
+        heatLevel = level;
+        heatWidth = pyramid.getLevelWidth(level);
+        heatHeight = pyramid.getLevelHeight(level);
+        int cells = heatWidth * heatHeight;
+        if (heatMean.length < cells) {
+            heatMean = new float[cells];
+        }
+        if (level == 0) {
+            heatMax = heatMean; // one value per cell
+            for (int y = 0, k = 0; y < heatHeight; y++) {
+                for (int x = 0; x < heatWidth; x++) {
+                    heatMean[k++] = (float) field.get(x, y);
+                }
+            }
+            return;
+        }
+        if (heatMax == heatMean || heatMax.length < cells) {
+            heatMax = new float[cells];
+        }
+        for (int y = 0, k = 0; y < heatHeight; y++) {
+            for (int x = 0; x < heatWidth; x++, k++) {
+                heatMean[k] = (float) pyramid.getMean(level, x, y);
+                heatMax[k] = (float) pyramid.getMax(level, x, y);
+            }
+        }
+    }
+}
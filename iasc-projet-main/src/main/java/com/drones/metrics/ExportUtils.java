@@ -1,6 +1,8 @@
 package com.drones.metrics;
 
+import com.drones.model.BaseStationStore;
 import com.drones.model.Drone;
+import com.drones.model.MeasurementBuffer;
 import com.drones.control.SimulationEngine;
 import java.io.*;
 import java.text.SimpleDateFormat;
@@ -40,19 +42,47 @@ public class ExportUtils {
             
             // Collect all measurements from all drones
             for (Drone drone : drones) {
-                for (Drone.Measurement m : drone.getMeasurements()) {
+                MeasurementBuffer m = drone.getMeasurementBuffer();
+                for (int i = 0; i < m.size(); i++) {
                     writer.printf("%d,%.1f,%.3f,%.1f,%.1f%n",
                         drone.getId(),
-                        m.timestamp / 1000.0,
-                        m.intensity,
-                        m.x,
-                        m.y
+                        m.getTimestamp(i) / 1000.0,
+                        m.getIntensity(i),
+                        m.getX(i),
+                        m.getY(i)
                     );
                 }
             }
         }
     }
     
+    /**
+     * Export the base station's per-cell aggregates (measured cells only) to CSV file
+     */
+    public static void exportBaseStationToCSV(BaseStationStore base, String filename) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            // Header
+            writer.println("X,Y,Count,MeanIntensity,MaxIntensity,LastSeen(s)");
+            
+            // Row-major order, without walking the unmeasured cells
+            int[] cells = new int[base.getCellsSeen()];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = base.getSeenCell(i);
+            }
+            Arrays.sort(cells);
+            for (int cell : cells) {
+                int x = cell % base.getWidth(), y = cell / base.getWidth();
+                writer.printf("%d,%d,%d,%.3f,%.3f,%.1f%n",
+                    x, y,
+                    base.getCount(x, y),
+                    base.getMean(x, y),
+                    base.getMax(x, y),
+                    base.getLastSeen(x, y) / 1000.0
+                );
+            }
+        }
+    }
+    
     /**
      * Generate timestamp for export filename
      */
@@ -21,13 +21,7 @@ public class MetricsCollector {
             int charging = (int) drones.stream().filter(d -> d.getState().name().equals("CHARGING")).count();
             
             // Calculate coverage
-            double[][] grid = env.getAnomalyIntensity();
-            int cellsWithAnomaly = 0;
-            for (double[] row : grid) {
-                for (double val : row) {
-                    if (val > 0.3) cellsWithAnomaly++;
-                }
-            }
+            int cellsWithAnomaly = env.countCellsAbove(0.3);
             
             double coverage = (double) cellsWithAnomaly / (env.getWidth() * env.getHeight()) * 100.0;
             
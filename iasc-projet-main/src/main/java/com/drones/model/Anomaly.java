@@ -5,6 +5,7 @@ public class Anomaly {
     private double intensity; // 0 to 1
     private double maxIntensity;
     private long creationTime;
+    private long detectionTime = -1; // first detection by a drone, -1 if never
     
     public Anomaly(double x, double y, double intensity, long creationTime) {
         this.x = x;
@@ -19,6 +20,12 @@ public class Anomaly {
     public double getIntensity() { return intensity; }
     public long getCreationTime() { return creationTime; }
     public double getMaxIntensity() { return maxIntensity; }
+    public long getDetectionTime() { return detectionTime; }
+    public boolean isDetected() { return detectionTime >= 0; }
+    
+    public void markDetected(long time) {
+        if (detectionTime < 0) detectionTime = time;
+    }
     
     public void setIntensity(double intensity) {
         this.intensity = Math.max(0, Math.min(1, intensity));
@@ -29,6 +36,6 @@ public class Anomaly {
     }
     
     public boolean isAlive() {
-        return intensity > 0.01;
+        return intensity > AnomalyStore.ALIVE_THRESHOLD;
     }
 }
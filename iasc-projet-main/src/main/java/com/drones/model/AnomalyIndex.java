@@ -0,0 +1,176 @@
+package com.drones.model;
+
+import java.util.Arrays;
+
+/**
+ * Uniform bucket grid over live anomalies, keyed by their slot in the anomaly list.
+ * Each bucket is an intrusive doubly linked list threaded through int arrays, so
+ * inserts, removals, slot moves and queries never allocate once capacity is reached.
+ */
+public class AnomalyIndex {
+    public static final int BUCKET_SIZE = 8; // cells per bucket side
+    
+    private final int bucketsX, bucketsY;
+    private final int[] head; // first slot per bucket, -1 if empty
+    
+    // Per slot
+    private int[] next, prev, bucket;
+    private double[] xs, ys;
+    private int size;
+    private final int[] oneSlot = new int[1];
+    private final double[] oneDist = new double[1];
+    
+    public interface Visitor {
+        void visit(int slot, double x, double y, double distSq);
+    }
+    
+    public AnomalyIndex(int width, int height) {
+        this.bucketsX = Math.max(1, (width + BUCKET_SIZE - 1) / BUCKET_SIZE);
+        this.bucketsY = Math.max(1, (height + BUCKET_SIZE - 1) / BUCKET_SIZE);
+        this.head = new int[bucketsX * bucketsY];
+        Arrays.fill(head, -1);
+        allocate(64);
+    }
+    
+    public int size() { return size; }
+    
+    public void insert(int slot, double x, double y) {
+        if (slot >= bucket.length) {
+            allocate(Math.max(slot + 1, bucket.length * 2));
+        }
+        int b = bucketOf(x, y);
+        xs[slot] = x;
+        ys[slot] = y;
+        bucket[slot] = b;
+        prev[slot] = -1;
+        next[slot] = head[b];
+        if (head[b] >= 0) prev[head[b]] = slot;
+        head[b] = slot;
+        size++;
+    }
+    
+    public void remove(int slot) {
+        int b = bucket[slot];
+        if (b < 0) return;
+        if (prev[slot] >= 0) next[prev[slot]] = next[slot]; else head[b] = next[slot];
+        if (next[slot] >= 0) prev[next[slot]] = prev[slot];
+        bucket[slot] = -1;
+        size--;
+    }
+    
+    // Renumber an indexed entry after its anomaly moved from one slot to another
+    public void move(int from, int to) {
+        if (from == to) return;
+        double x = xs[from], y = ys[from];
+        remove(from);
+        if (to < bucket.length && bucket[to] >= 0) remove(to);
+        insert(to, x, y);
+    }
+    
+    public void clear() {
+        Arrays.fill(head, -1);
+        Arrays.fill(bucket, -1);
+        size = 0;
+    }
+    
+    // Visit every entry within radius of (x, y)
+    public void forEachWithin(double x, double y, double radius, Visitor visitor) {
+        double r2 = radius * radius;
+        int bx0 = clampX(x - radius), bx1 = clampX(x + radius);
+        int by0 = clampY(y - radius), by1 = clampY(y + radius);
+        for (int by = by0; by <= by1; by++) {
+            for (int bx = bx0; bx <= bx1; bx++) {
+                for (int s = head[by * bucketsX + bx]; s >= 0; s = next[s]) {
+                    double dx = xs[s] - x, dy = ys[s] - y;
+                    double d2 = dx * dx + dy * dy;
+                    if (d2 <= r2) visitor.visit(s, xs[s], ys[s], d2);
+                }
+            }
+        }
+    }
+    
+    // Is any entry strictly closer than radius to (x, y)?
+    public boolean anyWithin(double x, double y, double radius) {
+        double r2 = radius * radius;
+        int bx0 = clampX(x - radius), bx1 = clampX(x + radius);
+        int by0 = clampY(y - radius), by1 = clampY(y + radius);
+        for (int by = by0; by <= by1; by++) {
+            for (int bx = bx0; bx <= bx1; bx++) {
+                for (int s = head[by * bucketsX + bx]; s >= 0; s = next[s]) {
+                    double dx = xs[s] - x, dy = ys[s] - y;
+                    if (dx * dx + dy * dy < r2) return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    // Nearest entry within maxRadius, or -1
+    public int nearest(double x, double y, double maxRadius) {
+        return nearest(x, y, maxRadius, 1, oneSlot, oneDist) > 0 ? oneSlot[0] : -1;
+    }
+    
+    /**
+     * Up to k nearest entries within maxRadius, closest first, written to the caller's
+     * arrays (both at least k long). Buckets are searched in growing rings around (x, y)
+     * until the ring is farther than the current k-th candidate. Returns the count found.
+     */
+    public int nearest(double x, double y, double maxRadius, int k, int[] outSlots, double[] outDistSq) {
+        if (k <= 0 || size == 0) return 0;
+        double max2 = maxRadius * maxRadius;
+        int cbx = clampX(x), cby = clampY(y);
+        int maxRing = Math.max(bucketsX, bucketsY);
+        int found = 0;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Closest any cell of this ring can be
+            double ringDist = Math.max(0, (ring - 1) * (double) BUCKET_SIZE);
+            double ringDist2 = ringDist * ringDist;
+            if (ringDist2 > max2 || (found == k && ringDist2 > outDistSq[k - 1])) break;
+            for (int by = cby - ring; by <= cby + ring; by++) {
+                if (by < 0 || by >= bucketsY) continue;
+                boolean edgeRow = by == cby - ring || by == cby + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int bx = cbx - ring; bx <= cbx + ring; bx += step) {
+                    if (bx < 0 || bx >= bucketsX) continue;
+                    for (int s = head[by * bucketsX + bx]; s >= 0; s = next[s]) {
+                        double dx = xs[s] - x, dy = ys[s] - y;
+                        double d2 = dx * dx + dy * dy;
+                        if (d2 > max2 || (found == k && d2 >= outDistSq[k - 1])) continue;
+                        // Insertion into the sorted candidate list
+                        int pos = found < k ? found++ : k - 1;
+                        while (pos > 0 && outDistSq[pos - 1] > d2) {
+                            outSlots[pos] = outSlots[pos - 1];
+                            outDistSq[pos] = outDistSq[pos - 1];
+                            pos--;
+                        }
+                        outSlots[pos] = s;
+                        outDistSq[pos] = d2;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+    
+    private int bucketOf(double x, double y) {
+        return clampY(y) * bucketsX + clampX(x);
+    }
+    
+    private int clampX(double x) {
+        return Math.max(0, Math.min(bucketsX - 1, (int) Math.floor(x / BUCKET_SIZE)));
+    }
+    
+    private int clampY(double y) {
+        return Math.max(0, Math.min(bucketsY - 1, (int) Math.floor(y / BUCKET_SIZE)));
+    }
+    
+    private void allocate(int capacity) {
+        int old = bucket == null ? 0 : bucket.length;
+        next = bucket == null ? new int[capacity] : Arrays.copyOf(next, capacity);
+        prev = bucket == null ? new int[capacity] : Arrays.copyOf(prev, capacity);
+        xs = bucket == null ? new double[capacity] : Arrays.copyOf(xs, capacity);
+        ys = bucket == null ? new double[capacity] : Arrays.copyOf(ys, capacity);
+        bucket = bucket == null ? new int[capacity] : Arrays.copyOf(bucket, capacity);
+        Arrays.fill(bucket, old, capacity, -1);
+    }
+}
@@ -0,0 +1,129 @@
+package com.drones.model;
+
+import java.util.Arrays;
+
+/**
+ * Columnar storage for anomalies: one primitive array per attribute, indexed by slot.
+ * Slots are dense in [0, size); dead anomalies are dropped by swap-remove, so slots
+ * are not stable across removeDead() and a listener is told about every move.
+ */
+public class AnomalyStore {
+    public static final double ALIVE_THRESHOLD = 0.01;
+    
+    private double[] x, y, intensity, maxIntensity;
+    private long[] created;
+    private long[] detected; // first detection time, -1 if never
+    private int size;
+    private int version; // bumped on every change, for cached views
+    
+    public interface SlotListener {
+        void removed(int slot);
+        void moved(int from, int to);
+    }
+    
+    public AnomalyStore() {
+        this(64);
+    }
+    
+    public AnomalyStore(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        intensity = new double[capacity];
+        maxIntensity = new double[capacity];
+        created = new long[capacity];
+        detected = new long[capacity];
+    }
+    
+    public int size() { return size; }
+    public int getVersion() { return version; }
+    
+    public double getX(int slot) { return x[slot]; }
+    public double getY(int slot) { return y[slot]; }
+    public double getIntensity(int slot) { return intensity[slot]; }
+    public double getMaxIntensity(int slot) { return maxIntensity[slot]; }
+    public long getCreationTime(int slot) { return created[slot]; }
+    public long getDetectionTime(int slot) { return detected[slot]; }
+    public boolean isDetected(int slot) { return detected[slot] >= 0; }
+    
+    public void markDetected(int slot, long time) {
+        if (detected[slot] < 0) {
+            detected[slot] = time;
+            version++;
+        }
+    }
+    
+    // Append an anomaly, returns its slot
+    public int add(double ax, double ay, double aIntensity, double aMax, long aCreated, long aDetected) {
+        if (size == x.length) {
+            grow(size * 2);
+        }
+        int slot = size++;
+        x[slot] = ax;
+        y[slot] = ay;
+        intensity[slot] = aIntensity;
+        maxIntensity[slot] = aMax;
+        created[slot] = aCreated;
+        detected[slot] = aDetected;
+        version++;
+        return slot;
+    }
+    
+    // Multiply every intensity by the decay rate
+    public void decayAll(double rate) {
+        double[] v = intensity;
+        for (int i = 0, n = size; i < n; i++) {
+            v[i] *= rate;
+        }
+        version++;
+    }
+    
+    // Drop anomalies at or below ALIVE_THRESHOLD, filling each hole with the last slot
+    public void removeDead(SlotListener listener) {
+        int i = 0;
+        while (i < size) {
+            if (intensity[i] > ALIVE_THRESHOLD) {
+                i++;
+                continue;
+            }
+            listener.removed(i);
+            int last = --size;
+            if (i != last) {
+                copy(last, i);
+                listener.moved(last, i);
+            }
+        }
+        version++;
+    }
+    
+    public void clear() {
+        size = 0;
+        version++;
+    }
+    
+    // Standalone copy of one slot, for the List<Anomaly> view
+    public Anomaly materialize(int slot) {
+        Anomaly a = new Anomaly(x[slot], y[slot], maxIntensity[slot], created[slot]);
+        a.setIntensity(intensity[slot]);
+        if (detected[slot] >= 0) a.markDetected(detected[slot]);
+        return a;
+    }
+    
+    private void copy(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        intensity[to] = intensity[from];
+        maxIntensity[to] = maxIntensity[from];
+        created[to] = created[from];
+        detected[to] = detected[from];
+    }
+    
+    private void grow(int capacity) {
+        capacity = Math.max(capacity, 16);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        intensity = Arrays.copyOf(intensity, capacity);
+        maxIntensity = Arrays.copyOf(maxIntensity, capacity);
+        created = Arrays.copyOf(created, capacity);
+        detected = Arrays.copyOf(detected, capacity);
+    }
+}
@@ -0,0 +1,150 @@
+package com.drones.model;
+
+import java.util.Arrays;
+
+/**
+ * What the swarm has sensed, as per-cell aggregates over the grid: reading count,
+ * mean, maximum and time of the latest reading. Drones upload their buffers when
+ * they dock; each reading costs O(1), and nothing is kept per reading. Only measured
+ * cells are stored, densely in order of first reading, with an open-addressing map
+ * from cell index (y * width + x) to position, so memory follows the cells the swarm
+ * has covered rather than the grid. Readings outside the grid are counted but not stored.
+ */
+public class BaseStationStore {
+    private final int width, height;
+    
+    // Aggregates of the measured cells, in order of first reading
+    private int[] cells = new int[16];
+    private int[] count = new int[16];
+    private double[] sum = new double[16], max = new double[16];
+    private long[] lastSeen = new long[16]; // ms
+    private int cellsSeen;
+    private long total;   // readings ingested, including outside the grid
+    private int uploads;
+    
+    // Open addressing: cell index -> position in cells, -1 for empty
+    private int[] keys, values;
+    private int mask;
+    
+    public BaseStationStore(int width, int height) {
+        this.width = width;
+        this.height = height;
+        allocateTable(32);
+    }
+    
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getCellsSeen() { return cellsSeen; }
+    public long getTotalMeasurements() { return total; }
+    public int getUploads() { return uploads; }
+    
+    // Cell index (y * width + x) of the i-th measured cell, 0 <= i < getCellsSeen()
+    public int getSeenCell(int i) { return cells[i]; }
+    
+    public int getCount(int cx, int cy) {
+        int p = find(cy * width + cx);
+        return p < 0 ? 0 : count[p];
+    }
+    
+    // Time of the latest reading in the cell, -1 if never measured
+    public long getLastSeen(int cx, int cy) {
+        int p = find(cy * width + cx);
+        return p < 0 ? -1 : lastSeen[p];
+    }
+    
+    // Mean reading in the cell, NaN if never measured
+    public double getMean(int cx, int cy) {
+        int p = find(cy * width + cx);
+        return p < 0 ? Double.NaN : sum[p] / count[p];
+    }
+    
+    // Highest reading in the cell, NaN if never measured
+    public double getMax(int cx, int cy) {
+        int p = find(cy * width + cx);
+        return p < 0 ? Double.NaN : max[p];
+    }
+    
+    // Fold one drone's buffer into the aggregates; the caller clears the buffer
+    public void upload(MeasurementBuffer buffer) {
+        for (int i = 0, n = buffer.size(); i < n; i++) {
+            ingest(buffer.getIntensity(i), buffer.getTimestamp(i), buffer.getX(i), buffer.getY(i));
+        }
+        uploads++;
+    }
+    
+    public void ingest(double intensity, long timestamp, double mx, double my) {
+        total++;
+        int cx = (int) Math.floor(mx);
+        int cy = (int) Math.floor(my);
+        if (cx < 0 || cx >= width || cy < 0 || cy >= height) return;
+        int c = cy * width + cx;
+        int p = find(c);
+        if (p < 0) {
+            p = add(c);
+            max[p] = intensity;
+            lastSeen[p] = timestamp;
+        } else {
+            if (intensity > max[p]) max[p] = intensity;
+            if (timestamp > lastSeen[p]) lastSeen[p] = timestamp;
+        }
+        count[p]++;
+        sum[p] += intensity;
+    }
+    
+    public void clear() {
+        cellsSeen = 0;
+        total = 0;
+        uploads = 0;
+        Arrays.fill(keys, -1);
+    }
+    
+    // Append a zeroed entry for a new cell; returns its position
+    private int add(int cell) {
+        if (cellsSeen == cells.length) {
+            int n = cellsSeen * 2;
+            cells = Arrays.copyOf(cells, n);
+            count = Arrays.copyOf(count, n);
+            sum = Arrays.copyOf(sum, n);
+            max = Arrays.copyOf(max, n);
+            lastSeen = Arrays.copyOf(lastSeen, n);
+        }
+        if (2 * (cellsSeen + 1) > keys.length) {
+            allocateTable(keys.length * 2);
+        }
+        int p = cellsSeen++;
+        cells[p] = cell;
+        count[p] = 0;
+        sum[p] = 0;
+        put(cell, p);
+        return p;
+    }
+    
+    private int find(int cell) {
+        for (int s = hash(cell); keys[s] >= 0; s = (s + 1) & mask) {
+            if (keys[s] == cell) return values[s];
+        }
+        return -1;
+    }
+    
+    private void put(int cell, int pos) {
+        int s = hash(cell);
+        while (keys[s] >= 0) s = (s + 1) & mask;
+        keys[s] = cell;
+        values[s] = pos;
+    }
+    
+    private void allocateTable(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, -1);
+        for (int i = 0; i < cellsSeen; i++) {
+            put(cells[i], i);
+        }
+    }
+    
+    private int hash(int cell) {
+        int h = cell * 0x9E3779B1;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,177 @@
+package com.drones.model;
+
+import java.util.Arrays;
+
+/**
+ * Which cells the swarm has flown over, and when each was last seen. Cells are
+ * grouped into square regions of REGION_SIZE; last-visit times are one int stamp per
+ * cell, in units of resolution ms (stamp 0 = never, else time / resolution + 1), held
+ * in a block per region that is only allocated when a drone first flies over it, so
+ * memory follows the area covered rather than the grid. Region stamp sums are kept up
+ * to date, so the age of information of a region (now minus its mean last visit,
+ * never-seen cells counting as seen at time 0) and the stalest regions are found
+ * without touching cells.
+ */
+public class CoverageMap {
+    public static final int REGION_SIZE = 8; // cells per region side
+    
+    private final int width, height;
+    private final long resolution; // ms per stamp unit
+    private int visitedCount;
+    
+    private final int regionsX, regionsY;
+    private final int[][] stamps;    // per region, row-major within it; null until first visit
+    private final long[] regionSum;  // stamp sum per region
+    private int stalest = -1;        // region with the lowest mean stamp, -1 = recompute
+    private final long[] keys;       // stalestRegions() sort scratch
+    
+    public CoverageMap(int width, int height, long resolutionMs) {
+        this.width = width;
+        this.height = height;
+        this.resolution = Math.max(1, resolutionMs);
+        this.regionsX = (width + REGION_SIZE - 1) / REGION_SIZE;
+        this.regionsY = (height + REGION_SIZE - 1) / REGION_SIZE;
+        if ((long) regionsX * regionsY > 1 << 24) {
+            throw new IllegalArgumentException("Grid too large for coverage regions: " + width + "x" + height);
+        }
+        this.stamps = new int[regionsX * regionsY][];
+        this.regionSum = new long[regionsX * regionsY];
+        this.keys = new long[regionsX * regionsY];
+    }
+    
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getVisitedCount() { return visitedCount; }
+    
+    public double getCoveragePercentage() {
+        return (double) visitedCount / (width * height) * 100.0;
+    }
+    
+    public boolean isVisited(int x, int y) {
+        return stampAt(x, y) != 0;
+    }
+    
+    // Last visit in ms (to the resolution), -1 if never
+    public long getLastVisit(int x, int y) {
+        int s = stampAt(x, y);
+        return s == 0 ? -1 : (s - 1) * resolution;
+    }
+    
+    private int stampAt(int x, int y) {
+        int[] block = stamps[(y / REGION_SIZE) * regionsX + x / REGION_SIZE];
+        return block == null ? 0 : block[(y % REGION_SIZE) * REGION_SIZE + x % REGION_SIZE];
+    }
+    
+    // Mark the cell containing (x, y), [cx, cx + 1) x [cy, cy + 1), as seen at time; points off the grid are ignored
+    public void visit(double x, double y, long timeMs) {
+        int cx = (int) Math.floor(x), cy = (int) Math.floor(y);
+        if (cx < 0 || cy < 0 || cx >= width || cy >= height) return;
+        int s = (int) (timeMs / resolution) + 1;
+        int r = (cy / REGION_SIZE) * regionsX + cx / REGION_SIZE;
+        int[] block = stamps[r];
+        if (block == null) {
+            block = stamps[r] = new int[REGION_SIZE * REGION_SIZE];
+        }
+        int k = (cy % REGION_SIZE) * REGION_SIZE + cx % REGION_SIZE;
+        if (block[k] == 0) visitedCount++;
+        regionSum[r] += s - block[k];
+        block[k] = s;
+        if (r == stalest) stalest = -1;
+    }
+    
+    // Mark the cells along a straight flight from (x0, y0) to (x1, y1), sampled every half cell
+    public void visitSegment(double x0, double y0, double x1, double y1, long timeMs) {
+        double dx = x1 - x0, dy = y1 - y0;
+        int steps = (int) Math.ceil(2 * Math.max(Math.abs(dx), Math.abs(dy)));
+        for (int k = 0; k < steps; k++) {
+            visit(x0 + dx * k / steps, y0 + dy * k / steps, timeMs);
+        }
+        visit(x1, y1, timeMs);
+    }
+    
+    public int getRegionCount() { return regionSum.length; }
+    public int getRegionX0(int r) { return (r % regionsX) * REGION_SIZE; }
+    public int getRegionY0(int r) { return (r / regionsX) * REGION_SIZE; }
+    public int getRegionX1(int r) { return Math.min(width, getRegionX0(r) + REGION_SIZE); }
+    public int getRegionY1(int r) { return Math.min(height, getRegionY0(r) + REGION_SIZE); }
+    public double getRegionCenterX(int r) { return (getRegionX0(r) + getRegionX1(r) - 1) / 2.0; }
+    public double getRegionCenterY(int r) { return (getRegionY0(r) + getRegionY1(r) - 1) / 2.0; }
+    
+    // Cells in a region (edge regions are smaller)
+    private int regionCells(int r) {
+        return (getRegionX1(r) - getRegionX0(r)) * (getRegionY1(r) - getRegionY0(r));
+    }
+    
+    // Age of information of a region at time now: now minus the mean last visit, in ms
+    public double getRegionAge(int r, long now) {
+        double meanStamp = (double) regionSum[r] / regionCells(r);
+        return now - (meanStamp - 1) * resolution;
+    }
+    
+    // Region whose information is oldest
+    public int stalestRegion() {
+        if (stalest < 0) {
+            stalest = 0;
+            for (int r = 1; r < regionSum.length; r++) {
+                if (regionSum[r] * regionCells(stalest) < regionSum[stalest] * regionCells(r)) stalest = r;
+            }
+        }
+        return stalest;
+    }
+    
+    /**
+     * Regions at least minAgeMs old at time now, oldest first, written to out (at most
+     * out.length of them). Returns the count written.
+     */
+    public int stalestRegions(long now, double minAgeMs, int[] out) {
+        return stalestRegions(now, minAgeMs, out, out.length);
+    }
+    
+    // Same, writing at most max of them to out, for a scratch array longer than needed
+    public int stalestRegions(long now, double minAgeMs, int[] out, int max) {
+        int n = 0;
+        for (int r = 0; r < regionSum.length; r++) {
+            if (getRegionAge(r, now) >= minAgeMs) {
+                // Mean stamp in 1/64 units above, region index below
+                keys[n++] = (regionSum[r] * 64 / regionCells(r)) << 24 | r;
+            }
+        }
+        Arrays.sort(keys, 0, n);
+        int count = Math.min(n, max);
+        for (int k = 0; k < count; k++) {
+            out[k] = (int) (keys[k] & 0xFFFFFF);
+        }
+        return count;
+    }
+    
+    /**
+     * Cells by age at time now: bin k counts ages in [k * binMs, (k + 1) * binMs), the
+     * last bin everything older, never-seen cells included.
+     */
+    public int[] stalenessHistogram(long now, long binMs, int bins) {
+        int[] histogram = new int[bins];
+        for (int r = 0; r < stamps.length; r++) {
+            int[] block = stamps[r];
+            if (block == null) {
+                histogram[bins - 1] += regionCells(r);
+                continue;
+            }
+            int w = getRegionX1(r) - getRegionX0(r), h = getRegionY1(r) - getRegionY0(r);
+            for (int ly = 0; ly < h; ly++) {
+                for (int lx = 0; lx < w; lx++) {
+                    int s = block[ly * REGION_SIZE + lx];
+                    long bin = s == 0 ? bins - 1 : (now - (s - 1) * resolution) / binMs;
+                    histogram[(int) Math.max(0, Math.min(bins - 1, bin))]++;
+                }
+            }
+        }
+        return histogram;
+    }
+    
+    public void clear() {
+        Arrays.fill(stamps, null);
+        Arrays.fill(regionSum, 0);
+        visitedCount = 0;
+        stalest = -1;
+    }
+}
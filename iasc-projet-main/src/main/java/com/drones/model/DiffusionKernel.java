@@ -0,0 +1,26 @@
+package com.drones.model;
+
+/**
+ * Row kernel of the field update: for columns [x0, x1) of one output row,
+ * out = min(1, m + spread * (sum of the 8 neighbours)), where a, m and b are the
+ * rows above, at and below (offsets ao, mo, bo; missing rows passed as zeros).
+ * Implementations must use the same summation order so results are bit-identical.
+ */
+public interface DiffusionKernel {
+    
+    String VECTOR_KERNEL_CLASS = "com.drones.model.VectorDiffusionKernel";
+    
+    void diffuseRow(double[] a, int ao, double[] m, int mo, double[] b, int bo,
+                    double[] out, int oo, int x0, int x1, int width, double spread);
+    
+    String getName();
+    
+    // SIMD kernel when built with the simd profile and run with jdk.incubator.vector, scalar otherwise
+    static DiffusionKernel best() {
+        try {
+            return (DiffusionKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarDiffusionKernel();
+        }
+    }
+}
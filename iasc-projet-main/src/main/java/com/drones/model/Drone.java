@@ -1,156 +1,89 @@
 package com.drones.model;
 
-import com.drones.config.SimulationParams;
-import java.util.*;
+import com.drones.config.SimulationConfig;
+import java.util.List;
 
 public class Drone {
-    private int id;
-    private double x, y;
-    private double targetX, targetY;
-    private DroneState state;
-    private long autonomyRemaining; // ms
-    private long measurementTimer; // ms, counts down during measurement
-    private long rechargingTimer; // ms, counts down during recharge
-    private List<Measurement> measurements;
-    private Deque<double[]> waypoints; // queue of (x,y) targets
+    private final DroneFleet fleet;
+    private final int index; // position in the fleet arrays
     
+    // Standalone drone, in a fleet of its own
     public Drone(int id, double startX, double startY) {
-        this.id = id;
-        this.x = startX;
-        this.y = startY;
-        this.targetX = startX;
-        this.targetY = startY;
-        this.state = DroneState.ACTIVE;
-        this.autonomyRemaining = SimulationParams.DRONE_AUTONOMY_MS;
-        this.measurementTimer = 0;
-        this.rechargingTimer = 0;
-        this.measurements = new ArrayList<>();
-        this.waypoints = new ArrayDeque<>();
+        this(id, startX, startY, SimulationConfig.defaults());
     }
     
-    public int getId() { return id; }
-    public double getX() { return x; }
-    public double getY() { return y; }
-    public DroneState getState() { return state; }
-    public long getAutonomyRemaining() { return autonomyRemaining; }
-    public List<Measurement> getMeasurements() { return measurements; }
+    public Drone(int id, double startX, double startY, SimulationConfig config) {
+        this.fleet = new DroneFleet(config, 1);
+        this.index = fleet.add(id, startX, startY);
+    }
+    
+    // View over one drone of a fleet, see DroneFleet.get()
+    Drone(DroneFleet fleet, int index) {
+        this.fleet = fleet;
+        this.index = index;
+    }
+    
+    public int getId() { return fleet.getId(index); }
+    public int getFleetIndex() { return index; }
+    public double getX() { return fleet.getX(index); }
+    public double getY() { return fleet.getY(index); }
+    public DroneState getState() { return fleet.getState(index); }
+    public long getAutonomyRemaining() { return fleet.getAutonomyRemaining(index); }
+    public List<Measurement> getMeasurements() { return fleet.getMeasurements(index); }
     
     // Add a measurement (from sensor reading)
     public void addMeasurement(double intensity, long timestamp, double x, double y) {
-        measurements.add(new Measurement(intensity, timestamp, x, y));
+        fleet.addMeasurement(index, intensity, timestamp, x, y);
     }
     
-    // Clear local measurements (upload to base)
+    public MeasurementBuffer getMeasurementBuffer() { return fleet.getMeasurementBuffer(index); }
+    
+    // Clear local measurements without uploading them
     public void clearMeasurements() {
-        measurements.clear();
+        fleet.clearMeasurements(index);
+    }
+    
+    // Upload local measurements to the base station
+    public void uploadMeasurements(BaseStationStore base) {
+        fleet.uploadMeasurements(index, base);
     }
     
     // Set waypoints for planned path
     public void setWaypoints(List<double[]> points) {
-        waypoints.clear();
-        waypoints.addAll(points);
+        fleet.setWaypoints(index, points);
     }
     
-    // Get next waypoint
-    private boolean updateTargetWaypoint() {
-        if (waypoints.isEmpty()) {
-            return false;
-        }
-        double[] next = waypoints.peek();
-        targetX = next[0];
-        targetY = next[1];
-        
-        // Check if reached target
-        double dist = Math.sqrt(Math.pow(x - targetX, 2) + Math.pow(y - targetY, 2));
-        if (dist < 0.5) {
-            waypoints.poll();
-            return !waypoints.isEmpty();
-        }
-        return true;
+    // Follow a plan instead, read point by point as the drone gets there
+    public void setPlan(WaypointCursor plan) {
+        fleet.setPlan(index, plan);
     }
     
-    // Move towards target
-    private void moveToward(double tx, double ty, double tickDurationS) {
-        double dist = Math.sqrt(Math.pow(tx - x, 2) + Math.pow(ty - y, 2));
-        if (dist < 0.1) return; // already there
-        
-        double speed = SimulationParams.DRONE_SPEED;
-        double moveDistance = speed * tickDurationS;
-        double ratio = Math.min(1.0, moveDistance / dist);
-        
-        x += (tx - x) * ratio;
-        y += (ty - y) * ratio;
+    public WaypointCursor getPlan() {
+        return fleet.getPlan(index);
     }
     
-    // Update drone state each tick
+    // Update drone state each tick (DroneFleet.update() does the whole fleet at once)
     public void update(long tickDurationMs) {
-        double tickDurationS = tickDurationMs / 1000.0;
-        
-        switch (state) {
-            case ACTIVE:
-                // Update waypoint if needed
-                updateTargetWaypoint();
-                // Move towards target
-                moveToward(targetX, targetY, tickDurationS);
-                // Consume autonomy
-                autonomyRemaining -= tickDurationMs;
-                if (autonomyRemaining <= 0) {
-                    setState(DroneState.RETURNING);
-                    targetX = 0;
-                    targetY = 0;
-                }
-                break;
-                
-            case MEASURING:
-                // Count down measurement
-                measurementTimer -= tickDurationMs;
-                autonomyRemaining -= tickDurationMs;
-                if (measurementTimer <= 0) {
-                    setState(DroneState.ACTIVE);
-                }
-                if (autonomyRemaining <= 0) {
-                    setState(DroneState.RETURNING);
-                }
-                break;
-                
-            case RETURNING:
-                // Move back to base (0, 0)
-                double dist = Math.sqrt(x * x + y * y);
-                if (dist < 0.5) {
-                    // Reached base
-                    setState(DroneState.CHARGING);
-                    rechargingTimer = SimulationParams.DRONE_RECHARGE_MS;
-                    measurements.clear(); // upload to base
-                } else {
-                    moveToward(0, 0, tickDurationS);
-                    autonomyRemaining -= tickDurationMs;
-                }
-                break;
-                
-            case CHARGING:
-                rechargingTimer -= tickDurationMs;
-                if (rechargingTimer <= 0) {
-                    setState(DroneState.ACTIVE);
-                    autonomyRemaining = SimulationParams.DRONE_AUTONOMY_MS;
-                }
-                break;
-        }
+        fleet.update(index, tickDurationMs);
     }
     
     // Start measuring at current position
     public void startMeasurement() {
-        setState(DroneState.MEASURING);
-        measurementTimer = SimulationParams.MEASUREMENT_DURATION_MS;
+        fleet.startMeasurement(index);
     }
     
     // Set state
     public void setState(DroneState newState) {
-        this.state = newState;
+        fleet.setState(index, newState);
     }
     
     // Convenience: is at base?
     public boolean isAtBase() {
-        return Math.sqrt(x * x + y * y) < 0.5;
+        return fleet.isAtBase(index);
+    }
+    
+    public boolean isIdle() {
+        return fleet.isIdle(index);
     }
     
     // Measurement record
@@ -0,0 +1,574 @@
+package com.drones.model;
+
+import com.drones.config.SimulationConfig;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All drones of a simulation as parallel primitive arrays, indexed by fleet index.
+ * update() advances every drone in one loop and readIntensities() gathers the field
+ * under every drone, so large swarms cost a few array passes per tick. Distances are
+ * compared squared; only moving drones take a square root. Drone is a flyweight over
+ * one index, and each drone's waypoints are an interleaved (x, y) queue. Readings
+ * stay in the drone's MeasurementBuffer until uploadMeasurements() hands them to a base.
+ * Timers are absolute deadlines on the fleet clock, registered in a TimingWheel:
+ * nothing counts down per tick, and a drone only does timer work on the tick one of
+ * its deadlines fires.
+ * Drones fly straight unless a no-fly zone of the fleet's Navigation lies across the
+ * line; then they follow the cached flow field towards their target, one cell per
+ * lookup. The route choice is kept per drone until its target or the obstacles change.
+ * Waypoints in a no-fly zone, or walled off, are dropped.
+ */
+public class DroneFleet {
+    private static final DroneState[] STATES = DroneState.values();
+    
+    private final SimulationConfig config; // speed, autonomy and timer durations
+    private int size;
+    private int[] ids;
+    private double[] x, y, targetX, targetY;
+    private byte[] state, previousState; // DroneState ordinals, previous = before the last update()
+    
+    // Timers: deadlines in fleet-clock ms, timer id = 3 * index + kind
+    private static final int AUTONOMY = 0, MEASUREMENT = 1, RECHARGE = 2;
+    private final TimingWheel timers;
+    private long clock;              // ms, advanced once per tick by advanceTimers()
+    private long[] autonomyEnd;      // battery empty, while flying
+    private long[] autonomy;         // ms left, frozen while charging
+    private long[] measurementEnd;
+    private long[] rechargeEnd;
+    private byte[] expired;          // bit per timer kind fired this tick, consumed by the drone's step
+    private final TimingWheel.Expiry onExpiry = id -> expired[id / 3] |= (byte) (1 << (id % 3));
+    
+    // Waypoint queue per drone: (x, y) pairs in [head, tail) of its array
+    private double[][] waypoints;
+    private int[] wpHead, wpTail;
+    private WaypointCursor[] plans; // followed once the queue is empty, null for none
+    
+    // Routing: how each drone reaches its current target, re-decided when the target cell or obstacles change
+    private static final byte STRAIGHT = 0, FIELD = 1, UNREACHABLE = 2;
+    private static final int TO_BASE = -2, NO_ROUTE = -3; // routeGoal of a returning drone, of none decided
+    private final Navigation navigation;
+    private int[] routeGoal;       // target cell the route was decided for, -1 off the grid
+    private long[] routeVersion;   // navigation version it was decided at
+    private byte[] routeMode;
+    private FlowField[] routeField; // FIELD routes only
+    
+    private MeasurementBuffer[] measurements; // created on first measurement
+    private Drone[] views;
+    private final List<Drone> viewList = new ViewList();
+    
+    public DroneFleet() {
+        this(8);
+    }
+    
+    public DroneFleet(int capacity) {
+        this(SimulationConfig.defaults(), capacity);
+    }
+    
+    public DroneFleet(SimulationConfig config, int capacity) {
+        this(config, capacity, new TimingWheel(config.tickDurationMs));
+    }
+    
+    // Fleet whose deadlines go to the given wheel (the engine's)
+    public DroneFleet(SimulationConfig config, int capacity, TimingWheel timers) {
+        this(config, capacity, timers, new Navigation(config));
+    }
+    
+    // Fleet whose deadlines go to the given wheel and that flies around the given obstacles
+    public DroneFleet(SimulationConfig config, int capacity, TimingWheel timers, Navigation navigation) {
+        this.config = config;
+        this.timers = timers;
+        this.navigation = navigation;
+        this.clock = timers.getTime();
+        allocate(Math.max(1, capacity));
+    }
+    
+    // Add a drone, ready and fully charged, returns its fleet index
+    public int add(int id, double startX, double startY) {
+        if (size == ids.length) {
+            allocate(size * 2);
+        }
+        int i = size++;
+        ids[i] = id;
+        x[i] = startX;
+        y[i] = startY;
+        targetX[i] = startX;
+        targetY[i] = startY;
+        state[i] = (byte) DroneState.ACTIVE.ordinal();
+        previousState[i] = state[i];
+        autonomy[i] = config.droneAutonomyMs;
+        autonomyEnd[i] = clock + config.droneAutonomyMs;
+        measurementEnd[i] = clock;
+        rechargeEnd[i] = clock;
+        expired[i] = 0;
+        timers.ensureCapacity(3 * ids.length);
+        timers.schedule(3 * i + AUTONOMY, autonomyEnd[i]);
+        waypoints[i] = new double[8];
+        wpHead[i] = 0;
+        wpTail[i] = 0;
+        plans[i] = null;
+        routeGoal[i] = NO_ROUTE;
+        return i;
+    }
+    
+    public int size() { return size; }
+    public int getId(int i) { return ids[i]; }
+    public double getX(int i) { return x[i]; }
+    public double getY(int i) { return y[i]; }
+    public DroneState getState(int i) { return STATES[state[i]]; }
+    public int getStateOrdinal(int i) { return state[i]; }
+    public TimingWheel getTimers() { return timers; }
+    public Navigation getNavigation() { return navigation; }
+    public long getClock() { return clock; }
+    
+    public long getAutonomyRemaining(int i) {
+        return state[i] == DroneState.CHARGING.ordinal() ? autonomy[i] : autonomyEnd[i] - clock;
+    }
+    
+    // Did the last update() change this drone's state?
+    public boolean stateChanged(int i) { return state[i] != previousState[i]; }
+    public DroneState getPreviousState(int i) { return STATES[previousState[i]]; }
+    
+    // Set from outside a step: timers of the new state are armed from their stored deadlines
+    public void setState(int i, DroneState newState) {
+        byte s = (byte) newState.ordinal();
+        if (s == state[i]) return;
+        if (state[i] == DroneState.CHARGING.ordinal()) {
+            autonomyEnd[i] = clock + autonomy[i];
+        }
+        state[i] = s;
+        switch (newState) {
+            case ACTIVE:
+                timers.schedule(3 * i + AUTONOMY, autonomyEnd[i]);
+                break;
+            case MEASURING:
+                timers.schedule(3 * i + AUTONOMY, autonomyEnd[i]);
+                timers.schedule(3 * i + MEASUREMENT, measurementEnd[i]);
+                break;
+            case CHARGING:
+                autonomy[i] = autonomyEnd[i] - clock;
+                timers.cancel(3 * i + AUTONOMY);
+                timers.schedule(3 * i + RECHARGE, rechargeEnd[i]);
+                break;
+            default:
+                break;
+        }
+    }
+    
+    public boolean isAtBase(int i) {
+        return navigation.isAtBase(x[i], y[i]);
+    }
+    
+    // Active with nothing left to fly to
+    public boolean isIdle(int i) {
+        if (state[i] != DroneState.ACTIVE.ordinal() || getWaypointCount(i) > 0) return false;
+        double dx = targetX[i] - x[i], dy = targetY[i] - y[i];
+        return dx * dx + dy * dy < 0.01;
+    }
+    
+    public int countInState(DroneState s) {
+        int count = 0;
+        byte o = (byte) s.ordinal();
+        for (int i = 0; i < size; i++) {
+            if (state[i] == o) count++;
+        }
+        return count;
+    }
+    
+    // Flyweight for one drone (the same object on every call)
+    public Drone get(int i) {
+        if (views[i] == null) {
+            views[i] = new Drone(this, i);
+        }
+        return views[i];
+    }
+    
+    // Live list of the drones, in fleet order
+    public List<Drone> asList() { return viewList; }
+    
+    public void setWaypoints(int i, List<double[]> points) {
+        double[] q = waypoints[i];
+        if (q.length < 2 * points.size()) {
+            q = waypoints[i] = new double[2 * points.size()];
+        }
+        int k = 0;
+        for (double[] p : points) {
+            q[k++] = p[0];
+            q[k++] = p[1];
+        }
+        wpHead[i] = 0;
+        wpTail[i] = k;
+        plans[i] = null;
+        routeGoal[i] = NO_ROUTE;
+    }
+    
+    // Replace the drone's waypoints with a plan, consumed in place
+    public void setPlan(int i, WaypointCursor plan) {
+        wpHead[i] = 0;
+        wpTail[i] = 0;
+        plans[i] = plan;
+        routeGoal[i] = NO_ROUTE;
+    }
+    
+    public WaypointCursor getPlan(int i) { return plans[i]; }
+    
+    public int getWaypointCount(int i) {
+        return (wpTail[i] - wpHead[i]) / 2 + (plans[i] == null ? 0 : plans[i].remaining());
+    }
+    
+    // Waypoint k steps ahead (0 = the next one), queued or planned
+    public double getWaypointX(int i, int k) {
+        int queued = (wpTail[i] - wpHead[i]) / 2;
+        return k < queued ? waypoints[i][wpHead[i] + 2 * k] : plans[i].getX(k - queued);
+    }
+    
+    public double getWaypointY(int i, int k) {
+        int queued = (wpTail[i] - wpHead[i]) / 2;
+        return k < queued ? waypoints[i][wpHead[i] + 2 * k + 1] : plans[i].getY(k - queued);
+    }
+    
+    public void startMeasurement(int i) {
+        measurementEnd[i] = clock + config.measurementDurationMs;
+        setState(i, DroneState.MEASURING);
+        timers.schedule(3 * i + MEASUREMENT, measurementEnd[i]);
+    }
+    
+    public MeasurementBuffer getMeasurementBuffer(int i) {
+        if (measurements[i] == null) {
+            measurements[i] = new MeasurementBuffer();
+        }
+        return measurements[i];
+    }
+    
+    public List<Drone.Measurement> getMeasurements(int i) {
+        return getMeasurementBuffer(i).asList();
+    }
+    
+    public void addMeasurement(int i, double intensity, long timestamp, double mx, double my) {
+        getMeasurementBuffer(i).add(intensity, timestamp, mx, my);
+    }
+    
+    public void clearMeasurements(int i) {
+        if (measurements[i] != null) measurements[i].clear();
+    }
+    
+    // Readings held by all drones, not yet uploaded
+    public int getMeasurementCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (measurements[i] != null) count += measurements[i].size();
+        }
+        return count;
+    }
+    
+    // Did the last update() dock this drone at base?
+    public boolean docked(int i) {
+        return state[i] == DroneState.CHARGING.ordinal() && previousState[i] == DroneState.RETURNING.ordinal();
+    }
+    
+    // Hand the drone's readings to the base and empty its buffer
+    public void uploadMeasurements(int i, BaseStationStore base) {
+        if (measurements[i] == null || measurements[i].size() == 0) return;
+        base.upload(measurements[i]);
+        measurements[i].clear();
+    }
+    
+    // Advance every drone by one tick
+    public void update(long tickDurationMs) {
+        advanceTimers(tickDurationMs);
+        update(tickDurationMs, 0, size);
+    }
+    
+    /**
+     * Move the fleet clock one tick on and fire the deadlines it reaches. Call once per
+     * tick before update(tickDurationMs, from, to); update(tickDurationMs) does both.
+     */
+    public void advanceTimers(long tickDurationMs) {
+        clock += tickDurationMs;
+        timers.advanceTo(clock, onExpiry);
+    }
+    
+    // Advance drones [from, to) by one tick, after advanceTimers(); disjoint ranges may run concurrently
+    public void update(long tickDurationMs, int from, int to) {
+        System.arraycopy(state, from, previousState, from, to - from);
+        double step = config.droneSpeed * (tickDurationMs / 1000.0);
+        for (int i = from; i < to; i++) {
+            step(i, tickDurationMs, step);
+        }
+    }
+    
+    // Advance one drone by one tick; moves the fleet clock, so meant for one-drone fleets
+    public void update(int i, long tickDurationMs) {
+        advanceTimers(tickDurationMs);
+        previousState[i] = state[i];
+        step(i, tickDurationMs, config.droneSpeed * (tickDurationMs / 1000.0));
+    }
+    
+    /**
+     * Ticks from now in which this drone would only count down timers: idle at its
+     * target, measuring or charging, stopping one tick before a timer runs out.
+     * 0 when it moves or changes state on the next tick. Callers also check what an
+     * idle active drone would read, since a reading is not a timer.
+     */
+    public long quietTicks(int i, long tickDurationMs) {
+        switch (STATES[state[i]]) {
+            case ACTIVE:
+                if (!isIdle(i)) return 0;
+                return ticksUntilZero(autonomyEnd[i] - clock, tickDurationMs) - 1;
+            case MEASURING:
+                return Math.min(ticksUntilZero(measurementEnd[i] - clock, tickDurationMs),
+                                ticksUntilZero(autonomyEnd[i] - clock, tickDurationMs)) - 1;
+            case CHARGING:
+                return ticksUntilZero(rechargeEnd[i] - clock, tickDurationMs) - 1;
+            default:
+                return 0;
+        }
+    }
+    
+    // Advance every drone by ticks quiet ticks (see quietTicks()): only the clock moves
+    public void skip(long ticks, long tickDurationMs) {
+        System.arraycopy(state, 0, previousState, 0, size);
+        clock += ticks * tickDurationMs;
+        timers.advanceTo(clock, onExpiry); // nothing is due within a quiet stretch
+    }
+    
+    // Ticks until a timer counting down by tickDurationMs reaches 0 (at least 1)
+    private static long ticksUntilZero(long remainingMs, long tickDurationMs) {
+        return Math.max(1, (remainingMs + tickDurationMs - 1) / tickDurationMs);
+    }
+    
+    /**
+     * Field intensity under each drone into out[0..size), 0 outside the grid
+     * (same cell rule as Environment.getAnomalyAt).
+     */
+    public void readIntensities(IntensityField field, double[] out) {
+        readIntensities(field, out, 0, size);
+    }
+    
+    public void readIntensities(IntensityField field, double[] out, int from, int to) {
+        int w = field.getWidth(), h = field.getHeight();
+        for (int i = from; i < to; i++) {
+            int ix = (int) Math.floor(x[i]);
+            int iy = (int) Math.floor(y[i]);
+            out[i] = ix < 0 || ix >= w || iy < 0 || iy >= h ? 0 : field.get(ix, iy);
+        }
+    }
+    
+    private void step(int i, long tickDurationMs, double moveDistance) {
+        int fired = expired[i];
+        expired[i] = 0;
+        switch (STATES[state[i]]) {
+            case ACTIVE:
+                // Next waypoint, dropped once reached or when it cannot be reached
+                if (navigation.hasObstacles()) skipBlockedWaypoints(i);
+                if (wpHead[i] < wpTail[i]) {
+                    double[] q = waypoints[i];
+                    targetX[i] = q[wpHead[i]];
+                    targetY[i] = q[wpHead[i] + 1];
+                    double dx = x[i] - targetX[i], dy = y[i] - targetY[i];
+                    if (dx * dx + dy * dy < 0.25) {
+                        wpHead[i] += 2;
+                        routeGoal[i] = NO_ROUTE;
+                    } else if (route(i, targetX[i], targetY[i], false) == UNREACHABLE) {
+                        wpHead[i] += 2;
+                        hover(i);
+                    }
+                } else if (plans[i] != null && plans[i].hasNext()) {
+                    WaypointCursor plan = plans[i];
+                    targetX[i] = plan.getX(0);
+                    targetY[i] = plan.getY(0);
+                    double dx = x[i] - targetX[i], dy = y[i] - targetY[i];
+                    if (dx * dx + dy * dy < 0.25) {
+                        plan.next();
+                        routeGoal[i] = NO_ROUTE;
+                    } else if (route(i, targetX[i], targetY[i], false) == UNREACHABLE) {
+                        plan.next();
+                        hover(i);
+                    }
+                }
+                moveToward(i, targetX[i], targetY[i], moveDistance, false);
+                if ((fired & (1 << AUTONOMY)) != 0) {
+                    state[i] = (byte) DroneState.RETURNING.ordinal();
+                    int b = navigation.nearestBase(x[i], y[i]);
+                    targetX[i] = navigation.getBaseX(b);
+                    targetY[i] = navigation.getBaseY(b);
+                }
+                break;
+            
+            case MEASURING:
+                if ((fired & (1 << MEASUREMENT)) != 0) {
+                    state[i] = (byte) DroneState.ACTIVE.ordinal();
+                }
+                if ((fired & (1 << AUTONOMY)) != 0) {
+                    state[i] = (byte) DroneState.RETURNING.ordinal();
+                }
+                break;
+            
+            case RETURNING:
+                if (isAtBase(i)) {
+                    // Docking takes this tick: the battery stops where it was before it
+                    state[i] = (byte) DroneState.CHARGING.ordinal();
+                    autonomy[i] = autonomyEnd[i] - (clock - tickDurationMs);
+                    rechargeEnd[i] = clock + config.droneRechargeMs; // readings wait for uploadMeasurements()
+                    schedule(i, RECHARGE, rechargeEnd[i], AUTONOMY);
+                    routeGoal[i] = NO_ROUTE;
+                } else {
+                    // Nearest base as the crow flies; the base field picks the nearest by path when needed
+                    int b = navigation.nearestBase(x[i], y[i]);
+                    targetX[i] = navigation.getBaseX(b);
+                    targetY[i] = navigation.getBaseY(b);
+                    moveToward(i, targetX[i], targetY[i], moveDistance, true);
+                }
+                break;
+            
+            case CHARGING:
+                if ((fired & (1 << RECHARGE)) != 0) {
+                    state[i] = (byte) DroneState.ACTIVE.ordinal();
+                    autonomy[i] = config.droneAutonomyMs;
+                    autonomyEnd[i] = clock + config.droneAutonomyMs;
+                    schedule(i, AUTONOMY, autonomyEnd[i], -1);
+                }
+                break;
+        }
+    }
+    
+    // From a step, which may run on several threads: the wheel is shared
+    private void schedule(int i, int kind, long time, int cancelKind) {
+        synchronized (timers) {
+            if (cancelKind >= 0) timers.cancel(3 * i + cancelKind);
+            timers.schedule(3 * i + kind, time);
+        }
+    }
+    
+    // Drop the waypoints ahead that lie in a no-fly zone, O(1) each
+    private void skipBlockedWaypoints(int i) {
+        double[] q = waypoints[i];
+        while (wpHead[i] < wpTail[i] && blocked(q[wpHead[i]], q[wpHead[i] + 1])) {
+            wpHead[i] += 2;
+        }
+        WaypointCursor plan = plans[i];
+        if (wpHead[i] == wpTail[i] && plan != null) {
+            while (plan.hasNext() && blocked(plan.getX(0), plan.getY(0))) {
+                plan.next();
+            }
+        }
+    }
+    
+    private boolean blocked(double px, double py) {
+        return navigation.isBlocked((int) Math.floor(px), (int) Math.floor(py));
+    }
+    
+    // Stay where we are until the next waypoint is taken
+    private void hover(int i) {
+        targetX[i] = x[i];
+        targetY[i] = y[i];
+        routeGoal[i] = NO_ROUTE;
+    }
+    
+    /**
+     * How drone i gets to (tx, ty), or to the nearest base: straight when nothing
+     * blocks the line, else along a flow field. Decided once per target cell and
+     * navigation version, so a drone pays for the line walk and any field lookup only
+     * when either changes.
+     */
+    private byte route(int i, double tx, double ty, boolean toBase) {
+        if (!navigation.hasObstacles()) return STRAIGHT;
+        int goal = toBase ? TO_BASE : navigation.cellOf(tx, ty);
+        long version = navigation.getVersion();
+        if (routeGoal[i] == goal && routeVersion[i] == version) return routeMode[i];
+        routeGoal[i] = goal;
+        routeVersion[i] = version;
+        routeField[i] = null;
+        int here = navigation.cellOf(x[i], y[i]);
+        if (!toBase && blocked(tx, ty)) {
+            routeMode[i] = here == goal ? STRAIGHT : UNREACHABLE; // only a drone already there stays
+        } else if (navigation.clearLine(x[i], y[i], tx, ty)) {
+            routeMode[i] = STRAIGHT;
+        } else if (!toBase && goal < 0) {
+            routeMode[i] = STRAIGHT; // off the grid, where there are no obstacles to avoid
+        } else {
+            FlowField field = toBase ? navigation.baseField() : navigation.fieldTo(goal, here);
+            if (here >= 0 && !field.reaches(here) && !blocked(x[i], y[i])) {
+                routeMode[i] = UNREACHABLE;
+            } else {
+                routeMode[i] = FIELD;
+                routeField[i] = field;
+            }
+        }
+        return routeMode[i];
+    }
+    
+    private void moveToward(int i, double tx, double ty, double moveDistance, boolean toBase) {
+        switch (route(i, tx, ty, toBase)) {
+            case UNREACHABLE:
+                return;
+            case FIELD:
+                // Towards the centre of the next cell, straight on once in the goal cell
+                int here = navigation.cellOf(x[i], y[i]);
+                FlowField field = routeField[i];
+                if (here >= 0 && field.reaches(here) && !field.isGoal(here)) {
+                    int next = field.next(here);
+                    tx = next % field.getWidth() + 0.5;
+                    ty = next / field.getWidth() + 0.5;
+                }
+                break;
+            default:
+                break;
+        }
+        moveToward(i, tx, ty, moveDistance);
+    }
+    
+    private void moveToward(int i, double tx, double ty, double moveDistance) {
+        double dx = tx - x[i], dy = ty - y[i];
+        double d2 = dx * dx + dy * dy;
+        if (d2 < 0.01) return; // already there
+        double ratio = Math.min(1.0, moveDistance / Math.sqrt(d2));
+        x[i] += dx * ratio;
+        y[i] += dy * ratio;
+    }
+    
+    private void allocate(int capacity) {
+        ids = grow(ids, capacity);
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        targetX = grow(targetX, capacity);
+        targetY = grow(targetY, capacity);
+        state = state == null ? new byte[capacity] : Arrays.copyOf(state, capacity);
+        previousState = previousState == null ? new byte[capacity] : Arrays.copyOf(previousState, capacity);
+        autonomy = grow(autonomy, capacity);
+        autonomyEnd = grow(autonomyEnd, capacity);
+        measurementEnd = grow(measurementEnd, capacity);
+        rechargeEnd = grow(rechargeEnd, capacity);
+        expired = expired == null ? new byte[capacity] : Arrays.copyOf(expired, capacity);
+        waypoints = waypoints == null ? new double[capacity][] : Arrays.copyOf(waypoints, capacity);
+        wpHead = grow(wpHead, capacity);
+        wpTail = grow(wpTail, capacity);
+        plans = plans == null ? new WaypointCursor[capacity] : Arrays.copyOf(plans, capacity);
+        routeGoal = grow(routeGoal, capacity);
+        routeVersion = grow(routeVersion, capacity);
+        routeMode = routeMode == null ? new byte[capacity] : Arrays.copyOf(routeMode, capacity);
+        routeField = routeField == null ? new FlowField[capacity] : Arrays.copyOf(routeField, capacity);
+        measurements = measurements == null ? new MeasurementBuffer[capacity] : Arrays.copyOf(measurements, capacity);
+        views = views == null ? new Drone[capacity] : Arrays.copyOf(views, capacity);
+    }
+    
+    private static int[] grow(int[] a, int n) { return a == null ? new int[n] : Arrays.copyOf(a, n); }
+    private static long[] grow(long[] a, int n) { return a == null ? new long[n] : Arrays.copyOf(a, n); }
+    private static double[] grow(double[] a, int n) { return a == null ? new double[n] : Arrays.copyOf(a, n); }
+    
+    private class ViewList extends AbstractList<Drone> {
+        @Override
+        public Drone get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return DroneFleet.this.get(index);
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
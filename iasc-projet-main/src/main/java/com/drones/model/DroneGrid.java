@@ -0,0 +1,163 @@
+package com.drones.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform bucket grid over the active drones of a list, keyed by list position.
+ * Rebuilt from scratch by build() in one counting-sort pass (counts per bucket,
+ * prefix sums, then positions packed bucket by bucket), so it is meant to be
+ * rebuilt once per round of queries rather than updated as drones move.
+ * Positions are copied in bucket order too, so a query reads them sequentially.
+ * Queries never allocate.
+ */
+public class DroneGrid {
+    public static final int BUCKET_SIZE = 8; // cells per bucket side
+    
+    private final int bucketsX, bucketsY;
+    private final int[] start;  // bucket -> first index in order, bucket count + 1 entries
+    private final int[] cursor; // fill position per bucket during build()
+    private int[] order = new int[0]; // drone positions, bucket by bucket
+    private double[] xs = new double[0], ys = new double[0]; // by drone position
+    private double[] packedX = new double[0], packedY = new double[0]; // same order as order
+    private int size;
+    private int minBx, maxBx, minBy, maxBy; // buckets holding drones, bounds inclusive
+    
+    public DroneGrid(int width, int height) {
+        this.bucketsX = Math.max(1, (width + BUCKET_SIZE - 1) / BUCKET_SIZE);
+        this.bucketsY = Math.max(1, (height + BUCKET_SIZE - 1) / BUCKET_SIZE);
+        this.start = new int[bucketsX * bucketsY + 1];
+        this.cursor = new int[bucketsX * bucketsY];
+    }
+    
+    // Active drones indexed by the last build()
+    public int size() { return size; }
+    
+    public void build(List<Drone> drones) {
+        build(drones, null);
+    }
+    
+    // Same, leaving out the positions flagged in exclude (may be null)
+    public void build(List<Drone> drones, boolean[] exclude) {
+        int n = drones.size();
+        if (xs.length < n) {
+            order = new int[n];
+            xs = new double[n];
+            ys = new double[n];
+            packedX = new double[n];
+            packedY = new double[n];
+        }
+        Arrays.fill(start, 0);
+        size = 0;
+        minBx = bucketsX;
+        minBy = bucketsY;
+        maxBx = -1;
+        maxBy = -1;
+        for (int i = 0; i < n; i++) {
+            Drone d = drones.get(i);
+            if (d.getState() != DroneState.ACTIVE || exclude != null && exclude[i]) {
+                xs[i] = Double.NaN;
+                continue;
+            }
+            xs[i] = d.getX();
+            ys[i] = d.getY();
+            int bx = clampX(xs[i]), by = clampY(ys[i]);
+            start[by * bucketsX + bx + 1]++;
+            size++;
+            minBx = Math.min(minBx, bx);
+            maxBx = Math.max(maxBx, bx);
+            minBy = Math.min(minBy, by);
+            maxBy = Math.max(maxBy, by);
+        }
+        for (int b = 0; b < cursor.length; b++) {
+            start[b + 1] += start[b];
+            cursor[b] = start[b];
+        }
+        for (int i = 0; i < n; i++) {
+            if (Double.isNaN(xs[i])) continue;
+            int p = cursor[bucketOf(xs[i], ys[i])]++;
+            order[p] = i;
+            packedX[p] = xs[i];
+            packedY[p] = ys[i];
+        }
+    }
+    
+    // Is any indexed drone strictly closer than radius to (x, y)?
+    public boolean anyWithin(double x, double y, double radius) {
+        double r2 = radius * radius;
+        int bx0 = clampX(x - radius), bx1 = clampX(x + radius);
+        int by0 = clampY(y - radius), by1 = clampY(y + radius);
+        for (int by = by0; by <= by1; by++) {
+            for (int bx = bx0; bx <= bx1; bx++) {
+                int b = by * bucketsX + bx;
+                for (int p = start[b]; p < start[b + 1]; p++) {
+                    double dx = packedX[p] - x, dy = packedY[p] - y;
+                    if (dx * dx + dy * dy < r2) return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Up to k nearest indexed drones, closest first, skipping positions flagged in
+     * exclude (may be null). Written to the caller's arrays (both at least k long);
+     * returns the count found. Same ring search as AnomalyIndex.nearest(), except that
+     * the search stops at the first ring farther than the k-th candidate measured from
+     * (x, y) itself rather than from the edge of its bucket, and that rings before the
+     * first one reaching the buckets holding drones are skipped.
+     */
+    public int nearest(double x, double y, int k, boolean[] exclude, int[] outDrones, double[] outDistSq) {
+        if (k <= 0 || size == 0) return 0;
+        int cbx = clampX(x), cby = clampY(y);
+        int maxRing = Math.max(bucketsX, bucketsY);
+        int found = 0;
+        int firstRing = Math.max(Math.max(minBx - cbx, cbx - maxBx), Math.max(Math.max(minBy - cby, cby - maxBy), 0));
+        for (int ring = firstRing; ring <= maxRing; ring++) {
+            // Closest any cell of this ring can be: outside the square of the inner rings
+            if (found == k && ring > 0) {
+                double toX = Math.min(x - (cbx - ring + 1) * BUCKET_SIZE, (cbx + ring) * BUCKET_SIZE - x);
+                double toY = Math.min(y - (cby - ring + 1) * BUCKET_SIZE, (cby + ring) * BUCKET_SIZE - y);
+                double ringDist = Math.max(0, Math.min(toX, toY));
+                if (ringDist * ringDist > outDistSq[k - 1]) break;
+            }
+            for (int by = Math.max(cby - ring, minBy), byEnd = Math.min(cby + ring, maxBy); by <= byEnd; by++) {
+                boolean edgeRow = by == cby - ring || by == cby + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int bx = cbx - ring; bx <= cbx + ring; bx += step) {
+                    if (bx < minBx || bx > maxBx) continue;
+                    int b = by * bucketsX + bx;
+                    for (int p = start[b]; p < start[b + 1]; p++) {
+                        double dx = packedX[p] - x, dy = packedY[p] - y;
+                        double d2 = dx * dx + dy * dy;
+                        if (found == k && d2 >= outDistSq[k - 1]) continue;
+                        int i = order[p];
+                        if (exclude != null && exclude[i]) continue;
+                        // Insertion into the sorted candidate list
+                        int pos = found < k ? found++ : k - 1;
+                        while (pos > 0 && outDistSq[pos - 1] > d2) {
+                            outDrones[pos] = outDrones[pos - 1];
+                            outDistSq[pos] = outDistSq[pos - 1];
+                            pos--;
+                        }
+                        outDrones[pos] = i;
+                        outDistSq[pos] = d2;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+    
+    private int bucketOf(double x, double y) {
+        return clampY(y) * bucketsX + clampX(x);
+    }
+    
+    private int clampX(double x) {
+        return Math.max(0, Math.min(bucketsX - 1, (int) Math.floor(x / BUCKET_SIZE)));
+    }
+    
+    private int clampY(double y) {
+        return Math.max(0, Math.min(bucketsY - 1, (int) Math.floor(y / BUCKET_SIZE)));
+    }
+}
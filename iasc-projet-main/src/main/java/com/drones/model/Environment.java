@@ -1,29 +1,168 @@
 package com.drones.model;
 
-import com.drones.config.SimulationParams;
+import com.drones.config.SimulationConfig;
+import com.drones.config.SimulationScenario;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 public class Environment {
     private int width, height;
-    private double[][] anomalyIntensity; // grid of anomaly intensity
-    private List<Anomaly> anomalies;
-    private Random random;
+    private IntensityField field; // grid of anomaly intensity
+    private AnomalyStore anomalies; // columnar anomaly data
+    private AnomalyIndex anomalyIndex; // live anomalies by store slot
+    private AnomalyView anomalyView; // List<Anomaly> over the store, built on demand
+    private HotspotIndex hotspots; // cells above HOTSPOT_THRESHOLD, updated by diffusion
+    private RandomStreams randomStreams;
+    private SplittableRandom spawnRandom;
+    private boolean geometricSpawns; // draw the gap to the next spawn instead of one draw per tick
+    private long ticksToSpawn = -1;  // spawn-free ticks before the next spawn, -1 = not drawn
     private long elapsedTime;
+    private SimulationConfig config; // anomaly dynamics and thresholds
     
     public Environment(int width, int height) {
-        this.width = width;
-        this.height = height;
-        this.anomalyIntensity = new double[height][width];
-        this.anomalies = new ArrayList<>();
-        this.random = new Random(System.currentTimeMillis());
+        this(width, height, new RandomStreams(System.currentTimeMillis()));
+    }
+    
+    public Environment(int width, int height, RandomStreams randomStreams) {
+        this(width, height, randomStreams, FieldStorage.heap(width, height));
+    }
+    
+    public Environment(int width, int height, FieldStorage storage) {
+        this(width, height, new RandomStreams(System.currentTimeMillis()), storage);
+    }
+    
+    // Field buffers in the given storage, e.g. FieldStorage.mapped() for grids beyond the heap
+    public Environment(int width, int height, RandomStreams randomStreams, FieldStorage storage) {
+        this(SimulationConfig.defaults().withGrid(width, height), randomStreams, storage);
+    }
+    
+    public Environment(SimulationConfig config, RandomStreams randomStreams) {
+        this(config, randomStreams, FieldStorage.heap(config.gridWidth, config.gridHeight));
+    }
+    
+    // Grid size, dynamics and thresholds from the configuration, which stays shared with the caller
+    public Environment(SimulationConfig config, RandomStreams randomStreams, FieldStorage storage) {
+        this.config = config;
+        this.width = config.gridWidth;
+        this.height = config.gridHeight;
+        this.field = new IntensityField(width, height, storage);
+        if ((long) width * height >= config.parallelFieldMinCells) {
+            setParallelExecutor(ForkJoinPool.commonPool());
+        }
+        this.hotspots = field.trackHotspots(config.hotspotThreshold);
+        this.anomalies = new AnomalyStore();
+        this.anomalyIndex = new AnomalyIndex(width, height);
+        this.anomalyView = new AnomalyView();
+        this.randomStreams = randomStreams;
+        this.spawnRandom = randomStreams.forTile(0);
         this.elapsedTime = 0;
     }
     
     public int getWidth() { return width; }
     public int getHeight() { return height; }
-    public double[][] getAnomalyIntensity() { return anomalyIntensity; }
-    public List<Anomaly> getAnomalies() { return anomalies; }
+    public IntensityField getField() { return field; }
+    public double getIntensity(int x, int y) { return field.get(x, y); }
+    // New [y][x] copy of the whole field, allocated per call: for export only, never per
+    // frame or tick; read cells with getIntensity() and counts with countCellsAbove()
+    public double[][] getAnomalyIntensity() { return field.toArray(); }
+    
+    // Scans over the live tiles of the field only (threshold >= 0)
+    public int countCellsAbove(double threshold) {
+        return field.countAbove(threshold);
+    }
+    
+    // Descends the max pyramid, so cost follows the cells above threshold
+    public void forEachCellAbove(double threshold, IntensityField.CellVisitor visitor) {
+        field.getPyramid().forEachCellAbove(threshold, visitor);
+    }
+    
+    public AnomalyStore getAnomalyStore() { return anomalies; }
+    
+    // Listen to it rather than scanning the field for hot cells
+    public HotspotIndex getHotspots() { return hotspots; }
+    
+    // Read view of the store as Anomaly copies; add() and clear() write through
+    public List<Anomaly> getAnomalies() { return anomalyView; }
     public long getElapsedTime() { return elapsedTime; }
+    public RandomStreams getRandomStreams() { return randomStreams; }
+    public SimulationConfig getConfig() { return config; }
+    public double getSpawnProbability() { return config.spawnProbability; }
+    public double getDecayRate() { return config.decayRate; }
+    public double getDiffusionFactor() { return config.diffusionFactor; }
+    
+    // Spawn, decay and diffusion from the scenario, from the next update() on
+    public void applyScenario(SimulationScenario scenario) {
+        scenario.applyTo(config);
+        ticksToSpawn = -1;
+    }
+    
+    /**
+     * Draw the number of ticks until the next spawn from the geometric distribution
+     * instead of one Bernoulli draw per tick. Same spawn statistics, different stream
+     * use, so runs are not bit-identical to the per-tick mode. Needed for skip().
+     */
+    public void setGeometricSpawns(boolean on) {
+        geometricSpawns = on;
+        ticksToSpawn = -1;
+    }
+    
+    public boolean isGeometricSpawns() { return geometricSpawns; }
+    
+    // Ticks ahead with no spawn (geometric mode only; 0 otherwise)
+    public long getQuietTicks() {
+        if (!geometricSpawns) return 0;
+        if (ticksToSpawn < 0) ticksToSpawn = drawSpawnGap();
+        return ticksToSpawn;
+    }
+    
+    // No anomaly and nothing in the field: ticks change nothing until the next spawn
+    public boolean isQuiescent() {
+        return anomalies.size() == 0 && field.getLiveTileCount() == 0;
+    }
+    
+    /**
+     * Advance several spawn-free ticks at once (at most getQuietTicks()). Anomalies
+     * decay in closed form, rate^(ticks - 1), then the last tick runs as update() would,
+     * so the field and the hotspots end up as after ticks calls to update().
+     */
+    public void skip(long ticks, long tickDurationMs) {
+        if (ticks <= 0) return;
+        if (ticks > getQuietTicks()) {
+            throw new IllegalArgumentException("Cannot skip " + ticks + " ticks, a spawn is due after " + ticksToSpawn);
+        }
+        elapsedTime += ticks * tickDurationMs;
+        ticksToSpawn -= ticks;
+        if (anomalies.size() > 0) {
+            anomalies.decayAll(Math.pow(config.decayRate, ticks - 1));
+            removeDeadAnomalies();
+        }
+        decayAndDiffuse();
+        removeDeadAnomalies();
+    }
+    
+    // Diffuse in row bands on this executor; null goes back to a single thread
+    public void setParallelExecutor(ExecutorService executor) {
+        field.setExecutor(executor, 4 * Runtime.getRuntime().availableProcessors());
+    }
+    
+    public void addAnomaly(Anomaly anomaly) {
+        addAnomaly(anomaly.getX(), anomaly.getY(), anomaly.getIntensity(), anomaly.getMaxIntensity(),
+                   anomaly.getCreationTime(), anomaly.getDetectionTime());
+    }
+    
+    private void addAnomaly(double x, double y, double intensity, double max, long created, long detected) {
+        int slot = anomalies.add(x, y, intensity, max, created, detected);
+        anomalyIndex.insert(slot, x, y);
+    }
+    
+    // Spatial index over the anomaly store; slots are store slots
+    public AnomalyIndex getAnomalyIndex() { return anomalyIndex; }
+    
+    // Store slot of the nearest live anomaly within radius of (x, y), or -1
+    public int nearestAnomaly(double x, double y, double radius) {
+        return anomalyIndex.nearest(x, y, radius);
+    }
     
     // Get anomaly intensity at position (with interpolation)
     public double getAnomalyAt(double x, double y) {
@@ -34,7 +173,7 @@ public class Environment {
             return 0;
         }
         
-        return anomalyIntensity[iy][ix];
+        return field.get(ix, iy);
     }
     
     // Update environment (spawn, diffuse, decay)
@@ -48,83 +187,119 @@ public class Environment {
         decayAndDiffuse();
         
         // Step 3: Remove dead anomalies
-        anomalies.removeIf(a -> !a.isAlive());
+        removeDeadAnomalies();
     }
     
-    private void spawnAnomalies() {
-        if (random.nextDouble() < SimulationParams.ANOMALY_SPAWN_PROBABILITY) {
-            int x = random.nextInt(width);
-            int y = random.nextInt(height);
-            double intensity = 0.5 + random.nextDouble() * 0.5; // 0.5-1.0
-            anomalies.add(new Anomaly(x, y, intensity, elapsedTime));
-        }
+    // Swap-remove dead anomalies, keeping the index on the same slots
+    private void removeDeadAnomalies() {
+        anomalies.removeDead(indexUpdater);
     }
     
-    private void decayAndDiffuse() {
-        // Clear grid
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                anomalyIntensity[i][j] = 0;
-            }
+    private final AnomalyStore.SlotListener indexUpdater = new AnomalyStore.SlotListener() {
+        @Override
+        public void removed(int slot) {
+            anomalyIndex.remove(slot);
         }
         
-        // Rebuild grid from anomalies
-        for (Anomaly a : anomalies) {
-            int ix = (int) Math.round(a.getX());
-            int iy = (int) Math.round(a.getY());
-            
-            if (ix >= 0 && ix < width && iy >= 0 && iy < height) {
-                anomalyIntensity[iy][ix] += a.getIntensity();
-            }
-            
-            // Decay
-            a.decay(SimulationParams.ANOMALY_DECAY_RATE);
+        @Override
+        public void moved(int from, int to) {
+            anomalyIndex.move(from, to);
         }
-        
-        // Diffuse to neighbors
-        double[][] newIntensity = new double[height][width];
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                newIntensity[i][j] = anomalyIntensity[i][j];
+    };
+    
+    private void spawnAnomalies() {
+        if (geometricSpawns) {
+            if (ticksToSpawn < 0) ticksToSpawn = drawSpawnGap();
+            if (ticksToSpawn > 0) {
+                ticksToSpawn--;
+                return;
             }
+            ticksToSpawn = -1;
+            spawnOne();
+        } else if (spawnRandom.nextDouble() < config.spawnProbability) {
+            spawnOne();
         }
-        
-        double diffusion = SimulationParams.ANOMALY_DIFFUSION_FACTOR;
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                if (anomalyIntensity[i][j] > 0) {
-                    // Spread to neighbors
-                    for (int di = -1; di <= 1; di++) {
-                        for (int dj = -1; dj <= 1; dj++) {
-                            if (di == 0 && dj == 0) continue;
-                            int ni = i + di;
-                            int nj = j + dj;
-                            if (ni >= 0 && ni < height && nj >= 0 && nj < width) {
-                                double spread = anomalyIntensity[i][j] * diffusion / 8.0;
-                                newIntensity[ni][nj] += spread;
-                            }
-                        }
-                    }
-                }
+    }
+    
+    // Failures before the first success of a per-tick Bernoulli(spawnProbability)
+    private long drawSpawnGap() {
+        double p = config.spawnProbability;
+        if (p <= 0) return Long.MAX_VALUE;
+        if (p >= 1) return 0;
+        return (long) Math.floor(Math.log1p(-spawnRandom.nextDouble()) / Math.log1p(-p));
+    }
+    
+    private void spawnOne() {
+        int x = spawnRandom.nextInt(width);
+        int y = spawnRandom.nextInt(height);
+        double intensity = 0.5 + spawnRandom.nextDouble() * 0.5; // 0.5-1.0
+        addAnomaly(x, y, intensity, intensity, elapsedTime, -1);
+    }
+    
+    void decayAndDiffuse() {
+        // Deposit anomalies into the field sources, then decay them
+        for (int i = 0, n = anomalies.size(); i < n; i++) {
+            int ix = (int) Math.round(anomalies.getX(i));
+            int iy = (int) Math.round(anomalies.getY(i));
+            
+            if (ix >= 0 && ix < width && iy >= 0 && iy < height) {
+                field.deposit(ix, iy, anomalies.getIntensity(i));
             }
         }
+        anomalies.decayAll(config.decayRate);
         
-        // Clamp and copy back
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                anomalyIntensity[i][j] = Math.min(1.0, newIntensity[i][j]);
-            }
-        }
+        // Diffuse to neighbors and clamp in one pass
+        field.diffuse(config.diffusionFactor);
     }
     
     // Clear environment
     public void reset() {
         anomalies.clear();
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                anomalyIntensity[i][j] = 0;
+        anomalyIndex.clear();
+        field.clear();
+        spawnRandom = randomStreams.forTile(0); // replay the same spawns
+        ticksToSpawn = -1;
+        elapsedTime = 0;
+    }
+    
+    // Anomaly copies materialized once per store version
+    private class AnomalyView extends AbstractList<Anomaly> {
+        private Anomaly[] cache = new Anomaly[0];
+        private int cachedVersion = -1;
+        
+        @Override
+        public Anomaly get(int index) {
+            if (index < 0 || index >= anomalies.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + anomalies.size());
             }
+            if (cachedVersion != anomalies.getVersion()) {
+                if (cache.length < anomalies.size()) {
+                    cache = new Anomaly[anomalies.size()];
+                }
+                Arrays.fill(cache, null);
+                cachedVersion = anomalies.getVersion();
+            }
+            if (cache[index] == null) {
+                cache[index] = anomalies.materialize(index);
+            }
+            return cache[index];
+        }
+        
+        @Override
+        public int size() {
+            return anomalies.size();
+        }
+        
+        @Override
+        public boolean add(Anomaly anomaly) {
+            addAnomaly(anomaly);
+            return true;
+        }
+        
+        @Override
+        public void clear() {
+            anomalies.clear();
+            anomalyIndex.clear();
         }
-        elapsedTime = 0;
     }
 }
@@ -0,0 +1,21 @@
+package com.drones.model;
+
+/**
+ * One row-major grid of doubles used by IntensityField, on or off the heap.
+ * Indices are y * width + x.
+ */
+public interface FieldBuffer {
+    
+    double get(int index);
+    
+    void add(int index, double value);
+    
+    void read(int index, double[] dst, int offset, int length);
+    
+    void write(int index, double[] src, int offset, int length);
+    
+    void fill(int index, int length, double value);
+    
+    // Backing heap array for the fast path, or null when stored off-heap
+    double[] array();
+}
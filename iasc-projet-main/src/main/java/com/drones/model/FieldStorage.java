@@ -0,0 +1,141 @@
+package com.drones.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Backing memory for the three IntensityField buffers: the two swapped field
+ * buffers and the source buffer. Either on the heap, in direct memory, or mapped
+ * from a file so grids can exceed -Xmx.
+ *
+ * Mapped file layout (little-endian), readable in place by other processes:
+ * a HEADER_BYTES header (magic "DRNFIELD", int width, int height, int index of
+ * the published buffer, int unused, long publish count), then buffer 0, buffer 1
+ * and the source buffer, each width * height doubles in row-major order.
+ * A published buffer is left untouched until the next tick has been published.
+ */
+public class FieldStorage implements Closeable {
+    public static final int BUFFER_A = 0;
+    public static final int BUFFER_B = 1;
+    public static final int SOURCE = 2;
+    
+    public static final int HEADER_BYTES = 64;
+    public static final byte[] MAGIC = "DRNFIELD".getBytes(StandardCharsets.US_ASCII);
+    private static final int FRONT_OFFSET = 16;
+    private static final int PUBLISH_COUNT_OFFSET = 24;
+    
+    private final FieldBuffer[] buffers;
+    private final FileChannel channel; // null unless file-backed
+    private final MappedByteBuffer header;
+    private long publishCount;
+    
+    private FieldStorage(FieldBuffer[] buffers, FileChannel channel, MappedByteBuffer header) {
+        this.buffers = buffers;
+        this.channel = channel;
+        this.header = header;
+    }
+    
+    public static FieldStorage heap(int width, int height) {
+        int cells = cellCount(width, height);
+        return new FieldStorage(new FieldBuffer[]{
+            new HeapFieldBuffer(cells), new HeapFieldBuffer(cells), new HeapFieldBuffer(cells)
+        }, null, null);
+    }
+    
+    // Direct (off-heap) memory, bounded by -XX:MaxDirectMemorySize
+    public static FieldStorage offHeap(int width, int height) {
+        int cells = cellCount(width, height);
+        FieldBuffer[] buffers = new FieldBuffer[3];
+        for (int k = 0; k < 3; k++) {
+            DoubleBuffer[] chunks = new DoubleBuffer[chunkCount(cells)];
+            for (int c = 0; c < chunks.length; c++) {
+                chunks[c] = ByteBuffer.allocateDirect(chunkLength(cells, c) * Double.BYTES)
+                    .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            }
+            buffers[k] = new OffHeapFieldBuffer(chunks);
+        }
+        return new FieldStorage(buffers, null, null);
+    }
+    
+    // Memory-mapped file, created or overwritten with the layout described above
+    public static FieldStorage mapped(int width, int height, Path file) throws IOException {
+        int cells = cellCount(width, height);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.put(0, MAGIC);
+            header.putInt(8, width);
+            header.putInt(12, height);
+            header.putInt(FRONT_OFFSET, BUFFER_A);
+            header.putLong(PUBLISH_COUNT_OFFSET, 0);
+            
+            FieldBuffer[] buffers = new FieldBuffer[3];
+            long regionBytes = (long) cells * Double.BYTES;
+            for (int k = 0; k < 3; k++) {
+                DoubleBuffer[] chunks = new DoubleBuffer[chunkCount(cells)];
+                for (int c = 0; c < chunks.length; c++) {
+                    long position = HEADER_BYTES + k * regionBytes + (long) c * OffHeapFieldBuffer.CHUNK_DOUBLES * Double.BYTES;
+                    chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                                            (long) chunkLength(cells, c) * Double.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                }
+                buffers[k] = new OffHeapFieldBuffer(chunks);
+            }
+            return new FieldStorage(buffers, channel, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    public FieldBuffer getBuffer(int which) {
+        return buffers[which];
+    }
+    
+    public boolean isFileBacked() {
+        return channel != null;
+    }
+    
+    // Record which field buffer readers should use
+    public void publish(int which) {
+        publishCount++;
+        if (header != null) {
+            header.putInt(FRONT_OFFSET, which);
+            header.putLong(PUBLISH_COUNT_OFFSET, publishCount);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            header.force();
+            channel.close();
+        }
+    }
+    
+    private static int cellCount(int width, int height) {
+        long cells = (long) width * height;
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large: " + width + "x" + height);
+        }
+        return (int) cells;
+    }
+    
+    private static int chunkCount(int cells) {
+        return (int) Math.max(1, (cells + (long) OffHeapFieldBuffer.CHUNK_DOUBLES - 1) / OffHeapFieldBuffer.CHUNK_DOUBLES);
+    }
+    
+    private static int chunkLength(int cells, int chunk) {
+        return Math.min(OffHeapFieldBuffer.CHUNK_DOUBLES, cells - chunk * OffHeapFieldBuffer.CHUNK_DOUBLES);
+    }
+}
@@ -0,0 +1,297 @@
+package com.drones.model;
+
+import java.util.Arrays;
+
+/**
+ * Shortest-path costs from every cell of a window of the grid (the whole grid by
+ * default) to a set of goal cells, with the direction of the first step, so a drone
+ * anywhere in the window gets its next cell with one array read. Paths stay inside
+ * the window; cells outside it are unreachable. Cells are grid indices (y * width + x)
+ * in the API, window-local inside. Moves go to the 8 neighbours (cost 10 straight,
+ * 14 diagonal), never into a blocked cell and never across the corner of one. Built
+ * once with Dijkstra; after obstacle changes only the cells whose path went through
+ * a changed cell are recomputed (repair()), the rest of the field is kept.
+ */
+public class FlowField {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    static final int STRAIGHT = 10, DIAGONAL = 14;
+    
+    // Neighbour directions, even = straight, odd = diagonal
+    private static final int[] DX = {1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] DY = {0, 1, 1, 1, 0, -1, -1, -1};
+    
+    private final int width, height;  // grid
+    private final int x0, y0, w, h;   // window
+    private final int[] goals;        // window-local, goalCount of them
+    private final int goalCount;
+    private final int[] cost;     // to the nearest goal, UNREACHABLE if none
+    private final byte[] toward;  // direction of the first step, -1 at goals and unreachable cells
+    
+    // Dijkstra queue: (cost << 32 | cell) in a binary heap, stale entries skipped
+    private long[] heap = new long[64];
+    private int heapSize;
+    private int[] stack = new int[64];
+    
+    FlowField(int width, int height, int[] goals) {
+        this(width, height, goals, 0, 0, width, height);
+    }
+    
+    // Over the window [x0, x1) x [y0, y1); goals outside it are ignored
+    FlowField(int width, int height, int[] goals, int x0, int y0, int x1, int y1) {
+        this.width = width;
+        this.height = height;
+        this.x0 = x0;
+        this.y0 = y0;
+        this.w = x1 - x0;
+        this.h = y1 - y0;
+        int n = 0;
+        this.goals = new int[goals.length];
+        for (int g : goals) {
+            int l = local(g);
+            if (l >= 0) this.goals[n++] = l;
+        }
+        this.goalCount = n;
+        this.cost = new int[w * h];
+        this.toward = new byte[w * h];
+    }
+    
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getWindowX0() { return x0; }
+    public int getWindowY0() { return y0; }
+    public int getWindowX1() { return x0 + w; }
+    public int getWindowY1() { return y0 + h; }
+    public boolean isWholeGrid() { return w == width && h == height; }
+    public boolean covers(int cell) { return local(cell) >= 0; }
+    
+    // First goal cell inside the window, -1 if none
+    public int getGoal() {
+        if (goalCount == 0) return -1;
+        int g = goals[0];
+        return (y0 + g / w) * width + x0 + g % w;
+    }
+    
+    public int getCost(int cell) {
+        int l = local(cell);
+        return l < 0 ? UNREACHABLE : cost[l];
+    }
+    
+    public boolean reaches(int cell) { return getCost(cell) != UNREACHABLE; }
+    public boolean isGoal(int cell) { return reaches(cell) && toward[local(cell)] < 0; }
+    
+    // Cell of the first step from cell, or -1 at a goal or where no goal is reachable
+    public int next(int cell) {
+        int l = local(cell);
+        int d = l < 0 ? -1 : toward[l];
+        return d < 0 ? -1 : cell + DY[d] * width + DX[d];
+    }
+    
+    // Window-local index of a grid cell, -1 outside the window
+    private int local(int cell) {
+        if (cell < 0) return -1;
+        int lx = cell % width - x0, ly = cell / width - y0;
+        return lx < 0 || lx >= w || ly < 0 || ly >= h ? -1 : ly * w + lx;
+    }
+    
+    // Costs from scratch
+    void compute(long[] blocked) {
+        Arrays.fill(cost, UNREACHABLE);
+        Arrays.fill(toward, (byte) -1);
+        heapSize = 0;
+        for (int k = 0; k < goalCount; k++) {
+            int g = goals[k];
+            if (blockedAt(blocked, g % w, g / w)) continue;
+            cost[g] = 0;
+            push(0, g);
+        }
+        propagate(blocked);
+    }
+    
+    /**
+     * Bring the costs up to date after the cells in changed[0..count) were blocked or
+     * freed. Cells whose path ran through a newly blocked cell (or cut one of its
+     * corners) are cleared, then re-seeded from their neighbours together with the
+     * freed cells, and Dijkstra runs from there: work is proportional to the region
+     * whose costs change.
+     */
+    void repair(long[] blocked, int[] changed, int count) {
+        heapSize = 0;
+        int top = 0;
+        // Invalidate the paths that are no longer legal, and everything routed through them
+        for (int k = 0; k < count; k++) {
+            int c = local(changed[k]);
+            if (c < 0 || !blockedAt(blocked, c % w, c / w)) continue;
+            top = invalidate(c, top);
+            int cx = c % w, cy = c / w;
+            for (int d = 0; d < 8; d++) {
+                int nx = cx + DX[d], ny = cy + DY[d];
+                if (!inside(nx, ny)) continue;
+                int n = ny * w + nx;
+                int t = toward[n];
+                if (t >= 0 && (t & 1) == 1 && !canMove(blocked, nx, ny, t)) {
+                    top = invalidate(n, top);
+                }
+            }
+        }
+        // Invalidated cells take the best neighbour still valid; each new cost is a queue seed
+        for (int s = 0; s < top; s++) {
+            seed(blocked, stack[s]);
+        }
+        // Freed cells, and their neighbours that may now move diagonally past them
+        for (int k = 0; k < count; k++) {
+            int c = local(changed[k]);
+            if (c < 0 || blockedAt(blocked, c % w, c / w)) continue;
+            if (isGoalCell(c)) {
+                cost[c] = 0;
+                toward[c] = -1;
+                push(0, c);
+            } else {
+                seed(blocked, c);
+            }
+            int cx = c % w, cy = c / w;
+            for (int d = 0; d < 8; d++) {
+                int nx = cx + DX[d], ny = cy + DY[d];
+                if (!inside(nx, ny)) continue;
+                int n = ny * w + nx;
+                if (cost[n] != UNREACHABLE) push(cost[n], n);
+            }
+        }
+        propagate(blocked);
+    }
+    
+    // Clear cell c and every cell whose first step leads into the cleared ones; returns the stack top
+    private int invalidate(int c, int top) {
+        if (cost[c] == UNREACHABLE) return top;
+        int start = top;
+        cost[c] = UNREACHABLE;
+        toward[c] = -1;
+        stack = grow(stack, top);
+        stack[top++] = c;
+        for (int s = start; s < top; s++) {
+            int u = stack[s];
+            int ux = u % w, uy = u / w;
+            for (int d = 0; d < 8; d++) {
+                int nx = ux + DX[d], ny = uy + DY[d];
+                if (!inside(nx, ny)) continue;
+                int n = ny * w + nx;
+                // n steps into u when its direction is the opposite of d
+                if (toward[n] == ((d + 4) & 7) && cost[n] != UNREACHABLE) {
+                    cost[n] = UNREACHABLE;
+                    toward[n] = -1;
+                    stack = grow(stack, top);
+                    stack[top++] = n;
+                }
+            }
+        }
+        return top;
+    }
+    
+    // Cost of cell c through its best neighbour, pushed when reachable
+    private void seed(long[] blocked, int c) {
+        int cx = c % w, cy = c / w;
+        if (blockedAt(blocked, cx, cy)) return;
+        int best = cost[c];
+        int bestDir = toward[c];
+        for (int d = 0; d < 8; d++) {
+            int nx = cx + DX[d], ny = cy + DY[d];
+            if (!inside(nx, ny)) continue;
+            int n = ny * w + nx;
+            if (cost[n] == UNREACHABLE || !canMove(blocked, cx, cy, d)) continue;
+            int through = cost[n] + ((d & 1) == 0 ? STRAIGHT : DIAGONAL);
+            if (through < best) {
+                best = through;
+                bestDir = d;
+            }
+        }
+        if (best == UNREACHABLE || best == cost[c]) return;
+        cost[c] = best;
+        toward[c] = (byte) bestDir;
+        push(best, c);
+    }
+    
+    // Relax outwards from the queue until it is empty
+    private void propagate(long[] blocked) {
+        while (heapSize > 0) {
+            long top = pop();
+            int c = (int) top;
+            int cc = (int) (top >>> 32);
+            if (cc != cost[c]) continue; // superseded
+            int cx = c % w, cy = c / w;
+            for (int d = 0; d < 8; d++) {
+                int nx = cx + DX[d], ny = cy + DY[d];
+                if (!inside(nx, ny)) continue;
+                int n = ny * w + nx;
+                if (!canMove(blocked, cx, cy, d)) continue;
+                int through = cc + ((d & 1) == 0 ? STRAIGHT : DIAGONAL);
+                if (through < cost[n]) {
+                    cost[n] = through;
+                    toward[n] = (byte) ((d + 4) & 7); // back towards c
+                    push(through, n);
+                }
+            }
+        }
+    }
+    
+    // Can a drone in window cell (x, y) move in direction d: target in the window and free, and both corners of a diagonal free
+    private boolean canMove(long[] blocked, int x, int y, int d) {
+        int nx = x + DX[d], ny = y + DY[d];
+        if (!inside(nx, ny) || blockedAt(blocked, nx, ny)) return false;
+        if ((d & 1) == 0) return true;
+        return !blockedAt(blocked, nx, y) && !blockedAt(blocked, x, ny);
+    }
+    
+    private boolean isGoalCell(int c) {
+        for (int k = 0; k < goalCount; k++) {
+            if (goals[k] == c) return true;
+        }
+        return false;
+    }
+    
+    // Window-local coordinates
+    private boolean inside(int x, int y) {
+        return x >= 0 && x < w && y >= 0 && y < h;
+    }
+    
+    private boolean blockedAt(long[] blocked, int x, int y) {
+        return isBlocked(blocked, (y0 + y) * width + x0 + x);
+    }
+    
+    static boolean isBlocked(long[] blocked, int cell) {
+        return (blocked[cell >>> 6] & (1L << cell)) != 0;
+    }
+    
+    private void push(int c, int cell) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        long key = (long) c << 32 | cell;
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+    
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) child++;
+            if (last <= heap[child]) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+    
+    private static int[] grow(int[] a, int top) {
+        return top < a.length ? a : Arrays.copyOf(a, a.length * 2);
+    }
+}
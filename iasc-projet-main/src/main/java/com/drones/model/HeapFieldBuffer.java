@@ -0,0 +1,38 @@
+package com.drones.model;
+
+import java.util.Arrays;
+
+/**
+ * FieldBuffer over a plain double[].
+ */
+public class HeapFieldBuffer implements FieldBuffer {
+    private final double[] values;
+    
+    public HeapFieldBuffer(int size) {
+        this.values = new double[size];
+    }
+    
+    @Override
+    public double get(int index) { return values[index]; }
+    
+    @Override
+    public void add(int index, double value) { values[index] += value; }
+    
+    @Override
+    public void read(int index, double[] dst, int offset, int length) {
+        System.arraycopy(values, index, dst, offset, length);
+    }
+    
+    @Override
+    public void write(int index, double[] src, int offset, int length) {
+        System.arraycopy(src, offset, values, index, length);
+    }
+    
+    @Override
+    public void fill(int index, int length, double value) {
+        Arrays.fill(values, index, index + length, value);
+    }
+    
+    @Override
+    public double[] array() { return values; }
+}
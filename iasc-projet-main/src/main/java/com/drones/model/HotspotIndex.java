@@ -0,0 +1,171 @@
+package com.drones.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Set of field cells strictly above a threshold, kept up to date by the diffusion
+ * pass: only tiles that changed are re-checked, and a tile whose pyramid maximum is
+ * at or below the threshold and that holds no hotspot is skipped outright.
+ * Cells are stored densely (cell index y * width + x) with an open-addressing map
+ * from cell to position, so membership changes are O(1). Listeners hear about every
+ * crossing, in tile order then row-major order within the tile.
+ */
+public class HotspotIndex {
+    private final IntensityField field;
+    private final double threshold;
+    private final int width;
+    private final int[] tileCount; // hotspots per tile
+    
+    private int[] cells = new int[16];
+    private int size;
+    
+    // Open addressing: cell index -> position in cells, -1 for empty
+    private int[] keys, values;
+    private int mask;
+    
+    private final List<Listener> listeners = new ArrayList<>();
+    
+    public interface Listener {
+        void added(int x, int y, double value);
+        void removed(int x, int y);
+    }
+    
+    HotspotIndex(IntensityField field, double threshold) {
+        this.field = field;
+        this.threshold = threshold;
+        this.width = field.getWidth();
+        this.tileCount = new int[field.getTilesX() * field.getTilesY()];
+        allocateTable(32);
+    }
+    
+    public double getThreshold() { return threshold; }
+    public int size() { return size; }
+    public int getX(int i) { return cells[i] % width; }
+    public int getY(int i) { return cells[i] / width; }
+    
+    public boolean contains(int x, int y) {
+        return find(y * width + x) >= 0;
+    }
+    
+    public void addListener(Listener listener) { listeners.add(listener); }
+    public void removeListener(Listener listener) { listeners.remove(listener); }
+    
+    // Re-check the cells of one tile against the published field
+    void updateTile(int tx, int ty) {
+        int t = ty * field.getTilesX() + tx;
+        if (tileCount[t] == 0 && tileMax(tx, ty) <= threshold) return;
+        int x0 = tx * IntensityField.TILE_SIZE, x1 = Math.min(width, x0 + IntensityField.TILE_SIZE);
+        int y0 = ty * IntensityField.TILE_SIZE, y1 = Math.min(field.getHeight(), y0 + IntensityField.TILE_SIZE);
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                double v = field.get(x, y);
+                int cell = y * width + x;
+                boolean hot = v > threshold;
+                int pos = find(cell);
+                if (hot && pos < 0) {
+                    add(cell);
+                    tileCount[t]++;
+                    for (Listener l : listeners) l.added(x, y, v);
+                } else if (!hot && pos >= 0) {
+                    remove(cell, pos);
+                    tileCount[t]--;
+                    for (Listener l : listeners) l.removed(x, y);
+                }
+            }
+        }
+    }
+    
+    // Drop every hotspot, notifying listeners
+    void clear() {
+        for (int i = size - 1; i >= 0; i--) {
+            int cell = cells[i];
+            size = i;
+            for (Listener l : listeners) l.removed(cell % width, cell / width);
+        }
+        Arrays.fill(tileCount, 0);
+        Arrays.fill(keys, -1);
+    }
+    
+    // Pyramid maximum over the tile (the whole field when it fits in one tile)
+    private double tileMax(int tx, int ty) {
+        IntensityPyramid pyramid = field.getPyramid();
+        int tileLevel = Integer.numberOfTrailingZeros(IntensityField.TILE_SIZE);
+        if (pyramid.getTopLevel() < tileLevel) {
+            return pyramid.getMax(pyramid.getTopLevel(), 0, 0);
+        }
+        return pyramid.getMax(tileLevel, tx, ty);
+    }
+    
+    private void add(int cell) {
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, size * 2);
+        }
+        if (2 * (size + 1) > keys.length) {
+            allocateTable(keys.length * 2);
+        }
+        cells[size] = cell;
+        put(cell, size);
+        size++;
+    }
+    
+    // Swap-remove from the dense array, then delete the key
+    private void remove(int cell, int pos) {
+        int last = cells[--size];
+        if (pos != size) {
+            cells[pos] = last;
+            values[slotOf(last)] = pos;
+        }
+        delete(cell);
+    }
+    
+    private int find(int cell) {
+        for (int s = hash(cell); keys[s] >= 0; s = (s + 1) & mask) {
+            if (keys[s] == cell) return values[s];
+        }
+        return -1;
+    }
+    
+    private int slotOf(int cell) {
+        int s = hash(cell);
+        while (keys[s] != cell) s = (s + 1) & mask;
+        return s;
+    }
+    
+    private void put(int cell, int pos) {
+        int s = hash(cell);
+        while (keys[s] >= 0) s = (s + 1) & mask;
+        keys[s] = cell;
+        values[s] = pos;
+    }
+    
+    // Linear probing delete: shift later entries of the run back into the hole
+    private void delete(int cell) {
+        int hole = slotOf(cell);
+        for (int s = (hole + 1) & mask; keys[s] >= 0; s = (s + 1) & mask) {
+            int home = hash(keys[s]);
+            if (((s - home) & mask) >= ((s - hole) & mask)) {
+                keys[hole] = keys[s];
+                values[hole] = values[s];
+                hole = s;
+            }
+        }
+        keys[hole] = -1;
+    }
+    
+    private void allocateTable(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, -1);
+        for (int i = 0; i < size; i++) {
+            put(cells[i], i);
+        }
+    }
+    
+    private int hash(int cell) {
+        int h = cell * 0x9E3779B1;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,358 @@
+package com.drones.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Row-major anomaly intensity field with two buffers swapped every tick.
+ * Sources are deposited into a scratch buffer; one fused pass then applies the
+ * 8-neighbour stencil and the clamp into the back buffer, so a tick allocates nothing.
+ * The grid is split into TILE_SIZE x TILE_SIZE tiles and bitmaps track which tiles
+ * hold sources (plus their one-cell diffusion fringe) and which may be non-zero in
+ * each buffer: updates and scans only visit those tiles.
+ * With an executor set, the pass is split into bands of tile rows run concurrently;
+ * each output cell is computed by the same code, so results are bit-identical.
+ * The row stencil itself is a DiffusionKernel (scalar or Vector API). Buffers come
+ * from a FieldStorage; off-heap buffers are staged tile row by tile row through
+ * small heap rows so the same kernel runs on them.
+ */
+public class IntensityField {
+    public static final int TILE_SIZE = 16;
+    
+    private final int width, height;
+    private final int tilesX, tilesY;
+    private final FieldStorage storage;
+    private FieldBuffer front;        // published field (index y * width + x)
+    private FieldBuffer back;         // written by the next diffusion pass
+    private final FieldBuffer source; // deposited intensities, all zero between ticks
+    private int frontIndex;           // FieldStorage buffer currently published
+    private final double[] zeroRow; // stands in for the missing rows at the borders
+    private final TileRows scratch; // staging rows for off-heap buffers, sequential mode
+    private DiffusionKernel kernel; // row stencil, SIMD when available
+    
+    // Tile bitmaps (index ty * tilesX + tx)
+    private final long[] sourceTiles; // tiles holding deposited sources
+    private final long[] activeTiles; // source tiles and their diffusion fringe
+    private long[] frontLive;         // tiles that may be non-zero in front
+    private long[] backLive;          // tiles that may be non-zero in back
+    private final long[] changedTiles; // tiles whose values changed in the last pass
+    private final IntensityPyramid pyramid;
+    private HotspotIndex hotspots; // null until trackHotspots()
+    
+    // Parallel mode: null executor means sequential
+    private ExecutorService executor;
+    private List<BandTask> bands;
+    private double spread;
+    
+    public interface CellVisitor {
+        void visit(int x, int y, double value);
+    }
+    
+    public IntensityField(int width, int height) {
+        this(width, height, FieldStorage.heap(width, height));
+    }
+    
+    public IntensityField(int width, int height, FieldStorage storage) {
+        this.width = width;
+        this.height = height;
+        this.tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        this.storage = storage;
+        this.front = storage.getBuffer(FieldStorage.BUFFER_A);
+        this.back = storage.getBuffer(FieldStorage.BUFFER_B);
+        this.source = storage.getBuffer(FieldStorage.SOURCE);
+        this.frontIndex = FieldStorage.BUFFER_A;
+        this.zeroRow = new double[width];
+        this.scratch = new TileRows();
+        this.kernel = DiffusionKernel.best();
+        int words = (tilesX * tilesY + 63) >>> 6;
+        this.sourceTiles = new long[words];
+        this.activeTiles = new long[words];
+        this.frontLive = new long[words];
+        this.backLive = new long[words];
+        this.changedTiles = new long[words];
+        this.pyramid = new IntensityPyramid(this);
+    }
+    
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getTilesX() { return tilesX; }
+    public int getTilesY() { return tilesY; }
+    public FieldStorage getStorage() { return storage; }
+    public IntensityPyramid getPyramid() { return pyramid; }
+    public HotspotIndex getHotspots() { return hotspots; }
+    
+    // Maintain the set of cells above threshold from now on, updated by each diffuse()
+    public HotspotIndex trackHotspots(double threshold) {
+        hotspots = new HotspotIndex(this, threshold);
+        for (int t = 0; t < tilesX * tilesY; t++) {
+            if (getBit(frontLive, t)) hotspots.updateTile(t % tilesX, t / tilesX);
+        }
+        return hotspots;
+    }
+    public DiffusionKernel getKernel() { return kernel; }
+    public void setKernel(DiffusionKernel kernel) { this.kernel = kernel; }
+    
+    public double get(int x, int y) {
+        return front.get(y * width + x);
+    }
+    
+    // Add a source intensity at a cell, consumed by the next diffuse()
+    public void deposit(int x, int y, double intensity) {
+        source.add(y * width + x, intensity);
+        setBit(sourceTiles, (y / TILE_SIZE) * tilesX + x / TILE_SIZE);
+        // The stencil reaches one cell out, possibly into the neighbouring tiles
+        int tx0 = Math.max(0, x - 1) / TILE_SIZE, tx1 = Math.min(width - 1, x + 1) / TILE_SIZE;
+        int ty0 = Math.max(0, y - 1) / TILE_SIZE, ty1 = Math.min(height - 1, y + 1) / TILE_SIZE;
+        for (int ty = ty0; ty <= ty1; ty++) {
+            for (int tx = tx0; tx <= tx1; tx++) {
+                setBit(activeTiles, ty * tilesX + tx);
+            }
+        }
+    }
+    
+    // Run diffuse() in bands of tile rows on the given executor (null for sequential)
+    public void setExecutor(ExecutorService executor, int bandCount) {
+        this.executor = executor;
+        this.bands = new ArrayList<>();
+        if (executor == null) return;
+        int count = Math.max(1, Math.min(bandCount, tilesY));
+        for (int k = 0; k < count; k++) {
+            int tr0 = (int) ((long) tilesY * k / count);
+            int tr1 = (int) ((long) tilesY * (k + 1) / count);
+            bands.add(new BandTask(tr0, tr1));
+        }
+    }
+    
+    public boolean isParallel() { return executor != null; }
+    
+    // Stencil + clamp from the deposited sources into the back buffer, then swap
+    public void diffuse(double diffusion) {
+        spread = diffusion / 8.0;
+        if (executor == null) {
+            diffuseTileRows(0, tilesY, scratch);
+        } else {
+            runBands();
+        }
+        
+        // Sources are halos of neighbouring tiles: clear them once every tile is done
+        for (int w = 0; w < sourceTiles.length; w++) {
+            long bits = sourceTiles[w];
+            while (bits != 0) {
+                int t = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                fillTile(source, t % tilesX, t / tilesX);
+            }
+            sourceTiles[w] = 0;
+        }
+        
+        // Changed: written now, or live before and zeroed now
+        for (int w = 0; w < changedTiles.length; w++) {
+            changedTiles[w] = activeTiles[w] | frontLive[w];
+        }
+        
+        // Back now holds exactly the active tiles
+        System.arraycopy(activeTiles, 0, backLive, 0, activeTiles.length);
+        Arrays.fill(activeTiles, 0);
+        
+        FieldBuffer out = back;
+        back = front;
+        front = out;
+        frontIndex = FieldStorage.BUFFER_A + FieldStorage.BUFFER_B - frontIndex;
+        storage.publish(frontIndex);
+        long[] live = backLive;
+        backLive = frontLive;
+        frontLive = live;
+        
+        for (int w = 0; w < changedTiles.length; w++) {
+            long bits = changedTiles[w];
+            while (bits != 0) {
+                int t = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                pyramid.updateTile(t % tilesX, t / tilesX);
+                if (hotspots != null) hotspots.updateTile(t % tilesX, t / tilesX);
+            }
+        }
+    }
+    
+    private void runBands() {
+        try {
+            for (Future<Void> f : executor.invokeAll(bands)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Diffusion interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Diffusion band failed", e.getCause());
+        }
+    }
+    
+    // Tile rows [tr0, tr1) into the back buffer: active tiles are computed,
+    // tiles left over from the last time this buffer was written are zeroed
+    private void diffuseTileRows(int tr0, int tr1, TileRows rows) {
+        for (int ty = tr0; ty < tr1; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                int t = ty * tilesX + tx;
+                if (getBit(activeTiles, t)) {
+                    diffuseTile(tx, ty, rows);
+                } else if (getBit(backLive, t)) {
+                    fillTile(back, tx, ty);
+                }
+            }
+        }
+    }
+    
+    private void diffuseTile(int tx, int ty, TileRows rows) {
+        int x0 = tx * TILE_SIZE, x1 = Math.min(width, x0 + TILE_SIZE);
+        int y0 = ty * TILE_SIZE, y1 = Math.min(height, y0 + TILE_SIZE);
+        double[] src = source.array(), out = back.array();
+        if (src != null && out != null) {
+            for (int i = y0; i < y1; i++) {
+                double[] above = i > 0 ? src : zeroRow;
+                double[] below = i < height - 1 ? src : zeroRow;
+                kernel.diffuseRow(above, i > 0 ? (i - 1) * width : 0,
+                                  src, i * width,
+                                  below, i < height - 1 ? (i + 1) * width : 0,
+                                  out, i * width, x0, x1, width, spread);
+            }
+            return;
+        }
+        
+        // Staged: column j of the tile rows lives at index j - x0 + 1
+        int c0 = Math.max(0, x0 - 1), c1 = Math.min(width, x1 + 1);
+        for (int i = y0; i < y1; i++) {
+            rows.load(rows.above, i - 1, c0, c1, x0);
+            rows.load(rows.mid, i, c0, c1, x0);
+            rows.load(rows.below, i + 1, c0, c1, x0);
+            int offset = 1 - x0;
+            kernel.diffuseRow(rows.above, offset, rows.mid, offset, rows.below, offset,
+                              rows.out, -x0, x0, x1, width, spread);
+            back.write(i * width + x0, rows.out, 0, x1 - x0);
+        }
+    }
+    
+    private void fillTile(FieldBuffer buffer, int tx, int ty) {
+        int x0 = tx * TILE_SIZE, x1 = Math.min(width, x0 + TILE_SIZE);
+        int y0 = ty * TILE_SIZE, y1 = Math.min(height, y0 + TILE_SIZE);
+        for (int i = y0; i < y1; i++) {
+            buffer.fill(i * width + x0, x1 - x0, 0);
+        }
+    }
+    
+    // Number of live tiles in the published field
+    public int getLiveTileCount() {
+        int count = 0;
+        for (long word : frontLive) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+    
+    // Cells of the published field strictly above a threshold (>= 0), live tiles only
+    public int countAbove(double threshold) {
+        int count = 0;
+        for (int w = 0; w < frontLive.length; w++) {
+            long bits = frontLive[w];
+            while (bits != 0) {
+                int t = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int x0 = (t % tilesX) * TILE_SIZE, x1 = Math.min(width, x0 + TILE_SIZE);
+                int y0 = (t / tilesX) * TILE_SIZE, y1 = Math.min(height, y0 + TILE_SIZE);
+                for (int i = y0; i < y1; i++) {
+                    for (int k = i * width + x0, e = i * width + x1; k < e; k++) {
+                        if (front.get(k) > threshold) count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+    
+    // Visit cells of the published field strictly above a threshold (>= 0), tile by tile
+    public void forEachAbove(double threshold, CellVisitor visitor) {
+        for (int w = 0; w < frontLive.length; w++) {
+            long bits = frontLive[w];
+            while (bits != 0) {
+                int t = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int x0 = (t % tilesX) * TILE_SIZE, x1 = Math.min(width, x0 + TILE_SIZE);
+                int y0 = (t / tilesX) * TILE_SIZE, y1 = Math.min(height, y0 + TILE_SIZE);
+                for (int i = y0; i < y1; i++) {
+                    for (int j = x0; j < x1; j++) {
+                        double v = front.get(i * width + j);
+                        if (v > threshold) visitor.visit(j, i, v);
+                    }
+                }
+            }
+        }
+    }
+    
+    public void clear() {
+        int cells = width * height;
+        front.fill(0, cells, 0);
+        back.fill(0, cells, 0);
+        source.fill(0, cells, 0);
+        Arrays.fill(sourceTiles, 0);
+        Arrays.fill(activeTiles, 0);
+        Arrays.fill(frontLive, 0);
+        Arrays.fill(backLive, 0);
+        Arrays.fill(changedTiles, 0);
+        pyramid.clear();
+        if (hotspots != null) hotspots.clear();
+    }
+    
+    // Copy of the published field as [y][x], for callers that need a 2D array
+    public double[][] toArray() {
+        double[][] copy = new double[height][width];
+        for (int i = 0; i < height; i++) {
+            front.read(i * width, copy[i], 0, width);
+        }
+        return copy;
+    }
+    
+    private static void setBit(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+    
+    private static boolean getBit(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+    
+    // Tile-wide source rows with a one-column halo on each side, plus one output row
+    private class TileRows {
+        final double[] above = new double[TILE_SIZE + 2];
+        final double[] mid = new double[TILE_SIZE + 2];
+        final double[] below = new double[TILE_SIZE + 2];
+        final double[] out = new double[TILE_SIZE];
+        
+        void load(double[] row, int i, int c0, int c1, int x0) {
+            if (i < 0 || i >= height) {
+                Arrays.fill(row, 0);
+            } else {
+                source.read(i * width + c0, row, c0 - x0 + 1, c1 - c0);
+            }
+        }
+    }
+    
+    private class BandTask implements Callable<Void> {
+        final int tr0, tr1;
+        final TileRows rows = new TileRows();
+        
+        BandTask(int tr0, int tr1) {
+            this.tr0 = tr0;
+            this.tr1 = tr1;
+        }
+        
+        @Override
+        public Void call() {
+            diffuseTileRows(tr0, tr1, rows);
+            return null;
+        }
+    }
+}
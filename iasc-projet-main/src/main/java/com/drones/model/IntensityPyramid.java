@@ -0,0 +1,170 @@
+package com.drones.model;
+
+import java.util.Arrays;
+
+/**
+ * Max / mean mip pyramid over an IntensityField. Level k holds one cell per
+ * 2^k x 2^k block of the field, from FIRST_LEVEL (4x4 blocks) up to a single
+ * cell. Only blocks under tiles that changed in the last diffusion pass are
+ * recomputed. Values are floats; stored maxima are rounded up so a coarse cell
+ * never hides a field cell above a threshold.
+ */
+public class IntensityPyramid {
+    public static final int FIRST_LEVEL = 2;
+    
+    private final IntensityField field;
+    private final int width, height;
+    private final int topLevel;
+    private final int[] levelWidth, levelHeight;
+    private final float[][] max, mean; // [level][cy * levelWidth + cx]
+    
+    public IntensityPyramid(IntensityField field) {
+        this.field = field;
+        this.width = field.getWidth();
+        this.height = field.getHeight();
+        int level = FIRST_LEVEL;
+        while ((1 << level) < Math.max(width, height)) {
+            level++;
+        }
+        this.topLevel = level;
+        this.levelWidth = new int[topLevel + 1];
+        this.levelHeight = new int[topLevel + 1];
+        this.max = new float[topLevel + 1][];
+        this.mean = new float[topLevel + 1][];
+        for (int k = FIRST_LEVEL; k <= topLevel; k++) {
+            levelWidth[k] = (width + (1 << k) - 1) >> k;
+            levelHeight[k] = (height + (1 << k) - 1) >> k;
+            max[k] = new float[levelWidth[k] * levelHeight[k]];
+            mean[k] = new float[levelWidth[k] * levelHeight[k]];
+        }
+    }
+    
+    public int getTopLevel() { return topLevel; }
+    public int getLevelWidth(int level) { return level == 0 ? width : levelWidth[level]; }
+    public int getLevelHeight(int level) { return level == 0 ? height : levelHeight[level]; }
+    
+    public double getMax(int level, int cx, int cy) {
+        return level == 0 ? field.get(cx, cy) : max[level][cy * levelWidth[level] + cx];
+    }
+    
+    public double getMean(int level, int cx, int cy) {
+        return level == 0 ? field.get(cx, cy) : mean[level][cy * levelWidth[level] + cx];
+    }
+    
+    // Coarsest level whose blocks are still at least minPixels wide on screen (0 = full detail)
+    public int levelForCellSize(double cellPixels, double minPixels) {
+        if (cellPixels >= minPixels) return 0;
+        int level = FIRST_LEVEL;
+        while (level < topLevel && cellPixels * (1 << level) < minPixels) {
+            level++;
+        }
+        return level;
+    }
+    
+    // Recompute the blocks under one field tile, then their ancestors
+    void updateTile(int tx, int ty) {
+        int tileShift = Integer.numberOfTrailingZeros(IntensityField.TILE_SIZE);
+        int x0 = tx * IntensityField.TILE_SIZE, x1 = Math.min(width, x0 + IntensityField.TILE_SIZE);
+        int y0 = ty * IntensityField.TILE_SIZE, y1 = Math.min(height, y0 + IntensityField.TILE_SIZE);
+        
+        // First level straight from the field
+        int b = 1 << FIRST_LEVEL;
+        for (int by = y0; by < y1; by += b) {
+            for (int bx = x0; bx < x1; bx += b) {
+                double m = 0, sum = 0;
+                int ex = Math.min(width, bx + b), ey = Math.min(height, by + b);
+                for (int y = by; y < ey; y++) {
+                    for (int x = bx; x < ex; x++) {
+                        double v = field.get(x, y);
+                        sum += v;
+                        if (v > m) m = v;
+                    }
+                }
+                int i = (by >> FIRST_LEVEL) * levelWidth[FIRST_LEVEL] + (bx >> FIRST_LEVEL);
+                max[FIRST_LEVEL][i] = roundUp(m);
+                mean[FIRST_LEVEL][i] = (float) (sum / ((ex - bx) * (ey - by)));
+            }
+        }
+        
+        // Coarser levels: within the tile first, then the single ancestor per level above it
+        for (int k = FIRST_LEVEL + 1; k <= topLevel; k++) {
+            if (k <= tileShift) {
+                for (int cy = y0 >> k; cy <= (y1 - 1) >> k; cy++) {
+                    for (int cx = x0 >> k; cx <= (x1 - 1) >> k; cx++) {
+                        combine(k, cx, cy);
+                    }
+                }
+            } else {
+                combine(k, x0 >> k, y0 >> k);
+            }
+        }
+    }
+    
+    // One cell of level k from its (up to) four children
+    private void combine(int k, int cx, int cy) {
+        int c = k - 1;
+        float m = 0;
+        double weighted = 0;
+        for (int dy = 0; dy < 2; dy++) {
+            int y = 2 * cy + dy;
+            if (y >= levelHeight[c]) continue;
+            for (int dx = 0; dx < 2; dx++) {
+                int x = 2 * cx + dx;
+                if (x >= levelWidth[c]) continue;
+                int i = y * levelWidth[c] + x;
+                m = Math.max(m, max[c][i]);
+                weighted += (double) mean[c][i] * blockCells(c, x, y);
+            }
+        }
+        int i = cy * levelWidth[k] + cx;
+        max[k][i] = m;
+        mean[k][i] = (float) (weighted / blockCells(k, cx, cy));
+    }
+    
+    // Field cells covered by a block (smaller on the right and bottom edges)
+    private int blockCells(int k, int cx, int cy) {
+        int w = Math.min(width, (cx + 1) << k) - (cx << k);
+        int h = Math.min(height, (cy + 1) << k) - (cy << k);
+        return w * h;
+    }
+    
+    /**
+     * Visit field cells strictly above threshold, descending only into blocks
+     * whose maximum exceeds it.
+     */
+    public void forEachCellAbove(double threshold, IntensityField.CellVisitor visitor) {
+        descend(topLevel, 0, 0, threshold, visitor);
+    }
+    
+    private void descend(int k, int cx, int cy, double threshold, IntensityField.CellVisitor visitor) {
+        if (cx >= levelWidth[k] || cy >= levelHeight[k]) return;
+        if (max[k][cy * levelWidth[k] + cx] <= threshold) return;
+        if (k == FIRST_LEVEL) {
+            int ex = Math.min(width, (cx + 1) << k), ey = Math.min(height, (cy + 1) << k);
+            for (int y = cy << k; y < ey; y++) {
+                for (int x = cx << k; x < ex; x++) {
+                    double v = field.get(x, y);
+                    if (v > threshold) visitor.visit(x, y, v);
+                }
+            }
+            return;
+        }
+        for (int dy = 0; dy < 2; dy++) {
+            for (int dx = 0; dx < 2; dx++) {
+                descend(k - 1, 2 * cx + dx, 2 * cy + dy, threshold, visitor);
+            }
+        }
+    }
+    
+    void clear() {
+        for (int k = FIRST_LEVEL; k <= topLevel; k++) {
+            Arrays.fill(max[k], 0);
+            Arrays.fill(mean[k], 0);
+        }
+    }
+    
+    private static float roundUp(double v) {
+        float f = (float) v;
+        return f < v ? Math.nextUp(f) : f;
+    }
+}
@@ -0,0 +1,88 @@
+package com.drones.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One drone's readings since its last upload, one primitive column per attribute.
+ * Adding a reading writes four array slots (growing by doubling), clear() only resets
+ * the size, so a drone reuses its buffer from one sortie to the next. asList() reads
+ * the buffer as Drone.Measurement records, each built on access.
+ */
+public class MeasurementBuffer {
+    private double[] intensity;
+    private long[] timestamp;
+    private float[] x, y;
+    private int size;
+    private final List<Drone.Measurement> view = new MeasurementList();
+    
+    public MeasurementBuffer() {
+        this(16);
+    }
+    
+    public MeasurementBuffer(int capacity) {
+        capacity = Math.max(1, capacity);
+        intensity = new double[capacity];
+        timestamp = new long[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+    }
+    
+    public int size() { return size; }
+    public double getIntensity(int i) { return intensity[i]; }
+    public long getTimestamp(int i) { return timestamp[i]; }
+    public double getX(int i) { return x[i]; }
+    public double getY(int i) { return y[i]; }
+    
+    public void add(double mIntensity, long mTimestamp, double mx, double my) {
+        if (size == intensity.length) {
+            grow(size * 2);
+        }
+        intensity[size] = mIntensity;
+        timestamp[size] = mTimestamp;
+        x[size] = (float) mx;
+        y[size] = (float) my;
+        size++;
+    }
+    
+    public void clear() {
+        size = 0;
+    }
+    
+    // Live view, oldest reading first
+    public List<Drone.Measurement> asList() { return view; }
+    
+    private void grow(int capacity) {
+        intensity = Arrays.copyOf(intensity, capacity);
+        timestamp = Arrays.copyOf(timestamp, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+    }
+    
+    private class MeasurementList extends AbstractList<Drone.Measurement> {
+        @Override
+        public Drone.Measurement get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return new Drone.Measurement(intensity[index], timestamp[index], x[index], y[index]);
+        }
+        
+        @Override
+        public boolean add(Drone.Measurement m) {
+            MeasurementBuffer.this.add(m.intensity, m.timestamp, m.x, m.y);
+            return true;
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+        
+        @Override
+        public void clear() {
+            MeasurementBuffer.this.clear();
+        }
+    }
+}
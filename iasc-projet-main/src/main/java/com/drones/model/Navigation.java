@@ -0,0 +1,337 @@
+package com.drones.model;
+
+import com.drones.config.SimulationConfig;
+import com.drones.config.SimulationParams;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Where drones may fly and where they go home: no-fly cells as a bitset, the bases,
+ * and flow fields towards them. One field leads every cell to its nearest base;
+ * fields towards single cells (hotspots, waypoints behind an obstacle) are built on
+ * first request and kept in a small LRU cache, so every drone heading for the same
+ * target shares one field and gets its next step in O(1). A target field only spans
+ * a window around its target and the drones that asked for it, so its memory follows
+ * how far apart they are rather than the grid. Changing obstacles repairs the cached
+ * fields in place (FlowField.repair) instead of dropping them, and bumps getVersion()
+ * so drones know to re-check their route. Cells outside the grid are free.
+ * Fields are looked up from the drone phase: the cache is synchronized, but fields
+ * are built outside the lock, and a drone only waits for a build of its own target.
+ * Obstacles only change between ticks.
+ */
+public class Navigation {
+    private static final int EXIT_SLACK = 4 * FlowField.DIAGONAL; // steps a windowed path must win by, see leadsFrom()
+    
+    private final int width, height;
+    private final long[] blocked; // bit per cell, y * width + x
+    private int blockedCount;
+    private final double[] bases; // (x, y) pairs
+    private final int cacheSize;
+    private final int windowMargin; // cells a target field spans past its target and the drones asking
+    private long version;
+    
+    private FlowField baseField;  // towards the nearest base, built on first use
+    private final LinkedHashMap<Integer, FutureTask<FlowField>> targetFields = new LinkedHashMap<>(16, 0.75f, true);
+    
+    private int[] changed = new int[64]; // cells toggled by the current edit
+    
+    public Navigation(int width, int height, double[] bases, int cacheSize) {
+        this(width, height, bases, cacheSize, SimulationParams.NAVIGATION_WINDOW_MARGIN);
+    }
+    
+    public Navigation(int width, int height, double[] bases, int cacheSize, int windowMargin) {
+        if (bases.length < 2 || bases.length % 2 != 0) {
+            throw new IllegalArgumentException("Bases must be (x, y) pairs, at least one");
+        }
+        this.width = width;
+        this.height = height;
+        this.blocked = new long[(width * height + 63) >>> 6];
+        this.bases = bases.clone();
+        this.cacheSize = Math.max(1, cacheSize);
+        this.windowMargin = Math.max(1, windowMargin);
+    }
+    
+    // The configured bases, with its no-fly zones blocked
+    public Navigation(SimulationConfig config) {
+        this(config.gridWidth, config.gridHeight, config.bases, config.navigationCacheSize, config.navigationWindowMargin);
+        int[] zones = config.noFlyZones;
+        for (int z = 0; z + 3 < zones.length; z += 4) {
+            setBlocked(zones[z], zones[z + 1], zones[z + 2], zones[z + 3], true);
+        }
+    }
+    
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public long getVersion() { return version; }
+    public boolean hasObstacles() { return blockedCount > 0; }
+    public int getBlockedCount() { return blockedCount; }
+    
+    public int getBaseCount() { return bases.length / 2; }
+    public double getBaseX(int b) { return bases[2 * b]; }
+    public double getBaseY(int b) { return bases[2 * b + 1]; }
+    
+    public boolean isBlocked(int cx, int cy) {
+        return cx >= 0 && cx < width && cy >= 0 && cy < height && FlowField.isBlocked(blocked, cy * width + cx);
+    }
+    
+    // Is every cell of [x0, x1) x [y0, y1) blocked?
+    public boolean isBlocked(int x0, int y0, int x1, int y1) {
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                if (!isBlocked(x, y)) return false;
+            }
+        }
+        return true;
+    }
+    
+    // Cell index under a position, -1 outside the grid
+    public int cellOf(double x, double y) {
+        int cx = (int) Math.floor(x), cy = (int) Math.floor(y);
+        return cx < 0 || cx >= width || cy < 0 || cy >= height ? -1 : cy * width + cx;
+    }
+    
+    // Closest base as the crow flies
+    public int nearestBase(double x, double y) {
+        int best = 0;
+        double bestSq = Double.MAX_VALUE;
+        for (int b = 0; b < bases.length / 2; b++) {
+            double dx = bases[2 * b] - x, dy = bases[2 * b + 1] - y;
+            double d2 = dx * dx + dy * dy;
+            if (d2 < bestSq) {
+                bestSq = d2;
+                best = b;
+            }
+        }
+        return best;
+    }
+    
+    public boolean isAtBase(double x, double y) {
+        for (int b = 0; b < bases.length / 2; b++) {
+            double dx = bases[2 * b] - x, dy = bases[2 * b + 1] - y;
+            if (dx * dx + dy * dy < 0.25) return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Block or free the cells [x0, x1) x [y0, y1), clipped to the grid. Cached fields
+     * are repaired for the cells that actually changed.
+     */
+    public void setBlocked(int x0, int y0, int x1, int y1, boolean block) {
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(width, x1);
+        y1 = Math.min(height, y1);
+        int count = 0;
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int cell = y * width + x;
+                if (FlowField.isBlocked(blocked, cell) == block) continue;
+                blocked[cell >>> 6] ^= 1L << cell;
+                if (count == changed.length) {
+                    changed = Arrays.copyOf(changed, count * 2);
+                }
+                changed[count++] = cell;
+            }
+        }
+        if (count == 0) return;
+        blockedCount += block ? count : -count;
+        version++;
+        synchronized (this) {
+            if (baseField != null) baseField.repair(blocked, changed, count);
+            Iterator<FutureTask<FlowField>> fields = targetFields.values().iterator();
+            while (fields.hasNext()) {
+                FutureTask<FlowField> task = fields.next();
+                if (task.isDone()) {
+                    result(task).repair(blocked, changed, count);
+                } else {
+                    fields.remove(); // built against the old obstacles
+                }
+            }
+        }
+    }
+    
+    // Free every cell
+    public void clearObstacles() {
+        setBlocked(0, 0, width, height, false);
+    }
+    
+    // Field towards the nearest base
+    public synchronized FlowField baseField() {
+        if (baseField == null) {
+            int[] goals = new int[bases.length / 2];
+            int n = 0;
+            for (int b = 0; b < goals.length; b++) {
+                int cell = cellOf(bases[2 * b], bases[2 * b + 1]);
+                if (cell >= 0) goals[n++] = cell;
+            }
+            baseField = new FlowField(width, height, Arrays.copyOf(goals, n));
+            baseField.compute(blocked);
+        }
+        return baseField;
+    }
+    
+    // Field towards one cell, over a window around it only
+    public FlowField fieldTo(int cell) {
+        return fieldTo(cell, -1);
+    }
+    
+    /**
+     * Field towards one cell that leads there from cell from (-1 for none), cached per
+     * target; the least recently used field is dropped past the cache size. A windowed
+     * field is only used from cells whose path within the window is provably shorter
+     * than any path that leaves it (see leadsFrom()), so the steps a drone gets are the
+     * ones of the whole-grid field, whatever window earlier requests left in the cache.
+     * Otherwise the field is replaced by one over a window at least twice as large, so a
+     * target is rebuilt a logarithmic number of times at most. The build runs outside
+     * the lock; callers asking for a target already being built wait for that build.
+     */
+    public FlowField fieldTo(int cell, int from) {
+        while (true) {
+            FutureTask<FlowField> task;
+            boolean build = false;
+            synchronized (this) {
+                task = targetFields.get(cell);
+                FlowField cached = task != null && task.isDone() ? result(task) : null;
+                if (task == null || (cached != null && !leadsFrom(cached, from))) {
+                    task = fieldTask(cell, from, cached);
+                    build = true;
+                    targetFields.put(cell, task);
+                    Iterator<Map.Entry<Integer, FutureTask<FlowField>>> eldest = targetFields.entrySet().iterator();
+                    while (targetFields.size() > cacheSize) {
+                        eldest.next();
+                        eldest.remove();
+                    }
+                }
+            }
+            if (build) task.run();
+            FlowField f = result(task);
+            if (leadsFrom(f, from)) return f;
+        }
+    }
+    
+    /**
+     * Is f the answer for a drone in cell from? On the whole grid, or from a blocked
+     * cell, always. In a window, only if from's cost is below the cheapest path through
+     * a cell outside the window by more than a few steps: then no path leaving the
+     * window can compete, neither from from nor from the cells next to its path that a
+     * drone may cut through, and ties are broken the same way as on the whole grid
+     * (row-major order is the same inside any window).
+     */
+    private boolean leadsFrom(FlowField f, int from) {
+        if (from < 0 || f.isWholeGrid()) return true;
+        if (!f.covers(from)) return false;
+        if (FlowField.isBlocked(blocked, from)) return true;
+        return f.reaches(from) && (long) f.getCost(from) + EXIT_SLACK < exitBound(f, from);
+    }
+    
+    // Octile distance from cell from to f's goal through the nearest cell outside f's window
+    private long exitBound(FlowField f, int from) {
+        int fx = from % width, fy = from / width;
+        int goal = f.getGoal();
+        int tx = goal % width, ty = goal / width;
+        int x0 = f.getWindowX0(), y0 = f.getWindowY0(), x1 = f.getWindowX1(), y1 = f.getWindowY1();
+        int rx0 = Math.max(0, x0 - 1), rx1 = Math.min(width - 1, x1);
+        int ry0 = Math.max(0, y0 - 1), ry1 = Math.min(height - 1, y1);
+        long best = Long.MAX_VALUE;
+        if (x0 > 0) best = Math.min(best, lineBound(x0 - 1, fx, fy, tx, ty, ry0, ry1));
+        if (x1 < width) best = Math.min(best, lineBound(x1, fx, fy, tx, ty, ry0, ry1));
+        if (y0 > 0) best = Math.min(best, lineBound(y0 - 1, fy, fx, ty, tx, rx0, rx1));
+        if (y1 < height) best = Math.min(best, lineBound(y1, fy, fx, ty, tx, rx0, rx1));
+        return best;
+    }
+    
+    /**
+     * Cheapest octile detour from (fu, fv) to (tu, tv) through a point (u, v) with v in
+     * [lo, hi] (u and v stand for x and y or the other way round). The sum is convex
+     * and piecewise linear in v, so its minimum is at a break point or at an end.
+     */
+    private static long lineBound(int u, int fu, int fv, int tu, int tv, int lo, int hi) {
+        int a = Math.abs(u - fu), b = Math.abs(u - tu);
+        int[] candidates = {fv, tv, fv - a, fv + a, tv - b, tv + b, lo, hi};
+        long best = Long.MAX_VALUE;
+        for (int v : candidates) {
+            v = Math.max(lo, Math.min(hi, v));
+            best = Math.min(best, octile(a, Math.abs(v - fv)) + octile(b, Math.abs(v - tv)));
+        }
+        return best;
+    }
+    
+    private static long octile(int dx, int dy) {
+        return (long) FlowField.STRAIGHT * Math.max(dx, dy) + (FlowField.DIAGONAL - FlowField.STRAIGHT) * Math.min(dx, dy);
+    }
+    
+    // Build of a field over the target, from and the previous window, padded by the margin or the previous size
+    private FutureTask<FlowField> fieldTask(int cell, int from, FlowField previous) {
+        int tx = cell % width, ty = cell / width;
+        int x0 = tx, y0 = ty, x1 = tx + 1, y1 = ty + 1;
+        if (from >= 0) {
+            x0 = Math.min(x0, from % width);
+            y0 = Math.min(y0, from / width);
+            x1 = Math.max(x1, from % width + 1);
+            y1 = Math.max(y1, from / width + 1);
+        }
+        int pad = windowMargin;
+        if (previous != null) {
+            x0 = Math.min(x0, previous.getWindowX0());
+            y0 = Math.min(y0, previous.getWindowY0());
+            x1 = Math.max(x1, previous.getWindowX1());
+            y1 = Math.max(y1, previous.getWindowY1());
+            pad = Math.max(pad, Math.max(previous.getWindowX1() - previous.getWindowX0(),
+                                         previous.getWindowY1() - previous.getWindowY0()));
+        }
+        FlowField f = new FlowField(width, height, new int[]{cell}, Math.max(0, x0 - pad), Math.max(0, y0 - pad),
+                                    Math.min(width, x1 + pad), Math.min(height, y1 + pad));
+        return new FutureTask<>(() -> {
+            f.compute(blocked);
+            return f;
+        });
+    }
+    
+    private static FlowField result(FutureTask<FlowField> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a flow field", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Flow field build failed", e.getCause());
+        }
+    }
+    
+    public synchronized int getCachedFieldCount() {
+        return targetFields.size() + (baseField == null ? 0 : 1);
+    }
+    
+    /**
+     * Does the straight segment between two positions stay out of blocked cells?
+     * Walks the cells it crosses (Amanatides-Woo), so costs O(length); callers keep
+     * the answer until the target or getVersion() changes.
+     */
+    public boolean clearLine(double x0, double y0, double x1, double y1) {
+        if (blockedCount == 0) return true;
+        int cx = (int) Math.floor(x0), cy = (int) Math.floor(y0);
+        int ex = (int) Math.floor(x1), ey = (int) Math.floor(y1);
+        double dx = x1 - x0, dy = y1 - y0;
+        int sx = dx > 0 ? 1 : -1, sy = dy > 0 ? 1 : -1;
+        double tDeltaX = dx == 0 ? Double.MAX_VALUE : Math.abs(1 / dx);
+        double tDeltaY = dy == 0 ? Double.MAX_VALUE : Math.abs(1 / dy);
+        double tMaxX = dx == 0 ? Double.MAX_VALUE : (sx > 0 ? cx + 1 - x0 : x0 - cx) * tDeltaX;
+        double tMaxY = dy == 0 ? Double.MAX_VALUE : (sy > 0 ? cy + 1 - y0 : y0 - cy) * tDeltaY;
+        for (int n = Math.abs(ex - cx) + Math.abs(ey - cy); n >= 0; n--) {
+            if (isBlocked(cx, cy)) return false;
+            if (tMaxX < tMaxY) {
+                cx += sx;
+                tMaxX += tDeltaX;
+            } else {
+                cy += sy;
+                tMaxY += tDeltaY;
+            }
+        }
+        return true;
+    }
+}
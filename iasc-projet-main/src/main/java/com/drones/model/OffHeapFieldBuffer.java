@@ -0,0 +1,73 @@
+package com.drones.model;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * FieldBuffer over direct or memory-mapped DoubleBuffers. A single buffer is
+ * limited to 2 GB, so the grid is split into chunks of CHUNK_DOUBLES values.
+ */
+public class OffHeapFieldBuffer implements FieldBuffer {
+    public static final int CHUNK_SHIFT = 27; // 2^27 doubles = 1 GB per chunk
+    public static final int CHUNK_DOUBLES = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_DOUBLES - 1;
+    
+    private final DoubleBuffer[] chunks;
+    
+    // chunks[k] holds indices [k * CHUNK_DOUBLES, (k + 1) * CHUNK_DOUBLES)
+    public OffHeapFieldBuffer(DoubleBuffer[] chunks) {
+        this.chunks = chunks;
+    }
+    
+    @Override
+    public double get(int index) {
+        return chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+    }
+    
+    @Override
+    public void add(int index, double value) {
+        DoubleBuffer chunk = chunks[index >>> CHUNK_SHIFT];
+        int i = index & CHUNK_MASK;
+        chunk.put(i, chunk.get(i) + value);
+    }
+    
+    @Override
+    public void read(int index, double[] dst, int offset, int length) {
+        while (length > 0) {
+            int i = index & CHUNK_MASK;
+            int n = Math.min(length, CHUNK_DOUBLES - i);
+            chunks[index >>> CHUNK_SHIFT].get(i, dst, offset, n);
+            index += n;
+            offset += n;
+            length -= n;
+        }
+    }
+    
+    @Override
+    public void write(int index, double[] src, int offset, int length) {
+        while (length > 0) {
+            int i = index & CHUNK_MASK;
+            int n = Math.min(length, CHUNK_DOUBLES - i);
+            chunks[index >>> CHUNK_SHIFT].put(i, src, offset, n);
+            index += n;
+            offset += n;
+            length -= n;
+        }
+    }
+    
+    @Override
+    public void fill(int index, int length, double value) {
+        while (length > 0) {
+            DoubleBuffer chunk = chunks[index >>> CHUNK_SHIFT];
+            int i = index & CHUNK_MASK;
+            int n = Math.min(length, CHUNK_DOUBLES - i);
+            for (int k = i; k < i + n; k++) {
+                chunk.put(k, value);
+            }
+            index += n;
+            length -= n;
+        }
+    }
+    
+    @Override
+    public double[] array() { return null; }
+}
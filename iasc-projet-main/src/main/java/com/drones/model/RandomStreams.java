@@ -0,0 +1,51 @@
+package com.drones.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seedable source of independent random streams. Each stream is a SplittableRandom
+ * whose seed is a hash of (run seed, stream kind, key), so a stream only depends on
+ * what it is for - a tile, a drone - and never on creation order or on other threads.
+ * Components each own their streams, which keeps parallel runs reproducible bit for
+ * bit without any shared, synchronized generator.
+ */
+public class RandomStreams {
+    // Stream kinds
+    public static final int SPAWN = 1;
+    public static final int SENSOR_NOISE = 2;
+    public static final int RUN = 3;
+    
+    private final long seed;
+    
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+    
+    public long getSeed() { return seed; }
+    
+    public SplittableRandom stream(int kind, long key) {
+        return new SplittableRandom(mix(mix(seed ^ mix(kind)) + key));
+    }
+    
+    // Anomaly spawning for one tile of the grid (tile 0 for grid-wide draws)
+    public SplittableRandom forTile(int tile) {
+        return stream(SPAWN, tile);
+    }
+    
+    // Sensor noise of one drone
+    public SplittableRandom forDrone(int droneId) {
+        return stream(SENSOR_NOISE, droneId);
+    }
+    
+    // Seeds of the independent runs of a Monte Carlo batch
+    public RandomStreams forRun(long run) {
+        return new RandomStreams(mix(mix(seed ^ mix(RUN)) + run));
+    }
+    
+    // SplitMix64 finalizer
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
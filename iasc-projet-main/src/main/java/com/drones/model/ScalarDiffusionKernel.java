@@ -0,0 +1,49 @@
+package com.drones.model;
+
+/**
+ * Plain Java row kernel, always available.
+ */
+public class ScalarDiffusionKernel implements DiffusionKernel {
+    
+    @Override
+    public void diffuseRow(double[] a, int ao, double[] m, int mo, double[] b, int bo,
+                           double[] out, int oo, int x0, int x1, int width, double spread) {
+        if (width == 1) {
+            out[oo] = Math.min(1.0, m[mo] + (a[ao] + b[bo]) * spread);
+            return;
+        }
+        
+        // Left border
+        double s;
+        if (x0 == 0) {
+            s = (a[ao] + a[ao + 1]) + m[mo + 1] + (b[bo] + b[bo + 1]);
+            out[oo] = Math.min(1.0, m[mo] + s * spread);
+        }
+        
+        // Interior
+        interior(a, ao, m, mo, b, bo, out, oo, Math.max(x0, 1), Math.min(x1, width - 1), spread);
+        
+        // Right border
+        if (x1 == width) {
+            int r = width - 1;
+            s = (a[ao + r - 1] + a[ao + r]) + m[mo + r - 1] + (b[bo + r - 1] + b[bo + r]);
+            out[oo + r] = Math.min(1.0, m[mo + r] + s * spread);
+        }
+    }
+    
+    // Columns [from, to), all with both horizontal neighbours inside the row
+    static void interior(double[] a, int ao, double[] m, int mo, double[] b, int bo,
+                         double[] out, int oo, int from, int to, double spread) {
+        for (int j = from; j < to; j++) {
+            double s = (a[ao + j - 1] + a[ao + j] + a[ao + j + 1])
+                     + (m[mo + j - 1] + m[mo + j + 1])
+                     + (b[bo + j - 1] + b[bo + j] + b[bo + j + 1]);
+            out[oo + j] = Math.min(1.0, m[mo + j] + s * spread);
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
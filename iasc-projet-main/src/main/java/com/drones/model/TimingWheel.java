@@ -0,0 +1,188 @@
+package com.drones.model;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel for deadlines of small integer timer ids. Time is in
+ * slots of granularity units; level 0 has one bucket per slot for the next 256
+ * slots, each higher level has 256 buckets 256 times coarser, and a bucket is
+ * moved down a level when the wheel reaches it. Scheduling, cancelling and firing
+ * are O(1) per timer. A bitmap per level marks the non-empty buckets, so advancing
+ * jumps straight to the next slot that fires or cascades: it costs the timers that
+ * expire and the buckets visited, not the time elapsed or the timers pending.
+ * Buckets are intrusive doubly linked lists over the ids; a timer has at most one
+ * pending deadline.
+ */
+public class TimingWheel {
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (BITS * LEVELS);
+    
+    private final long granularity;
+    private long current; // last slot processed
+    private final int[] heads = new int[LEVELS * SLOTS]; // bucket -> first id, -1 empty
+    private final long[] occupied = new long[LEVELS * SLOTS / 64]; // bit per non-empty bucket
+    private int[] next = new int[0], prev = new int[0];
+    private int[] bucket = new int[0]; // -1 when not scheduled
+    private long[] deadline = new long[0]; // in slots
+    private int size;
+    
+    public interface Expiry {
+        void expired(int id);
+    }
+    
+    public TimingWheel(long granularity) {
+        this(granularity, 64);
+    }
+    
+    public TimingWheel(long granularity, int capacity) {
+        if (granularity <= 0) {
+            throw new IllegalArgumentException("Granularity must be positive: " + granularity);
+        }
+        this.granularity = granularity;
+        Arrays.fill(heads, -1);
+        ensureCapacity(capacity);
+    }
+    
+    public long getGranularity() { return granularity; }
+    public int size() { return size; }
+    
+    // Time up to which timers have fired
+    public long getTime() { return current * granularity; }
+    
+    public boolean isScheduled(int id) {
+        return id < bucket.length && bucket[id] >= 0;
+    }
+    
+    public void ensureCapacity(int ids) {
+        if (ids <= bucket.length) return;
+        int n = Math.max(ids, 2 * bucket.length);
+        int old = bucket.length;
+        next = Arrays.copyOf(next, n);
+        prev = Arrays.copyOf(prev, n);
+        deadline = Arrays.copyOf(deadline, n);
+        bucket = Arrays.copyOf(bucket, n);
+        Arrays.fill(bucket, old, n, -1);
+    }
+    
+    /**
+     * Fire id once the wheel has advanced to time or later (rounded up to a slot);
+     * a time already passed fires on the next advance. Replaces a pending deadline.
+     */
+    public void schedule(int id, long time) {
+        ensureCapacity(id + 1);
+        if (bucket[id] >= 0) unlink(id);
+        else size++;
+        deadline[id] = Math.floorDiv(time + granularity - 1, granularity);
+        insert(id, current + 1);
+    }
+    
+    public void cancel(int id) {
+        if (!isScheduled(id)) return;
+        unlink(id);
+        bucket[id] = -1;
+        size--;
+    }
+    
+    // Fire, in no particular order, every timer due at or before time
+    public void advanceTo(long time, Expiry expiry) {
+        long target = Math.floorDiv(time, granularity);
+        while (current < target) {
+            long step = size == 0 ? Long.MAX_VALUE : nextEvent();
+            if (step > target) {
+                current = target; // nothing fires or cascades on the way
+                return;
+            }
+            current = step;
+            cascade();
+            int b = (int) (current & MASK);
+            int id = heads[b];
+            heads[b] = -1;
+            occupied[b >>> 6] &= ~(1L << b);
+            while (id >= 0) {
+                int following = next[id];
+                bucket[id] = -1;
+                size--;
+                expiry.expired(id);
+                id = following;
+            }
+        }
+    }
+    
+    public void clear() {
+        Arrays.fill(heads, -1);
+        Arrays.fill(occupied, 0);
+        Arrays.fill(bucket, -1);
+        size = 0;
+    }
+    
+    // Entering a new block of a level: move its bucket's timers down
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((current & ((1L << (BITS * level)) - 1)) != 0) return;
+            int b = level * SLOTS + (int) ((current >>> (BITS * level)) & MASK);
+            int id = heads[b];
+            heads[b] = -1;
+            occupied[b >>> 6] &= ~(1L << b);
+            while (id >= 0) {
+                int following = next[id];
+                insert(id, current); // due now: lands in the bucket fired next
+                id = following;
+            }
+        }
+    }
+    
+    /**
+     * First slot after current where a level-0 bucket fires or a non-empty bucket of
+     * a higher level cascades. Level L's bucket for block n (of 2^(8L) slots) is
+     * n & MASK, and it holds nothing further than 256 blocks ahead, so the first
+     * occupied bucket found going round from the next block is the next one due.
+     */
+    private long nextEvent() {
+        long best = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * level;
+            long block = (current >>> shift) + 1;
+            int k = distanceToOccupied(level, (int) (block & MASK));
+            if (k >= 0) best = Math.min(best, (block + k) << shift);
+        }
+        return best;
+    }
+    
+    // Buckets from start, going round, to the first non-empty one of the level; -1 if none
+    private int distanceToOccupied(int level, int start) {
+        int base = level * SLOTS;
+        for (int k = 0; k < SLOTS; ) {
+            int b = (start + k) & MASK;
+            long word = occupied[(base + b) >>> 6] >>> (b & 63);
+            if (word != 0) return k + Long.numberOfTrailingZeros(word);
+            k += 64 - (b & 63); // rest of this word is empty
+        }
+        return -1;
+    }
+    
+    private void insert(int id, long earliest) {
+        long due = Math.max(deadline[id], earliest);
+        long delta = Math.min(due - current, MAX_SPAN - 1);
+        due = current + delta; // beyond the top level: parked, re-placed when cascaded
+        int level = 0;
+        while (delta >= (1L << (BITS * (level + 1)))) level++;
+        int b = level * SLOTS + (int) ((due >>> (BITS * level)) & MASK);
+        bucket[id] = b;
+        prev[id] = -1;
+        next[id] = heads[b];
+        if (heads[b] >= 0) prev[heads[b]] = id;
+        heads[b] = id;
+        occupied[b >>> 6] |= 1L << b;
+    }
+    
+    private void unlink(int id) {
+        int b = bucket[id];
+        if (prev[id] >= 0) next[prev[id]] = next[id];
+        else heads[b] = next[id];
+        if (next[id] >= 0) prev[next[id]] = prev[id];
+        if (heads[b] < 0) occupied[b >>> 6] &= ~(1L << b);
+    }
+}
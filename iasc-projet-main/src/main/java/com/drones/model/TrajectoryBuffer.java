@@ -0,0 +1,126 @@
+package com.drones.model;
+
+import java.util.AbstractList;
+
+/**
+ * Bounded polyline of one drone's path, packed as (x, y) floats in a ring.
+ * Points are simplified as they arrive (sleeve / cone intersection): a repeated
+ * position is ignored, and the last kept point is replaced by the new one as long
+ * as every point dropped since the one before it stays within tolerance of the
+ * segment to the new point. Each dropped point allows the segment's direction only
+ * within asin(tolerance / distance) of its own, so the run keeps the intersection
+ * of those cones; O(1) per point, and the error never accumulates along a curve.
+ * Once capacity is reached the oldest points are overwritten. Reads as a List of
+ * fresh double[]{x, y}, oldest first.
+ */
+public class TrajectoryBuffer extends AbstractList<double[]> {
+    private final float[] xy;
+    private final int capacity;
+    private final double tolerance;
+    private int head; // oldest point
+    private int size;
+    // Current run, from the point before the last one: directions still allowed, relative to runAngle
+    private double runAngle, runLow, runHigh;
+    private double runReach; // farthest point of the run from its start
+
+    public TrajectoryBuffer(int capacity, double tolerance) {
+        this.capacity = Math.max(2, capacity);
+        this.xy = new float[2 * this.capacity];
+        this.tolerance = tolerance;
+    }
+
+    public int getCapacity() { return capacity; }
+
+    public double getX(int i) { return xy[2 * slot(i)]; }
+    public double getY(int i) { return xy[2 * slot(i) + 1]; }
+
+    public void add(double x, double y) {
+        float fx = (float) x, fy = (float) y;
+        if (size > 0 && fx == xy[2 * slot(size - 1)] && fy == xy[2 * slot(size - 1) + 1]) {
+            return;
+        }
+        if (size >= 2) {
+            double dx = fx - getX(size - 2), dy = fy - getY(size - 2);
+            double d = Math.hypot(dx, dy);
+            double a = relative(Math.atan2(dy, dx));
+            // Inside every dropped point's cone, and no turning back
+            if (d >= runReach && a >= runLow && a <= runHigh) {
+                int last = slot(size - 1);
+                xy[2 * last] = fx;
+                xy[2 * last + 1] = fy;
+                narrow(a, d);
+                return;
+            }
+        }
+        if (size == capacity) {
+            head = (head + 1) % capacity;
+            size--;
+        }
+        int s = slot(size++);
+        xy[2 * s] = fx;
+        xy[2 * s + 1] = fy;
+        if (size >= 2) {
+            // New run from the previous point, constrained by the new one only
+            double dx = fx - getX(size - 2), dy = fy - getY(size - 2);
+            runAngle = Math.atan2(dy, dx);
+            runLow = -Math.PI;
+            runHigh = Math.PI;
+            runReach = 0;
+            narrow(0, Math.hypot(dx, dy));
+        }
+    }
+
+    // Allow only directions that pass within tolerance of a point at angle a, distance d
+    private void narrow(double a, double d) {
+        double half = d <= tolerance ? Math.PI : Math.asin(tolerance / d);
+        runLow = Math.max(runLow, a - half);
+        runHigh = Math.min(runHigh, a + half);
+        runReach = Math.max(runReach, d);
+    }
+
+    // Angle relative to the run's first direction, in (-pi, pi]
+    private double relative(double angle) {
+        double a = angle - runAngle;
+        if (a > Math.PI) a -= 2 * Math.PI;
+        else if (a <= -Math.PI) a += 2 * Math.PI;
+        return a;
+    }
+
+    // Copy the points, oldest first, as interleaved (x, y) into out; returns the point count
+    public int copyTo(float[] out) {
+        int first = Math.min(size, capacity - head);
+        System.arraycopy(xy, 2 * head, out, 0, 2 * first);
+        System.arraycopy(xy, 0, out, 2 * first, 2 * (size - first));
+        return size;
+    }
+    
+    private int slot(int i) {
+        int s = head + i;
+        return s >= capacity ? s - capacity : s;
+    }
+
+    @Override
+    public double[] get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new double[]{getX(index), getY(index)};
+    }
+
+    @Override
+    public boolean add(double[] point) {
+        add(point[0], point[1]);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
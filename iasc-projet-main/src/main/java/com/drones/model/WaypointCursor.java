@@ -0,0 +1,67 @@
+package com.drones.model;
+
+/**
+ * Boustrophedon sweep of a rectangle of cells [x0, x1) x [y0, y1), row by row in
+ * alternating directions, optionally followed by a base. Waypoints are
+ * computed from the bounds and the cursor position, nothing is stored per point,
+ * so a plan costs the same whatever the size of its rectangle.
+ */
+public class WaypointCursor {
+    private final int x0, y0, width, height;
+    private final boolean returnToBase;
+    private final double baseX, baseY;
+    private int position; // index of the next waypoint
+    
+    // Sweep only
+    public WaypointCursor(int x0, int y0, int x1, int y1) {
+        this(x0, y0, x1, y1, false, 0, 0);
+    }
+    
+    // Sweep, then the base at (baseX, baseY)
+    public WaypointCursor(int x0, int y0, int x1, int y1, double baseX, double baseY) {
+        this(x0, y0, x1, y1, true, baseX, baseY);
+    }
+    
+    private WaypointCursor(int x0, int y0, int x1, int y1, boolean returnToBase, double baseX, double baseY) {
+        this.x0 = x0;
+        this.y0 = y0;
+        this.width = Math.max(0, x1 - x0);
+        this.height = Math.max(0, y1 - y0);
+        this.returnToBase = returnToBase;
+        this.baseX = baseX;
+        this.baseY = baseY;
+    }
+    
+    public int getX0() { return x0; }
+    public int getY0() { return y0; }
+    public int getX1() { return x0 + width; }
+    public int getY1() { return y0 + height; }
+    
+    // Waypoints in the whole plan, and still ahead
+    public int size() { return width * height + (returnToBase ? 1 : 0); }
+    public int remaining() { return size() - position; }
+    public boolean hasNext() { return position < size(); }
+    public int getPosition() { return position; }
+    
+    // Waypoint k steps ahead of the cursor (0 = the next one)
+    public double getX(int k) {
+        int n = position + k;
+        if (n == width * height) return baseX;
+        int row = n / width, col = n % width;
+        return (row & 1) == 0 ? x0 + col : x0 + width - 1 - col;
+    }
+    
+    public double getY(int k) {
+        int n = position + k;
+        if (n == width * height) return baseY;
+        return y0 + n / width;
+    }
+    
+    public void next() {
+        if (position < size()) position++;
+    }
+    
+    public void rewind() {
+        position = 0;
+    }
+}
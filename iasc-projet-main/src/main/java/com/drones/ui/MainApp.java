@@ -12,27 +12,58 @@ import javafx.stage.Stage;
 import javafx.animation.AnimationTimer;
 
 import com.drones.config.SimulationParams;
+import com.drones.control.EventLog;
 import com.drones.control.SimulationEngine;
+import com.drones.control.SimulationLoop;
+import com.drones.control.SimulationSnapshot;
 import com.drones.model.*;
-import java.util.List;
-import java.util.Map;
 
 public class MainApp extends Application {
     
-    private SimulationEngine engine;
+    private SimulationEngine engine; // owned by the simulation thread once the loop runs
+    private SimulationLoop loop;
     private Canvas canvas;
     private AnimationTimer animationTimer;
     private TextArea logArea;
     private Label metricsLabel;
     private Button startButton, pauseButton, stopButton, resetButton;
     private Slider speedSlider;
-    private double speedFactor = 1.0;
+    private Label speedLabel;
     private boolean isPaused = false;
-    private int lastEventCount = 0;
+    private int heatmapLevel;
+    private double[] bases;   // (x, y) pairs, fixed for the run
+    private int[] noFlyZones; // (x0, y0, x1, y1) cell rectangles
+    private EventLog events;
+    private volatile long publishedEvents; // events [0, publishedEvents) handed out, set on the simulation thread
+    private volatile boolean logClearPending;
+    private long shownEvents; // FX thread: events before this were shown or skipped
+    private static final int MAX_LOG_LINES = 200; // newest events formatted per frame, older ones skipped
+    private static final int MAX_LOG_CHARS = 200_000;
     
     @Override
     public void start(Stage primaryStage) {
         engine = new SimulationEngine();
+        IntensityPyramid pyramid = engine.getEnvironment().getField().getPyramid();
+        heatmapLevel = pyramid.levelForCellSize(SimulationParams.CELL_SIZE_PX, SimulationParams.HEATMAP_MIN_BLOCK_PX);
+        bases = engine.getConfig().bases.clone();
+        noFlyZones = engine.getConfig().noFlyZones.clone();
+        
+        // Called on the simulation thread: only note how far the log got, updateLog() formats
+        events = engine.getEvents();
+        events.subscribe(new EventLog.Subscriber() {
+            @Override
+            public void eventsAppended(EventLog log, long from, long to) {
+                publishedEvents = to;
+            }
+            
+            @Override
+            public void logCleared() {
+                publishedEvents = 0;
+                logClearPending = true;
+            }
+        });
+        loop = new SimulationLoop(engine);
+        loop.setHeatmapLevel(heatmapLevel);
         
         // Root layout
         BorderPane root = new BorderPane();
@@ -70,10 +101,11 @@ public class MainApp extends Application {
         
         primaryStage.show();
         
-        // Start animation loop
+        // Start the simulation thread and the animation loop
+        loop.start();
         startAnimationLoop();
         
-        engine.logEvent("Simulation initialisée. Appuyez sur Start pour commencer.");
+        loop.submit(e -> e.logEvent("Simulation initialisée. Appuyez sur Start pour commencer."));
     }
     
     private VBox createControlPanel() {
@@ -99,34 +131,42 @@ public class MainApp extends Application {
         resetButton.setPrefWidth(200);
         
         startButton.setOnAction(e -> {
-            engine.start();
             isPaused = false;
-            engine.logEvent("▶ Simulation démarrée.");
+            loop.submit(sim -> {
+                sim.start();
+                sim.logEvent("▶ Simulation démarrée.");
+            });
         });
         
         pauseButton.setOnAction(e -> {
             if (!isPaused) {
-                engine.stop();
                 isPaused = true;
-                engine.logEvent("⏸ Simulation en pause.");
+                loop.submit(sim -> {
+                    sim.stop();
+                    sim.logEvent("⏸ Simulation en pause.");
+                });
             } else {
-                engine.start();
                 isPaused = false;
-                engine.logEvent("▶ Simulation reprise.");
+                loop.submit(sim -> {
+                    sim.start();
+                    sim.logEvent("▶ Simulation reprise.");
+                });
             }
         });
         
         stopButton.setOnAction(e -> {
-            engine.stop();
             isPaused = false;
-            engine.logEvent("⏹ Simulation arrêtée.");
+            loop.submit(sim -> {
+                sim.stop();
+                sim.logEvent("⏹ Simulation arrêtée.");
+            });
         });
         
         resetButton.setOnAction(e -> {
-            engine.reset();
-            logArea.clear();
-            lastEventCount = 0;
-            engine.logEvent("🔄 Simulation réinitialisée.");
+            loop.submit(sim -> {
+                sim.reset();
+                sim.logEvent("🔄 Simulation réinitialisée.");
+            });
         });
         
         panel.getChildren().addAll(startButton, pauseButton, stopButton, resetButton);
@@ -136,19 +176,26 @@ public class MainApp extends Application {
         panel.getChildren().add(sep1);
         
         // Speed control
-        Label speedLabel = new Label("Vitesse Simulation");
+        speedLabel = new Label("Vitesse Simulation: 1.0x");
         speedLabel.setStyle("-fx-font-size: 11; -fx-font-weight: bold;");
         panel.getChildren().add(speedLabel);
         
-        speedSlider = new Slider(0.5, 4.0, 1.0);
-        speedSlider.setShowTickLabels(true);
+        // Logarithmic: 0.5x to 1000x
+        speedSlider = new Slider(Math.log10(0.5), 3.0, 0.0);
         speedSlider.setShowTickMarks(true);
         speedSlider.setMajorTickUnit(1.0);
-        speedSlider.setBlockIncrement(0.5);
+        speedSlider.setBlockIncrement(0.1);
         speedSlider.setPrefWidth(200);
         speedSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
-            speedFactor = newVal.doubleValue();
-            engine.logEvent("Vitesse: " + String.format("%.1f", speedFactor) + "x");
+            double speedFactor = Math.pow(10, newVal.doubleValue());
+            loop.setSpeedFactor(speedFactor);
+            speedLabel.setText("Vitesse Simulation: " + String.format("%.1f", speedFactor) + "x");
+        });
+        speedSlider.valueChangingProperty().addListener((obs, was, changing) -> {
+            if (!changing) {
+                String speed = String.format("%.1f", loop.getSpeedFactor());
+                loop.submit(sim -> sim.logEvent("Vitesse: " + speed + "x"));
+            }
         });
         panel.getChildren().add(speedSlider);
         
@@ -188,30 +235,21 @@ public class MainApp extends Application {
         return panel;
     }
     
+    // Each frame draws the latest snapshot; ticking happens on the simulation thread
     private void startAnimationLoop() {
         animationTimer = new AnimationTimer() {
-            private long lastTick = 0;
-            private static final long TICK_NANOS = SimulationParams.TICK_DURATION_MS * 1_000_000L;
-            
             @Override
             public void handle(long now) {
-                if (engine.isRunning()) {
-                    long adjustedTick = (long) (TICK_NANOS / speedFactor);
-                    if (now - lastTick >= adjustedTick) {
-                        engine.tick();
-                        lastTick = now;
-                    }
-                }
-                
-                render();
-                updateMetrics();
+                SimulationSnapshot snapshot = loop.latest();
+                render(snapshot);
+                updateMetrics(snapshot);
                 updateLog();
             }
         };
         animationTimer.start();
     }
     
-    private void render() {
+    private void render(SimulationSnapshot s) {
         GraphicsContext gc = canvas.getGraphicsContext2D();
         
         // Clear canvas
@@ -230,73 +268,73 @@ public class MainApp extends Application {
                          canvas.getWidth(), i * SimulationParams.CELL_SIZE_PX);
         }
         
-        // Draw anomaly heatmap
-        Environment env = engine.getEnvironment();
-        double[][] anomalyGrid = env.getAnomalyIntensity();
-        
-        for (int y = 0; y < env.getHeight(); y++) {
-            for (int x = 0; x < env.getWidth(); x++) {
-                double intensity = anomalyGrid[y][x];
-                if (intensity > 0.01) {
-                    Color color = interpolateColor(intensity);
-                    gc.setFill(color);
-                    gc.fillRect(x * SimulationParams.CELL_SIZE_PX,
-                               y * SimulationParams.CELL_SIZE_PX,
-                               SimulationParams.CELL_SIZE_PX,
-                               SimulationParams.CELL_SIZE_PX);
-                }
+        // Draw anomaly heatmap; zoomed out, one block per pyramid cell, coloured by its mean
+        double block = SimulationParams.CELL_SIZE_PX * (double) (1 << s.getHeatLevel());
+        for (int cy = 0; cy < s.getHeatHeight(); cy++) {
+            for (int cx = 0; cx < s.getHeatWidth(); cx++) {
+                if (s.getHeatMax(cx, cy) <= 0.01) continue;
+                gc.setFill(interpolateColor(s.getHeatMean(cx, cy)));
+                gc.fillRect(cx * block, cy * block, block, block);
             }
         }
         
         // Draw drone trajectories
-        drawTrajectories(gc);
+        drawTrajectories(gc, s);
+        
+        // Draw no-fly zones
+        double cell = SimulationParams.CELL_SIZE_PX;
+        gc.setFill(Color.color(0.3, 0.3, 0.3, 0.5));
+        for (int z = 0; z + 3 < noFlyZones.length; z += 4) {
+            gc.fillRect(noFlyZones[z] * cell, noFlyZones[z + 1] * cell,
+                        (noFlyZones[z + 2] - noFlyZones[z]) * cell, (noFlyZones[z + 3] - noFlyZones[z + 1]) * cell);
+        }
         
-        // Draw base
-        gc.setFill(Color.GREEN);
-        gc.fillRect(0, 0, SimulationParams.CELL_SIZE_PX, SimulationParams.CELL_SIZE_PX);
-        gc.setStroke(Color.DARKGREEN);
+        // Draw bases
         gc.setLineWidth(2);
-        gc.strokeRect(0, 0, SimulationParams.CELL_SIZE_PX, SimulationParams.CELL_SIZE_PX);
-        gc.setFill(Color.BLACK);
         gc.setFont(new javafx.scene.text.Font(9));
-        gc.fillText("BASE", 2, 11);
+        for (int b = 0; b + 1 < bases.length; b += 2) {
+            double bx = Math.floor(bases[b]) * cell, by = Math.floor(bases[b + 1]) * cell;
+            gc.setFill(Color.GREEN);
+            gc.fillRect(bx, by, cell, cell);
+            gc.setStroke(Color.DARKGREEN);
+            gc.strokeRect(bx, by, cell, cell);
+            gc.setFill(Color.BLACK);
+            gc.fillText("BASE", bx + 2, by + 11);
+        }
         
         // Draw drones
-        for (Drone drone : engine.getDrones()) {
-            drawDrone(gc, drone);
+        for (int i = 0; i < s.getDroneCount(); i++) {
+            drawDrone(gc, s, i);
         }
     }
     
-    private void drawTrajectories(GraphicsContext gc) {
-        for (Map.Entry<Integer, List<double[]>> entry : engine.getDroneTrajectories().entrySet()) {
-            List<double[]> trajectory = entry.getValue();
+    private void drawTrajectories(GraphicsContext gc, SimulationSnapshot s) {
+        for (int d = 0; d < s.getDroneCount(); d++) {
+            int points = s.getTrailPoints(d);
             
-            if (trajectory.size() < 2) continue;
+            if (points < 2) continue;
             
             gc.setStroke(Color.web("#cccccc", 0.3));
             gc.setLineWidth(1);
             
-            for (int i = 1; i < trajectory.size(); i++) {
-                double[] prev = trajectory.get(i - 1);
-                double[] curr = trajectory.get(i);
-                
-                int x1 = (int) (prev[0] * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
-                int y1 = (int) (prev[1] * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
-                int x2 = (int) (curr[0] * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
-                int y2 = (int) (curr[1] * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
+            for (int i = 1; i < points; i++) {
+                int x1 = (int) (s.getTrailX(d, i - 1) * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
+                int y1 = (int) (s.getTrailY(d, i - 1) * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
+                int x2 = (int) (s.getTrailX(d, i) * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
+                int y2 = (int) (s.getTrailY(d, i) * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
                 
                 gc.strokeLine(x1, y1, x2, y2);
             }
         }
     }
     
-    private void drawDrone(GraphicsContext gc, Drone drone) {
-        int px = (int) (drone.getX() * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
-        int py = (int) (drone.getY() * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
+    private void drawDrone(GraphicsContext gc, SimulationSnapshot s, int i) {
+        int px = (int) (s.getDroneX(i) * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
+        int py = (int) (s.getDroneY(i) * SimulationParams.CELL_SIZE_PX) + SimulationParams.CELL_SIZE_PX / 2;
         int radius = 5;
         
         Color stateColor;
-        switch (drone.getState()) {
+        switch (s.getDroneState(i)) {
             case ACTIVE:
                 stateColor = Color.GREEN;
                 break;
@@ -321,7 +359,7 @@ public class MainApp extends Application {
         
         gc.setFill(Color.BLACK);
         gc.setFont(new javafx.scene.text.Font(8));
-        gc.fillText(String.valueOf(drone.getId()), px - 2, py + 3);
+        gc.fillText(String.valueOf(s.getDroneId(i)), px - 2, py + 3);
     }
     
     private Color interpolateColor(double intensity) {
@@ -334,48 +372,60 @@ public class MainApp extends Application {
         }
     }
     
-    private void updateMetrics() {
-        SimulationEngine.SimulationMetrics m = engine.getMetrics();
+    private void updateMetrics(SimulationSnapshot s) {
         String metricsText = String.format(
             "Temps: %.1f s\n" +
             "Couverture: %.1f%%\n" +
+            "Zone anomalique: %.1f%%\n" +
             "Anomalies: %d\n" +
             "Actifs: %d\n" +
             "Recharge: %d\n" +
             "Mesures: %d\n" +
+            "Mesures à la base: %d\n" +
             "Vitesse: %.1fx",
-            engine.getSimulationTime() / 1000.0,
-            m.coveragePercentage,
-            m.anomaliesDetected,
-            m.activeDrones,
-            m.rechargingDrones,
-            (int)engine.getDrones().stream()
-                .flatMap(d -> d.getMeasurements().stream())
-                .count(),
-            speedFactor
+            s.getSimulationTime() / 1000.0,
+            s.getCoveragePercentage(),
+            s.getAnomalyAreaPercentage(),
+            s.getAnomaliesDetected(),
+            s.getActiveDrones(),
+            s.getRechargingDrones(),
+            s.getMeasurementsOnBoard(),
+            s.getMeasurementsAtBase(),
+            loop.getSpeedFactor()
         );
         metricsLabel.setText(metricsText);
     }
     
+    // Format the newest events published since the last frame, read from the ring while the simulation runs
     private void updateLog() {
-        List<String> events = engine.getEventLog();
-        if (events.size() > lastEventCount) {
+        if (logClearPending) {
+            logClearPending = false;
             logArea.clear();
-            for (String event : events) {
-                logArea.appendText(event + "\n");
-            }
-            logArea.setScrollTop(Double.MAX_VALUE);
-            lastEventCount = events.size();
+            shownEvents = 0;
         }
+        long latest = publishedEvents;
+        if (latest <= shownEvents) return;
+        StringBuilder text = new StringBuilder();
+        for (long seq = Math.max(shownEvents, latest - MAX_LOG_LINES); seq < latest; seq++) {
+            String line = events.tryFormat(seq);
+            if (line != null) text.append(line).append('\n');
+        }
+        shownEvents = latest;
+        logArea.appendText(text.toString());
+        if (logArea.getLength() > MAX_LOG_CHARS) {
+            logArea.deleteText(0, logArea.getLength() - MAX_LOG_CHARS);
+        }
+        logArea.setScrollTop(Double.MAX_VALUE);
     }
     
-
-    
     @Override
     public void stop() {
         if (animationTimer != null) {
             animationTimer.stop();
         }
+        if (loop != null) {
+            loop.shutdown();
+        }
     }
     
     public static void main(String[] args) {
@@ -0,0 +1,41 @@
+package com.drones.cli;
+
+import com.drones.config.SimulationParams;
+import com.drones.config.SimulationScenario;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BatchRunnerTest {
+    
+    @Test
+    public void testParseOptions() {
+        BatchRunner.Options o = BatchRunner.Options.parse(new String[]{
+            "--scenario", "heavy_pollution", "--seed", "42", "--minutes", "2", "--drones", "12"});
+        assertEquals(12, o.drones);
+        assertEquals(SimulationScenario.HEAVY_POLLUTION, o.scenario);
+        assertEquals(42, o.seed);
+        assertEquals(2 * 60_000 / SimulationParams.TICK_DURATION_MS, o.ticks);
+        assertNull(o.csvFile);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnknownScenario() {
+        BatchRunner.Options.parse(new String[]{"--scenario", "VOLCANO"});
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsMissingValue() {
+        BatchRunner.Options.parse(new String[]{"--ticks"});
+    }
+    
+    @Test
+    public void testRunsRequestedTicks() {
+        BatchRunner.Options o = BatchRunner.Options.parse(new String[]{"--seed", "3", "--ticks", "500"});
+        BatchRunner.Report r = BatchRunner.run(o);
+        assertEquals(500, r.ticks);
+        assertEquals(500L * SimulationParams.TICK_DURATION_MS, r.engine.getSimulationTime());
+        assertTrue(r.ticksPerSecond() > 0);
+        assertTrue(r.peakHeapBytes > 0);
+        assertEquals(SimulationParams.NUM_DRONES, r.engine.getDrones().size());
+    }
+}
@@ -0,0 +1,195 @@
+package com.drones.control;
+
+import com.drones.config.SimulationConfig;
+import com.drones.model.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.Random;
+
+public class CoordinatorTest {
+    
+    @Test
+    public void testHotspotsGetDistinctDrones() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.spawnProbability = 0;
+        Environment env = new Environment(config, new RandomStreams(1));
+        env.addAnomaly(new Anomaly(30, 30, 1.0, 0));
+        env.addAnomaly(new Anomaly(40, 30, 1.0, 0));
+        env.update(config.tickDurationMs);
+        
+        // The first drone is nearest to both hotspots
+        DroneFleet fleet = new DroneFleet(config, 3);
+        fleet.add(0, 20, 30);
+        fleet.add(1, 0, 0);
+        fleet.add(2, 0, 49);
+        fleet.setState(2, DroneState.CHARGING);
+        new Coordinator(config).adaptiveRetasking(fleet.asList(), env);
+        
+        assertEquals(1, fleet.getWaypointCount(0));
+        assertEquals(1, fleet.getWaypointCount(1));
+        assertEquals(0, fleet.getWaypointCount(2));
+        // Bids are squared distances: 20² + 42.4² beats 10² + 50²
+        assertEquals(40, fleet.getWaypointX(0, 0), 2);
+        assertEquals(30, fleet.getWaypointX(1, 0), 2);
+    }
+    
+    @Test
+    public void testArrivedDroneResumesItsPlan() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.spawnProbability = 0;
+        Environment env = new Environment(config, new RandomStreams(1));
+        env.addAnomaly(new Anomaly(30, 30, 1.0, 0));
+        env.update(config.tickDurationMs);
+        
+        DroneFleet fleet = new DroneFleet(config, 1);
+        fleet.add(0, 20, 30);
+        WaypointCursor plan = new WaypointCursor(0, 0, 10, 10, 0, 0);
+        fleet.setPlan(0, plan);
+        Coordinator coordinator = new Coordinator(config);
+        coordinator.adaptiveRetasking(fleet.asList(), env);
+        assertEquals(1, coordinator.getAssignedCount());
+        assertNull(fleet.getPlan(0));
+        
+        for (int t = 0; t < 100 && coordinator.getAssignedCount() > 0; t++) {
+            fleet.update(config.tickDurationMs);
+            coordinator.adaptiveRetasking(fleet.asList(), env);
+        }
+        assertEquals(0, coordinator.getAssignedCount());
+        assertSame(plan, fleet.getPlan(0));
+        assertEquals(-1, coordinator.getTask(0));
+    }
+    
+    @Test
+    public void testHotspotWaitsForAFreeDrone() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.spawnProbability = 0;
+        config.decayRate = 1; // the hotspot stays
+        Environment env = new Environment(config, new RandomStreams(1));
+        env.addAnomaly(new Anomaly(30, 30, 1.0, 0));
+        env.update(config.tickDurationMs);
+        
+        DroneFleet fleet = new DroneFleet(config, 1);
+        fleet.add(0, 0, 0);
+        fleet.setState(0, DroneState.CHARGING);
+        Coordinator coordinator = new Coordinator(config);
+        coordinator.adaptiveRetasking(fleet.asList(), env);
+        assertEquals(0, coordinator.getAssignedCount());
+        assertEquals(1, coordinator.getWaitingCount());
+        
+        // Back to active: it takes the waiting hotspot
+        fleet.setState(0, DroneState.ACTIVE);
+        coordinator.droneStateChanged(fleet.get(0));
+        coordinator.adaptiveRetasking(fleet.asList(), env);
+        assertEquals(1, coordinator.getAssignedCount());
+        int task = coordinator.getTask(0);
+        
+        // Sent home on low battery: the hotspot waits again
+        fleet.setState(0, DroneState.RETURNING);
+        coordinator.droneStateChanged(fleet.get(0));
+        assertEquals(0, coordinator.getAssignedCount());
+        assertEquals(1, coordinator.getWaitingCount());
+        assertEquals(task, 30 * config.gridWidth + 30, 2 * config.gridWidth + 2);
+    }
+    
+    @Test
+    public void testNoDroneSentWhenOneIsClose() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.spawnProbability = 0;
+        Environment env = new Environment(config, new RandomStreams(1));
+        env.addAnomaly(new Anomaly(30, 30, 1.0, 0));
+        env.update(config.tickDurationMs);
+        
+        DroneFleet fleet = new DroneFleet(config, 2);
+        fleet.add(0, 32, 31);
+        fleet.add(1, 10, 10);
+        new Coordinator(config).adaptiveRetasking(fleet.asList(), env);
+        assertEquals(0, fleet.getWaypointCount(0));
+        assertEquals(0, fleet.getWaypointCount(1));
+    }
+    
+    @Test
+    public void testCappedAuctionStillSendsEveryHotspotADrone() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.spawnProbability = 0;
+        config.retaskCandidates = 1; // every hotspot bids on the same drone
+        config.retaskMaxBids = 1;
+        Environment env = new Environment(config, new RandomStreams(1));
+        for (int i = 0; i < 4; i++) {
+            env.addAnomaly(new Anomaly(10, 5 + 10 * i, 1.0, 0));
+        }
+        env.update(config.tickDurationMs);
+        
+        DroneFleet fleet = new DroneFleet(config, 4);
+        for (int i = 0; i < 4; i++) {
+            fleet.add(i, 40 + i, 20);
+        }
+        Coordinator coordinator = new Coordinator(config);
+        coordinator.adaptiveRetasking(fleet.asList(), env);
+        assertEquals(4, coordinator.getAssignedCount());
+        assertEquals(0, coordinator.getWaitingCount());
+        assertTrue(coordinator.getAuctionBids() <= 2 * 4);
+        boolean[] used = new boolean[4];
+        for (int i = 0; i < 4; i++) {
+            int y = coordinator.getTask(i) / config.gridWidth;
+            assertFalse(used[(y - 5) / 10]);
+            used[(y - 5) / 10] = true;
+        }
+    }
+    
+    @Test
+    public void testAuctionStopsAtTheBidCap() {
+        // Three targets tied on two drones: a price war of epsilon raises
+        AssignmentAuction auction = new AssignmentAuction();
+        int[] candidates = {0, 1, 0, 1, 0, 1};
+        double[] distance = {1, 1, 1, 1, 1, 1};
+        auction.solve(3, 2, candidates, distance, 2, 10);
+        assertTrue(auction.getBids() > 100);
+        
+        int[] assigned = auction.solve(3, 2, candidates, distance, 2, 10, 5);
+        assertEquals(5, auction.getBids());
+        assertTrue(assigned[0] < 0 || assigned[0] != assigned[1] && assigned[0] != assigned[2]);
+        assertTrue(assigned[1] < 0 || assigned[1] != assigned[2]);
+    }
+    
+    @Test
+    public void testAuctionNearOptimal() {
+        Random random = new Random(9);
+        AssignmentAuction auction = new AssignmentAuction();
+        int targets = 5, drones = 6;
+        int[] candidates = new int[targets * drones];
+        double[] distance = new double[targets * drones];
+        for (int round = 0; round < 20; round++) {
+            for (int t = 0; t < targets; t++) {
+                for (int d = 0; d < drones; d++) {
+                    candidates[t * drones + d] = d;
+                    distance[t * drones + d] = random.nextDouble() * 50;
+                }
+            }
+            int[] assigned = auction.solve(targets, drones, candidates, distance, drones, 1000);
+            
+            boolean[] used = new boolean[drones];
+            double total = 0;
+            for (int t = 0; t < targets; t++) {
+                assertTrue(assigned[t] >= 0);
+                assertFalse(used[assigned[t]]);
+                used[assigned[t]] = true;
+                total += distance[t * drones + assigned[t]];
+            }
+            double best = bestTotal(0, new boolean[drones], targets, drones, distance);
+            assertEquals(best, total, targets * AssignmentAuction.DEFAULT_EPSILON + 1e-9);
+        }
+    }
+    
+    // Exhaustive minimum over assignments of targets [t, targets)
+    private static double bestTotal(int t, boolean[] used, int targets, int drones, double[] distance) {
+        if (t == targets) return 0;
+        double best = Double.POSITIVE_INFINITY;
+        for (int d = 0; d < drones; d++) {
+            if (used[d]) continue;
+            used[d] = true;
+            best = Math.min(best, distance[t * drones + d] + bestTotal(t + 1, used, targets, drones, distance));
+            used[d] = false;
+        }
+        return best;
+    }
+}
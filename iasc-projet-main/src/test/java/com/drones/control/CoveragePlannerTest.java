@@ -0,0 +1,50 @@
+package com.drones.control;
+
+import com.drones.model.WaypointCursor;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CoveragePlannerTest {
+    
+    @Test
+    public void testPlansTileTheGrid() {
+        int[][] grids = {{50, 50}, {37, 11}, {1, 1}, {200, 30}, {64, 64}};
+        int[] fleets = {1, 2, 3, 5, 7, 12, 50, 97};
+        for (int[] g : grids) {
+            for (int n : fleets) {
+                CoveragePlanner planner = new CoveragePlanner(g[0], g[1]);
+                int[] owner = new int[g[0] * g[1]];
+                int minArea = Integer.MAX_VALUE, maxArea = 0;
+                for (int i = 0; i < n; i++) {
+                    WaypointCursor plan = planner.plan(n, i);
+                    int area = 0;
+                    for (int y = plan.getY0(); y < plan.getY1(); y++) {
+                        for (int x = plan.getX0(); x < plan.getX1(); x++) {
+                            assertEquals("cell covered twice", 0, owner[y * g[0] + x]);
+                            owner[y * g[0] + x] = i + 1;
+                            area++;
+                        }
+                    }
+                    assertEquals(area + 1, plan.size());
+                    minArea = Math.min(minArea, area);
+                    maxArea = Math.max(maxArea, area);
+                }
+                for (int o : owner) {
+                    assertTrue("cell not covered", o > 0);
+                }
+                // Balanced up to rounding of the cuts
+                if (n <= g[0] * g[1] / 16) {
+                    assertTrue(g[0] + "x" + g[1] + " / " + n + ": " + minArea + ".." + maxArea, maxArea <= 2 * minArea);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testRectanglesNearlySquare() {
+        CoveragePlanner planner = new CoveragePlanner(100, 100);
+        assertEquals(3, planner.columns(7));
+        assertEquals(4, planner.columns(16));
+        assertEquals(1, new CoveragePlanner(10, 1000).columns(4));
+    }
+}
@@ -0,0 +1,110 @@
+package com.drones.control;
+
+import com.drones.config.SimulationConfig;
+import com.drones.model.DroneState;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class EventLogTest {
+    
+    @Test
+    public void testFormatMatchesLogLines() {
+        EventLog log = new EventLog(16);
+        log.append(EventLog.STATE_CHANGE, 1500, 3, 0, 0, DroneState.RETURNING.ordinal());
+        log.append(EventLog.DETECTION, 2000, 4, 10.25, 3.5, 0.8765);
+        log.append(EventLog.RETURNED_TO_BASE, 2500, 5, 0, 0, 0);
+        log.message(3000, "Fin");
+        
+        assertEquals(String.format("[%.1f s] ", 1.5) + "Drone 3 → " + DroneState.RETURNING.getLabel(), log.format(0));
+        assertEquals(String.format("[%.1f s] ", 2.0) + "Drone 4 détecte anomalie à (" +
+                     String.format("%.1f", 10.25) + "," + String.format("%.1f", 3.5) +
+                     ") - Intensité: " + String.format("%.2f", 0.8765), log.format(1));
+        assertEquals(String.format("[%.1f s] ", 2.5) + "Drone 5 est retourné à la base", log.format(2));
+        assertEquals(String.format("[%.1f s] ", 3.0) + "Fin", log.format(3));
+        assertEquals(4, log.asList().size());
+        assertEquals(log.format(3), log.asList().get(3));
+    }
+    
+    @Test
+    public void testRingKeepsNewestEvents() {
+        EventLog log = new EventLog(4);
+        for (int i = 0; i < 10; i++) {
+            log.message(i * 1000L, "e" + i);
+        }
+        assertEquals(4, log.size());
+        assertEquals(6, log.getFirstSequence());
+        assertEquals(10, log.getNextSequence());
+        assertTrue(log.asList().get(0).endsWith("e6"));
+        assertTrue(log.asList().get(3).endsWith("e9"));
+        try {
+            log.format(5);
+            fail("overwritten event should not be readable");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+    
+    @Test
+    public void testPublishDeliversOnlyNewEvents() {
+        EventLog log = new EventLog(8);
+        List<String> seen = new ArrayList<>();
+        int[] cleared = {0};
+        log.subscribe(new EventLog.Subscriber() {
+            @Override
+            public void eventsAppended(EventLog l, long from, long to) {
+                for (long s = from; s < to; s++) seen.add(l.format(s));
+            }
+            
+            @Override
+            public void logCleared() {
+                cleared[0]++;
+            }
+        });
+        
+        log.message(0, "a");
+        log.message(0, "b");
+        log.publish();
+        log.publish(); // nothing new
+        log.message(0, "c");
+        log.publish();
+        assertEquals(3, seen.size());
+        assertTrue(seen.get(2).endsWith("c"));
+        
+        // More than the capacity between publishes: only retained events are delivered
+        for (int i = 0; i < 20; i++) log.message(0, "x" + i);
+        log.publish();
+        assertEquals(3 + 8, seen.size());
+        assertTrue(seen.get(3).endsWith("x12"));
+        
+        log.clear();
+        assertEquals(1, cleared[0]);
+        assertEquals(0, log.size());
+        log.message(0, "d");
+        log.publish();
+        assertTrue(seen.get(seen.size() - 1).endsWith("d"));
+    }
+    
+    @Test
+    public void testTryFormatSkipsReusedSlots() {
+        EventLog log = new EventLog(4);
+        for (int i = 0; i < 6; i++) {
+            log.message(i, "m" + i);
+        }
+        assertNull(log.tryFormat(1));  // overwritten
+        assertNull(log.tryFormat(2));  // slot the next append writes
+        assertTrue(log.tryFormat(3).endsWith("m3"));
+        assertTrue(log.tryFormat(5).endsWith("m5"));
+        assertNull(log.tryFormat(6));  // not appended yet
+    }
+    
+    @Test
+    public void testEngineLogUsesRing() {
+        SimulationEngine engine = new SimulationEngine(1L, SimulationConfig.defaults());
+        engine.logEvent("Bonjour");
+        assertEquals(1, engine.getEventLog().size());
+        assertTrue(engine.getEventLog().get(0).endsWith("Bonjour"));
+        engine.reset();
+        assertEquals(0, engine.getEventLog().size());
+    }
+}
@@ -0,0 +1,62 @@
+package com.drones.control;
+
+import com.drones.config.SimulationConfig;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParameterSweepTest {
+    
+    @Test
+    public void testGridIsCartesianProduct() {
+        ParameterSweep sweep = new ParameterSweep(SimulationConfig.defaults(), 10, 1, 1)
+            .vary(ParameterSweep.Axis.DRONES, 3, 5)
+            .vary(ParameterSweep.Axis.DECAY, 0.9, 0.93, 0.95);
+        List<ParameterSweep.Point> points = sweep.points();
+        assertEquals(6, points.size());
+        assertEquals(3, points.get(0).config.numDrones);
+        assertEquals(0.93, points.get(1).config.decayRate, 0.0);
+        assertEquals(5, points.get(5).config.numDrones);
+        assertEquals(0.95, points.get(5).config.decayRate, 0.0);
+    }
+    
+    @Test
+    public void testParallelSweepMatchesIndependentRuns() {
+        SimulationConfig base = SimulationConfig.defaults();
+        base.spawnProbability = 0.2;
+        ParameterSweep sweep = new ParameterSweep(base, 300, 3, 99)
+            .vary(ParameterSweep.Axis.DRONES, 2, 7);
+        
+        List<ParameterSweep.PointSummary> summaries = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            sweep.run(pool, summaries::add);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(2, summaries.size());
+        
+        for (ParameterSweep.PointSummary s : summaries) {
+            assertEquals(3, s.runs);
+            double sum = 0;
+            for (int r = 0; r < 3; r++) {
+                sum += ParameterSweep.runOnce(s.point.config, sweep.getRunSeed(r), 300).coverage;
+            }
+            assertEquals(sum / 3, s.coverage.mean, 1e-12);
+            assertTrue(s.coverage.p50 <= s.coverage.p90);
+        }
+    }
+    
+    @Test
+    public void testStatPercentiles() {
+        ParameterSweep.Stat stat = new ParameterSweep.Stat(new double[]{5, 1, Double.NaN, 3, 2, 4});
+        assertEquals(5, stat.count);
+        assertEquals(3.0, stat.mean, 0.0);
+        assertEquals(3.0, stat.p50, 0.0);
+        assertEquals(5.0, stat.p90, 0.0);
+        assertEquals(1.0, stat.min, 0.0);
+        assertTrue(Double.isNaN(new ParameterSweep.Stat(new double[0]).mean));
+    }
+}
@@ -0,0 +1,74 @@
+package com.drones.control;
+
+import com.drones.config.SimulationConfig;
+import com.drones.model.Anomaly;
+import com.drones.model.DroneFleet;
+import com.drones.model.Environment;
+import com.drones.model.RandomStreams;
+import java.util.Random;
+
+/**
+ * One re-tasking round for 10k hotspot cells and 10k drones on a 1000² grid (not a
+ * unit test). "mixed" scatters both over the whole grid, so many hotspots already
+ * have a drone close by; "all" keeps the drones on the left half and the hotspots
+ * on the right, so every hotspot goes through the auction. Fails if a round places
+ * more auction bids than the cap allows (retaskMaxBids per hotspot and pass) or
+ * leaves a hotspot without a drone while drones are free.
+ * Run after mvn test-compile with:
+ * java -cp target/classes:target/test-classes com.drones.control.RetaskingBenchmark
+ */
+public class RetaskingBenchmark {
+    
+    private static final int SIZE = 1000;
+    private static final int COUNT = 10_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 20;
+    
+    public static void main(String[] args) {
+        System.out.printf("%-8s %9s %9s %9s %10s%n", "Layout", "hotspots", "assigned", "bids", "best ms");
+        run("mixed", false);
+        run("all", true);
+    }
+    
+    private static void run(String layout, boolean split) {
+        SimulationConfig config = SimulationConfig.defaults().withGrid(SIZE, SIZE);
+        config.spawnProbability = 0;
+        Random random = new Random(1);
+        Environment env = new Environment(config, new RandomStreams(1));
+        for (int i = 0; i < COUNT; i++) {
+            int x = split ? SIZE / 2 + random.nextInt(SIZE / 2) : random.nextInt(SIZE);
+            env.addAnomaly(new Anomaly(x, random.nextInt(SIZE), 1.0, 0));
+        }
+        env.update(config.tickDurationMs);
+        DroneFleet fleet = new DroneFleet(config, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            double x = split ? random.nextDouble() * (SIZE / 2 - 10) : random.nextDouble() * SIZE;
+            fleet.add(i, x, random.nextDouble() * SIZE);
+        }
+        
+        // A fresh coordinator queues every hotspot, so each round is a full one
+        long best = Long.MAX_VALUE;
+        int assigned = 0, waiting = 0, bids = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            Coordinator coordinator = new Coordinator(config);
+            coordinator.adaptiveRetasking(fleet.asList(), env); // sizes the scratch arrays
+            coordinator.reset();
+            coordinator.watch(new Environment(2, 2));
+            long start = System.nanoTime();
+            coordinator.adaptiveRetasking(fleet.asList(), env);
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) best = Math.min(best, elapsed);
+            assigned = coordinator.getAssignedCount();
+            waiting = coordinator.getWaitingCount();
+            bids = coordinator.getAuctionBids();
+        }
+        int hotspots = env.getHotspots().size();
+        System.out.printf("%-8s %9d %9d %9d %10.3f%n", layout, hotspots, assigned, bids, best / 1e6);
+        if (bids > 2L * config.retaskMaxBids * hotspots) {
+            throw new AssertionError(layout + ": " + bids + " bids, over the cap");
+        }
+        if (waiting > 0) {
+            throw new AssertionError(layout + ": " + waiting + " hotspots left waiting with drones free");
+        }
+    }
+}
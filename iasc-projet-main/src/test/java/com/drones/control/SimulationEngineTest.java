@@ -1,10 +1,13 @@
 package com.drones.control;
 
+import com.drones.config.SimulationConfig;
 import com.drones.config.SimulationParams;
 import com.drones.model.*;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SimulationEngineTest {
     
@@ -81,6 +84,18 @@ public class SimulationEngineTest {
         }
     }
     
+    @Test
+    public void testTrajectoriesStayBounded() {
+        engine.start();
+        for (int i = 0; i < 20000; i++) {
+            engine.tick();
+        }
+        for (java.util.List<double[]> traj : engine.getDroneTrajectories().values()) {
+            assertFalse(traj.isEmpty());
+            assertTrue(traj.size() <= SimulationParams.TRAJECTORY_POINTS);
+        }
+    }
+    
     @Test
     public void testMetricsUpdate() {
         engine.start();
@@ -95,4 +110,202 @@ public class SimulationEngineTest {
         assertTrue(metrics.activeDrones >= 0);
         assertTrue(metrics.rechargingDrones >= 0);
     }
+    
+    @Test
+    public void testSameSeedReproducesRun() {
+        SimulationEngine first = new SimulationEngine(42);
+        SimulationEngine second = new SimulationEngine(42);
+        first.start();
+        second.start();
+        for (int i = 0; i < 2000; i++) {
+            first.tick();
+            second.tick();
+        }
+        
+        assertEquals(first.getEventLog(), second.getEventLog());
+        assertEquals(first.getEnvironment().getAnomalies().size(), second.getEnvironment().getAnomalies().size());
+        for (int i = 0; i < first.getDrones().size(); i++) {
+            Drone a = first.getDrones().get(i);
+            Drone b = second.getDrones().get(i);
+            assertEquals(a.getX(), b.getX(), 0.0);
+            assertEquals(a.getY(), b.getY(), 0.0);
+            assertEquals(a.getMeasurements().size(), b.getMeasurements().size());
+        }
+        for (int y = 0; y < SimulationParams.GRID_HEIGHT; y++) {
+            for (int x = 0; x < SimulationParams.GRID_WIDTH; x++) {
+                assertEquals(first.getEnvironment().getIntensity(x, y),
+                             second.getEnvironment().getIntensity(x, y), 0.0);
+            }
+        }
+    }
+    
+    @Test
+    public void testParallelDronePhaseMatchesSequential() {
+        SimulationEngine sequential = new SimulationEngine(7);
+        SimulationEngine parallel = new SimulationEngine(7);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            parallel.setDroneExecutor(pool);
+            sequential.start();
+            parallel.start();
+            for (int i = 0; i < 2000; i++) {
+                sequential.tick();
+                parallel.tick();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        
+        assertEquals(sequential.getEventLog(), parallel.getEventLog());
+        for (int i = 0; i < sequential.getDrones().size(); i++) {
+            Drone a = sequential.getDrones().get(i);
+            Drone b = parallel.getDrones().get(i);
+            assertEquals(a.getX(), b.getX(), 0.0);
+            assertEquals(a.getY(), b.getY(), 0.0);
+            assertEquals(a.getState(), b.getState());
+            assertEquals(a.getMeasurements().size(), b.getMeasurements().size());
+        }
+    }
+    
+    @Test
+    public void testParallelDronePhaseMatchesSequentialWithNoFlyZones() {
+        SimulationConfig config = SimulationConfig.defaults().withGrid(80, 80);
+        config.numDrones = 24;
+        config.noFlyZones = new int[]{30, 0, 32, 60, 50, 20, 52, 80, 10, 40, 25, 42};
+        config.navigationWindowMargin = 6; // small windows, so requests from far drones grow them
+        SimulationEngine sequential = new SimulationEngine(11, config.copy());
+        SimulationEngine parallel = new SimulationEngine(11, config.copy());
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            parallel.setDroneExecutor(pool);
+            sequential.start();
+            parallel.start();
+            for (int i = 0; i < 2000; i++) {
+                sequential.tick();
+                parallel.tick();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        
+        assertTrue(sequential.getFleet().getNavigation().getCachedFieldCount() > 1);
+        assertEquals(sequential.getEventLog(), parallel.getEventLog());
+        for (int i = 0; i < sequential.getDrones().size(); i++) {
+            Drone a = sequential.getDrones().get(i);
+            Drone b = parallel.getDrones().get(i);
+            assertEquals(a.getX(), b.getX(), 0.0);
+            assertEquals(a.getY(), b.getY(), 0.0);
+            assertEquals(a.getState(), b.getState());
+        }
+    }
+    
+    @Test
+    public void testDockedDronesUploadReadings() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.droneAutonomyMs = 60_000;
+        config.spawnProbability = 0.5;
+        SimulationEngine e = new SimulationEngine(5L, config);
+        e.start();
+        for (int i = 0; i < 2000; i++) {
+            e.tick();
+        }
+        
+        // Every reading is either still on a drone or at the base
+        long detections = 0;
+        EventLog log = e.getEvents();
+        for (long s = log.getFirstSequence(); s < log.getNextSequence(); s++) {
+            if (log.getType(s) == EventLog.DETECTION) detections++;
+        }
+        BaseStationStore base = e.getBaseStation();
+        assertTrue(base.getUploads() > 0);
+        assertTrue(base.getTotalMeasurements() > 0);
+        assertEquals(detections, base.getTotalMeasurements() + e.getFleet().getMeasurementCount());
+        
+        e.reset();
+        assertEquals(0, base.getTotalMeasurements());
+    }
+    
+    @Test
+    public void testEventDrivenMatchesFixedTicksWithoutSpawns() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.spawnProbability = 0;
+        config.droneAutonomyMs = 60_000;
+        config.droneRechargeMs = 120_000;
+        config.revisitAgeMs = Integer.MAX_VALUE; // idle drones stay put
+        long calls = assertEventDrivenMatchesFixedTicks(config, 20_000);
+        assertTrue("quiet stretches should be skipped, " + calls + " calls", calls < 20_000 / 4);
+    }
+    
+    @Test
+    public void testEventDrivenMatchesFixedTicksWithRevisits() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.spawnProbability = 0;
+        config.numDrones = 2;
+        config.revisitAgeMs = 30_000;
+        assertEventDrivenMatchesFixedTicks(config, 20_000);
+    }
+    
+    @Test
+    public void testDronesStayOutOfNoFlyZones() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.bases = new double[]{0, 0, 49, 49};
+        config.noFlyZones = new int[]{20, 10, 30, 40};
+        config.droneAutonomyMs = 60 * 1000;
+        config.droneRechargeMs = 5 * 1000;
+        SimulationEngine engine = new SimulationEngine(5L, config);
+        engine.start();
+        Navigation nav = engine.getNavigation();
+        boolean docked = false;
+        for (int t = 0; t < 3000; t++) {
+            engine.tick();
+            for (Drone d : engine.getDrones()) {
+                assertFalse(nav.isBlocked((int) Math.floor(d.getX()), (int) Math.floor(d.getY())));
+                docked |= d.getState() == DroneState.CHARGING;
+            }
+        }
+        assertTrue(docked);
+        // Drones start at the bases in turn
+        SimulationEngine fresh = new SimulationEngine(5L, config);
+        assertEquals(49, fresh.getDrones().get(1).getX(), 0);
+        assertEquals(0, fresh.getDrones().get(2).getX(), 0);
+    }
+    
+    @Test
+    public void testEventDrivenMatchesFixedTicksWithNoFlyZones() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.spawnProbability = 0;
+        config.droneAutonomyMs = 60_000;
+        config.droneRechargeMs = 120_000;
+        config.bases = new double[]{0, 0, 49, 0};
+        config.noFlyZones = new int[]{10, 10, 40, 12};
+        assertEventDrivenMatchesFixedTicks(config, 20_000);
+    }
+    
+    // Same run ticked and advanced event-driven; returns the advance() calls made
+    private static long assertEventDrivenMatchesFixedTicks(SimulationConfig config, long ticks) {
+        SimulationEngine fixed = new SimulationEngine(9L, config.copy());
+        SimulationEngine events = new SimulationEngine(9L, config.copy());
+        events.setEventDriven(true);
+        fixed.start();
+        events.start();
+        
+        long calls = 0;
+        for (long t = 0; t < ticks; t++) {
+            fixed.tick();
+        }
+        for (long t = 0; t < ticks; calls++) {
+            t += events.advance(ticks - t);
+        }
+        
+        assertEquals(fixed.getSimulationTime(), events.getSimulationTime());
+        for (int i = 0; i < fixed.getFleet().size(); i++) {
+            assertEquals(fixed.getFleet().getState(i), events.getFleet().getState(i));
+            assertEquals(fixed.getFleet().getX(i), events.getFleet().getX(i), 1e-9);
+            assertEquals(fixed.getFleet().getY(i), events.getFleet().getY(i), 1e-9);
+            assertEquals(fixed.getFleet().getAutonomyRemaining(i), events.getFleet().getAutonomyRemaining(i));
+        }
+        assertEquals(fixed.getMetrics().toSnapshots().size(), events.getMetrics().toSnapshots().size());
+        assertEquals(fixed.getMetrics().coveragePercentage, events.getMetrics().coveragePercentage, 0);
+        return calls;
+    }
 }
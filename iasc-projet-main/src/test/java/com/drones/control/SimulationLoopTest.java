@@ -0,0 +1,125 @@
+package com.drones.control;
+
+import com.drones.config.SimulationConfig;
+import com.drones.config.SimulationParams;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SimulationLoopTest {
+    
+    private static final long MS = 1_000_000L;
+    
+    private SimulationLoop newLoop() {
+        return new SimulationLoop(new SimulationEngine(3L, SimulationConfig.defaults()));
+    }
+    
+    @Test
+    public void testFixedTimestep() {
+        SimulationLoop loop = newLoop();
+        long tick = loop.getEngine().getConfig().tickDurationMs;
+        assertEquals(0, loop.step(10 * tick * MS)); // not started: nothing owed
+        
+        loop.submit(SimulationEngine::start);
+        assertEquals(0, loop.step(0));
+        assertEquals(2, loop.step((2 * tick + tick / 4) * MS));
+        assertEquals(1, loop.step((3 * tick / 4) * MS)); // the remainder carries over
+        
+        loop.setSpeedFactor(10);
+        assertEquals(5, loop.step((tick / 2) * MS));
+        assertEquals(8 * tick, loop.getEngine().getSimulationTime());
+    }
+    
+    @Test
+    public void testCatchUpIsBounded() {
+        SimulationLoop loop = newLoop();
+        long tick = loop.getEngine().getConfig().tickDurationMs;
+        loop.submit(SimulationEngine::start);
+        assertEquals(SimulationParams.MAX_CATCH_UP_TICKS, loop.step(10_000 * tick * MS));
+        assertEquals(0, loop.step(0)); // backlog dropped
+    }
+    
+    @Test
+    public void testSnapshotsStayStableWhileHeld() {
+        SimulationLoop loop = newLoop();
+        long tick = loop.getEngine().getConfig().tickDurationMs;
+        loop.submit(SimulationEngine::start);
+        loop.step(tick * MS);
+        
+        SimulationSnapshot held = loop.latest();
+        long seq = held.getSequence();
+        long time = held.getSimulationTime();
+        assertEquals(tick, time);
+        assertEquals(SimulationParams.NUM_DRONES, held.getDroneCount());
+        assertTrue(held.isRunning());
+        
+        for (int i = 0; i < 5; i++) {
+            loop.step(tick * MS);
+        }
+        assertEquals(seq, held.getSequence());
+        assertEquals(time, held.getSimulationTime());
+        
+        SimulationSnapshot next = loop.latest();
+        assertNotSame(held, next);
+        assertEquals(6 * tick, next.getSimulationTime());
+        assertSame(next, loop.latest()); // nothing newer
+    }
+    
+    @Test
+    public void testUnreadSnapshotsArePublishedOncePerFrame() {
+        SimulationLoop loop = newLoop();
+        loop.setSpeedFactor(1000);
+        loop.submit(SimulationEngine::start);
+        loop.step(0);
+        long seq = loop.latest().getSequence();
+        
+        // Steps every 0.5 ms: one snapshot for the reader, then none for 10 ms
+        for (int i = 0; i < 20; i++) {
+            loop.step(MS / 2);
+        }
+        assertEquals(seq + 1, loop.latest().getSequence());
+        
+        // Unread for 20 ms: one right after the read, then one more after a frame interval
+        for (int i = 0; i < 40; i++) {
+            loop.step(MS / 2);
+        }
+        assertEquals(seq + 3, loop.latest().getSequence());
+    }
+    
+    @Test
+    public void testSnapshotCopiesEngineState() {
+        SimulationLoop loop = newLoop();
+        SimulationEngine engine = loop.getEngine();
+        loop.submit(SimulationEngine::start);
+        loop.step(20 * engine.getConfig().tickDurationMs * MS);
+        
+        SimulationSnapshot s = loop.latest();
+        for (int i = 0; i < s.getDroneCount(); i++) {
+            assertEquals(engine.getFleet().getX(i), s.getDroneX(i), 1e-4);
+            assertEquals(engine.getFleet().getY(i), s.getDroneY(i), 1e-4);
+            assertEquals(engine.getFleet().getState(i), s.getDroneState(i));
+            assertEquals(engine.getTrajectory(i).size(), s.getTrailPoints(i));
+        }
+        assertEquals(0, s.getHeatLevel());
+        assertEquals(engine.getConfig().gridWidth, s.getHeatWidth());
+        assertEquals(engine.getEnvironment().getField().get(7, 9), s.getHeatMean(7, 9), 1e-6);
+        assertEquals(engine.getMetrics().coveragePercentage, s.getCoveragePercentage(), 1e-12);
+    }
+    
+    @Test
+    public void testRunsOnItsOwnThread() throws InterruptedException {
+        SimulationLoop loop = newLoop();
+        loop.setSpeedFactor(1000);
+        loop.start();
+        try {
+            loop.submit(SimulationEngine::start);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (loop.latest().getSimulationTime() < 100 * SimulationParams.TICK_DURATION_MS
+                   && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(loop.latest().getSimulationTime() >= 100 * SimulationParams.TICK_DURATION_MS);
+        } finally {
+            loop.shutdown();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.drones.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.*;
+
+public class AnomalyIndexTest {
+    
+    private AnomalyIndex index;
+    private double[][] points;
+    
+    @Before
+    public void setUp() {
+        index = new AnomalyIndex(100, 80);
+        Random random = new Random(7);
+        points = new double[500][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{random.nextInt(100), random.nextInt(80)};
+            index.insert(i, points[i][0], points[i][1]);
+        }
+    }
+    
+    @Test
+    public void testRadiusQueryMatchesBruteForce() {
+        Set<Integer> found = new HashSet<>();
+        index.forEachWithin(40.5, 30.5, 12, (slot, x, y, d2) -> found.add(slot));
+        
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < points.length; i++) {
+            if (distSq(i, 40.5, 30.5) <= 144) expected.add(i);
+        }
+        assertEquals(expected, found);
+    }
+    
+    @Test
+    public void testAnyWithinMatchesBruteForce() {
+        Random random = new Random(3);
+        for (int q = 0; q < 200; q++) {
+            double x = random.nextDouble() * 110 - 5, y = random.nextDouble() * 90 - 5;
+            double radius = random.nextDouble() * 6;
+            boolean expected = false;
+            for (int i = 0; i < points.length; i++) {
+                expected |= distSq(i, x, y) < radius * radius;
+            }
+            assertEquals(expected, index.anyWithin(x, y, radius));
+        }
+    }
+    
+    @Test
+    public void testNearestMatchesBruteForce() {
+        int k = 10;
+        int[] slots = new int[k];
+        double[] dists = new double[k];
+        int count = index.nearest(3.2, 77.9, 1000, k, slots, dists);
+        assertEquals(k, count);
+        
+        Integer[] order = new Integer[points.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble(i -> distSq(i, 3.2, 77.9)));
+        for (int i = 0; i < k; i++) {
+            assertEquals(distSq(order[i], 3.2, 77.9), dists[i], 1e-9);
+        }
+    }
+    
+    @Test
+    public void testRemoveAndMove() {
+        index.remove(0);
+        assertEquals(499, index.size());
+        
+        // Slot 499 takes over the freed slot 0
+        index.move(499, 0);
+        assertEquals(499, index.size());
+        assertEquals(0, index.nearest(points[499][0], points[499][1], 0.1));
+        
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(-1, index.nearest(50, 40, 1000));
+    }
+    
+    private double distSq(int i, double x, double y) {
+        double dx = points[i][0] - x, dy = points[i][1] - y;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,71 @@
+package com.drones.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.*;
+
+public class AnomalyStoreTest {
+    
+    private AnomalyStore store;
+    
+    @Before
+    public void setUp() {
+        store = new AnomalyStore(2);
+    }
+    
+    @Test
+    public void testAddGrowsAndKeepsColumns() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, store.add(i, i + 1, 0.5, 0.8, i * 100L, -1));
+        }
+        assertEquals(10, store.size());
+        assertEquals(7.0, store.getX(7), 0.0);
+        assertEquals(8.0, store.getY(7), 0.0);
+        assertEquals(700L, store.getCreationTime(7));
+        assertFalse(store.isDetected(7));
+    }
+    
+    @Test
+    public void testDecayAll() {
+        store.add(0, 0, 1.0, 1.0, 0, -1);
+        store.add(1, 1, 0.5, 0.5, 0, -1);
+        store.decayAll(0.9);
+        assertEquals(0.9, store.getIntensity(0), 1e-12);
+        assertEquals(0.45, store.getIntensity(1), 1e-12);
+    }
+    
+    @Test
+    public void testRemoveDeadSwapsLastIntoHoles() {
+        store.add(0, 0, 0.005, 1.0, 0, -1); // dead
+        store.add(1, 0, 0.9, 1.0, 0, -1);
+        store.add(2, 0, 0.001, 1.0, 0, -1); // dead
+        store.add(3, 0, 0.7, 1.0, 0, -1);
+        
+        List<String> events = new ArrayList<>();
+        store.removeDead(new AnomalyStore.SlotListener() {
+            @Override
+            public void removed(int slot) { events.add("removed " + slot); }
+            
+            @Override
+            public void moved(int from, int to) { events.add("moved " + from + "->" + to); }
+        });
+        
+        assertEquals(2, store.size());
+        assertEquals(Arrays.asList("removed 0", "moved 3->0", "removed 2"), events);
+        assertEquals(3.0, store.getX(0), 0.0);
+        assertEquals(1.0, store.getX(1), 0.0);
+    }
+    
+    @Test
+    public void testMaterializeCopiesSlot() {
+        int slot = store.add(4, 5, 0.6, 0.9, 1200, -1);
+        store.markDetected(slot, 1800);
+        
+        Anomaly a = store.materialize(slot);
+        assertEquals(4.0, a.getX(), 0.0);
+        assertEquals(0.6, a.getIntensity(), 0.0);
+        assertEquals(0.9, a.getMaxIntensity(), 0.0);
+        assertEquals(1800, a.getDetectionTime());
+    }
+}
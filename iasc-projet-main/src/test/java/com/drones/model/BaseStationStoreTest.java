@@ -0,0 +1,78 @@
+package com.drones.model;
+
+import com.drones.config.SimulationConfig;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BaseStationStoreTest {
+    
+    @Test
+    public void testPerCellAggregates() {
+        BaseStationStore base = new BaseStationStore(10, 10);
+        MeasurementBuffer b = new MeasurementBuffer();
+        b.add(0.4, 1000, 3.2, 4.7);
+        b.add(0.8, 3000, 3.9, 4.1);
+        b.add(0.6, 2000, 3.5, 4.5);
+        b.add(0.9, 500, 7, 7);
+        b.add(1.0, 500, -1, 5); // outside the grid
+        base.upload(b);
+        
+        assertEquals(3, base.getCount(3, 4));
+        assertEquals(0.6, base.getMean(3, 4), 1e-9);
+        assertEquals(0.8, base.getMax(3, 4), 1e-9);
+        assertEquals(3000, base.getLastSeen(3, 4));
+        assertEquals(1, base.getCount(7, 7));
+        assertEquals(2, base.getCellsSeen());
+        assertEquals(5, base.getTotalMeasurements());
+        assertEquals(1, base.getUploads());
+        
+        assertEquals(0, base.getCount(0, 0));
+        assertTrue(Double.isNaN(base.getMean(0, 0)));
+        assertEquals(-1, base.getLastSeen(0, 0));
+        
+        base.clear();
+        assertEquals(0, base.getCount(3, 4));
+        assertEquals(0, base.getCellsSeen());
+    }
+    
+    @Test
+    public void testLargeGridStoresOnlyMeasuredCells() {
+        BaseStationStore base = new BaseStationStore(20000, 20000);
+        for (int i = 0; i < 1000; i++) {
+            base.ingest(i, i, 19999.5 - i * 7, i * 13 + 0.5);
+        }
+        base.ingest(5, 2000, 19999.5, 0.5); // same cell as the first reading
+        assertEquals(1000, base.getCellsSeen());
+        assertEquals(2, base.getCount(19999, 0));
+        assertEquals(2.5, base.getMean(19999, 0), 1e-9);
+        assertEquals(2000, base.getLastSeen(19999, 0));
+        assertEquals(999, base.getMax(19999 - 999 * 7, 999 * 13), 1e-9);
+        assertEquals(0, base.getCount(0, 0));
+        assertEquals(19999, base.getSeenCell(0));
+        
+        base.clear();
+        assertEquals(0, base.getCount(19999, 0));
+        base.ingest(1, 0, 3.5, 4.5);
+        assertEquals(1, base.getCount(3, 4));
+        assertEquals(1, base.getMean(3, 4), 1e-9);
+    }
+    
+    @Test
+    public void testDockingKeepsReadingsForUpload() {
+        SimulationConfig config = SimulationConfig.defaults();
+        Drone drone = new Drone(0, 1, 0, config);
+        drone.addMeasurement(0.5, 0, 1, 0);
+        drone.addMeasurement(0.7, 100, 1, 0);
+        drone.setState(DroneState.RETURNING);
+        while (drone.getState() != DroneState.CHARGING) {
+            drone.update(config.tickDurationMs);
+        }
+        assertEquals(2, drone.getMeasurements().size());
+        
+        BaseStationStore base = new BaseStationStore(config.gridWidth, config.gridHeight);
+        drone.uploadMeasurements(base);
+        assertEquals(0, drone.getMeasurements().size());
+        assertEquals(2, base.getCount(1, 0));
+        assertEquals(0.6, base.getMean(1, 0), 1e-9);
+    }
+}
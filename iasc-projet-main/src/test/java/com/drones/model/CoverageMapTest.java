@@ -0,0 +1,103 @@
+package com.drones.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CoverageMapTest {
+    
+    @Test
+    public void testCoverageAndLastVisit() {
+        CoverageMap map = new CoverageMap(20, 10, 200);
+        assertEquals(0, map.getCoveragePercentage(), 0);
+        assertEquals(-1, map.getLastVisit(3, 4));
+        
+        map.visit(3.2, 4.9, 1000);
+        map.visit(3.9, 4.5, 1200); // same cell
+        map.visit(3, 4, 1400);
+        assertEquals(1, map.getVisitedCount());
+        assertTrue(map.isVisited(3, 4));
+        assertEquals(1400, map.getLastVisit(3, 4));
+        
+        // A segment marks every cell it crosses
+        map.visitSegment(0, 0, 9, 0, 1600);
+        assertEquals(11, map.getVisitedCount());
+        assertEquals(11 / 200.0 * 100, map.getCoveragePercentage(), 1e-12);
+        
+        map.visit(-3, 50, 1800); // off the grid
+        map.visit(-0.5, 2, 1800);
+        map.visit(19.5, 10.2, 1800);
+        assertEquals(11, map.getVisitedCount());
+        map.visit(19.9, 9.9, 1800); // last cell
+        assertTrue(map.isVisited(19, 9));
+        
+        map.clear();
+        assertEquals(0, map.getVisitedCount());
+        assertFalse(map.isVisited(3, 4));
+    }
+    
+    @Test
+    public void testStalestRegions() {
+        CoverageMap map = new CoverageMap(20, 10, 100); // 3 x 2 regions, the edge ones smaller
+        assertEquals(6, map.getRegionCount());
+        // See every cell once at 1 s, then refresh all but the last region
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 20; x++) {
+                map.visit(x, y, 1000);
+                if (x < 16 || y < 8) map.visit(x, y, 5000);
+            }
+        }
+        int last = map.getRegionCount() - 1;
+        assertEquals(last, map.stalestRegion());
+        assertEquals(9000, map.getRegionAge(last, 10_000), 1e-9);
+        assertEquals(5000, map.getRegionAge(0, 10_000), 1e-9);
+        assertEquals(17.5, map.getRegionCenterX(last), 0);
+        assertEquals(8.5, map.getRegionCenterY(last), 0);
+        
+        // Only the last region is older than 6 s; refreshing half of it lowers its age
+        int[] out = new int[6];
+        assertEquals(1, map.stalestRegions(10_000, 6000, out));
+        assertEquals(last, out[0]);
+        map.visit(16, 8, 9000);
+        map.visit(17, 8, 9000);
+        map.visit(18, 8, 9000);
+        map.visit(19, 8, 9000);
+        assertEquals(5000, map.getRegionAge(last, 10_000), 1e-9);
+        assertEquals(6, map.stalestRegions(10_000, 0, out));
+        assertEquals(2, map.stalestRegions(10_000, 0, out, 2));
+        assertEquals(0, out[0]); // all 5 s old now: ties go by region index
+    }
+    
+    @Test
+    public void testStalenessHistogram() {
+        CoverageMap map = new CoverageMap(10, 10, 100);
+        for (int x = 0; x < 10; x++) {
+            map.visit(x, 0, 9000); // age 1 s
+            map.visit(x, 1, 5000); // age 5 s
+        }
+        int[] h = map.stalenessHistogram(10_000, 2000, 4);
+        assertArrayEquals(new int[]{10, 0, 10, 80}, h);
+    }
+    
+    @Test
+    public void testRegionsOnEdgesOfLargeGrid() {
+        CoverageMap map = new CoverageMap(4003, 3001, 100); // partial regions on both edges
+        map.visit(4002.5, 3000.5, 9000);
+        map.visit(0, 0, 5000);
+        map.visit(4001, 2999, 9000);
+        assertEquals(3, map.getVisitedCount());
+        assertTrue(map.isVisited(4002, 3000));
+        assertFalse(map.isVisited(4002, 2999));
+        assertEquals(9000, map.getLastVisit(4001, 2999));
+        
+        int last = map.getRegionCount() - 1;
+        assertEquals(4002 - 4000 + 1, map.getRegionX1(last) - map.getRegionX0(last));
+        assertEquals(10_000 - (91 / 3.0 - 1) * 100, map.getRegionAge(last, 10_000), 1e-6); // 3 cells, one seen
+        int[] h = map.stalenessHistogram(10_000, 2000, 4);
+        assertArrayEquals(new int[]{2, 0, 1, 4003 * 3001 - 3}, h);
+        
+        map.clear();
+        assertEquals(0, map.getVisitedCount());
+        assertFalse(map.isVisited(4002, 3000));
+        assertArrayEquals(new int[]{0, 0, 0, 4003 * 3001}, map.stalenessHistogram(10_000, 2000, 4));
+    }
+}
@@ -0,0 +1,52 @@
+package com.drones.model;
+
+import java.util.Random;
+
+/**
+ * Scalar vs best available field kernel on 512² to 4096² grids (not a unit test).
+ * Run after mvn -Psimd test-compile with:
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes com.drones.model.DiffusionKernelBenchmark
+ */
+public class DiffusionKernelBenchmark {
+    
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    
+    public static void main(String[] args) {
+        DiffusionKernel scalar = new ScalarDiffusionKernel();
+        DiffusionKernel best = DiffusionKernel.best();
+        System.out.println("Kernels: " + scalar.getName() + " vs " + best.getName());
+        System.out.printf("%-10s %14s %14s %8s%n", "Grid", "scalar ns/cell", "best ns/cell", "speedup");
+        
+        for (int size = 512; size <= 4096; size *= 2) {
+            double[] src = new double[size * size];
+            double[] out = new double[size * size];
+            Random random = new Random(size);
+            for (int i = 0; i < src.length; i++) {
+                src[i] = random.nextDouble() < 0.2 ? random.nextDouble() : 0;
+            }
+            double scalarNs = time(scalar, src, out, size);
+            double bestNs = time(best, src, out, size);
+            System.out.printf("%-10s %14.3f %14.3f %7.2fx%n",
+                              size + "x" + size, scalarNs, bestNs, scalarNs / bestNs);
+        }
+    }
+    
+    // Best of ROUNDS full-grid passes, in ns per cell
+    private static double time(DiffusionKernel kernel, double[] src, double[] out, int size) {
+        double[] zeroRow = new double[size];
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < size; i++) {
+                kernel.diffuseRow(i > 0 ? src : zeroRow, i > 0 ? (i - 1) * size : 0,
+                                  src, i * size,
+                                  i < size - 1 ? src : zeroRow, i < size - 1 ? (i + 1) * size : 0,
+                                  out, i * size, 0, size, size, 0.1 / 8);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) best = Math.min(best, elapsed);
+        }
+        return (double) best / ((long) size * size);
+    }
+}
@@ -0,0 +1,42 @@
+package com.drones.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.Random;
+
+public class DiffusionKernelTest {
+    
+    @Test
+    public void testBestKernelIsBitIdenticalToScalar() {
+        DiffusionKernel scalar = new ScalarDiffusionKernel();
+        DiffusionKernel best = DiffusionKernel.best();
+        Random random = new Random(3);
+        
+        for (int width : new int[]{1, 2, 3, 5, 16, 17, 50, 131}) {
+            double[] rows = new double[3 * width];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = random.nextDouble() < 0.3 ? random.nextDouble() : 0;
+            }
+            // Full row and a tile-sized column range
+            int[][] ranges = {{0, width}, {Math.min(width, 1), Math.min(width, 17)}};
+            for (int[] range : ranges) {
+                double[] expected = new double[width];
+                double[] actual = new double[width];
+                scalar.diffuseRow(rows, 0, rows, width, rows, 2 * width, expected, 0, range[0], range[1], width, 0.1 / 8);
+                best.diffuseRow(rows, 0, rows, width, rows, 2 * width, actual, 0, range[0], range[1], width, 0.1 / 8);
+                for (int j = 0; j < width; j++) {
+                    assertEquals(best.getName() + " width " + width + " col " + j,
+                                 Double.doubleToLongBits(expected[j]), Double.doubleToLongBits(actual[j]));
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testScalarClampsToOne() {
+        double[] rows = {1, 1, 1, 1, 1, 1, 1, 1, 1};
+        double[] out = new double[3];
+        new ScalarDiffusionKernel().diffuseRow(rows, 0, rows, 3, rows, 6, out, 0, 0, 3, 3, 1.0);
+        assertArrayEquals(new double[]{1, 1, 1}, out, 0.0);
+    }
+}
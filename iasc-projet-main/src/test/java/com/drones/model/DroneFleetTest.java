@@ -0,0 +1,115 @@
+package com.drones.model;
+
+import com.drones.config.SimulationParams;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.Arrays;
+
+public class DroneFleetTest {
+    
+    private DroneFleet fleet;
+    
+    @Before
+    public void setUp() {
+        fleet = new DroneFleet(2); // grows past its initial capacity below
+        for (int i = 0; i < 5; i++) {
+            fleet.add(i, i * 3, i);
+        }
+    }
+    
+    @Test
+    public void testFlyweightViews() {
+        assertEquals(5, fleet.asList().size());
+        assertSame(fleet.get(3), fleet.asList().get(3));
+        Drone d = fleet.get(3);
+        assertEquals(3, d.getId());
+        assertEquals(9.0, d.getX(), 0.0);
+        d.setState(DroneState.CHARGING);
+        assertEquals(DroneState.CHARGING, fleet.getState(3));
+        assertEquals(1, fleet.countInState(DroneState.CHARGING));
+    }
+    
+    @Test
+    public void testBatchUpdateMatchesStandaloneDrones() {
+        Drone[] single = new Drone[5];
+        for (int i = 0; i < 5; i++) {
+            single[i] = new Drone(i, i * 3, i);
+            single[i].setWaypoints(Arrays.asList(new double[]{20, 20 - i}, new double[]{0, 0}));
+            fleet.get(i).setWaypoints(Arrays.asList(new double[]{20, 20 - i}, new double[]{0, 0}));
+        }
+        fleet.get(1).startMeasurement();
+        single[1].startMeasurement();
+        
+        int ticks = SimulationParams.DRONE_AUTONOMY_MS / SimulationParams.TICK_DURATION_MS + 100;
+        for (int t = 0; t < ticks; t++) {
+            fleet.update(SimulationParams.TICK_DURATION_MS);
+            for (int i = 0; i < 5; i++) {
+                single[i].update(SimulationParams.TICK_DURATION_MS);
+                assertEquals(single[i].getX(), fleet.getX(i), 0.0);
+                assertEquals(single[i].getY(), fleet.getY(i), 0.0);
+                assertEquals(single[i].getState(), fleet.getState(i));
+                assertEquals(single[i].getAutonomyRemaining(), fleet.getAutonomyRemaining(i));
+            }
+        }
+        assertEquals(5, fleet.countInState(DroneState.CHARGING));
+    }
+    
+    @Test
+    public void testStateChangeFlags() {
+        fleet.get(2).startMeasurement();
+        fleet.update(SimulationParams.MEASUREMENT_DURATION_MS);
+        assertTrue(fleet.stateChanged(2));
+        assertEquals(DroneState.MEASURING, fleet.getPreviousState(2));
+        assertFalse(fleet.stateChanged(0));
+    }
+    
+    @Test
+    public void testReadIntensities() {
+        IntensityField field = new IntensityField(10, 10);
+        field.deposit(3, 1, 0.8);
+        field.diffuse(0.0);
+        fleet.add(9, -1, 4);  // outside the grid
+        fleet.add(10, 3.7, 1.2);
+        double[] out = new double[fleet.size()];
+        fleet.readIntensities(field, out);
+        assertEquals(0.8, out[6], 0.0);
+        assertEquals(0.0, out[5], 0.0);
+        assertEquals(field.get(0, 0), out[0], 0.0);
+    }
+    
+    @Test
+    public void testSkipMatchesTickingTimersDown() {
+        long dt = SimulationParams.TICK_DURATION_MS;
+        DroneFleet ticked = new DroneFleet(1);
+        DroneFleet skipped = new DroneFleet(1);
+        for (DroneFleet f : new DroneFleet[]{ticked, skipped}) {
+            f.add(0, 0, 0);
+            f.setState(0, DroneState.RETURNING);
+            f.update(dt); // docks
+        }
+        assertEquals(DroneState.CHARGING, ticked.getState(0));
+        
+        long quiet = skipped.quietTicks(0, dt);
+        assertEquals(SimulationParams.DRONE_RECHARGE_MS / dt - 1, quiet);
+        skipped.skip(quiet, dt);
+        for (long t = 0; t < quiet; t++) {
+            ticked.update(dt);
+        }
+        assertEquals(DroneState.CHARGING, skipped.getState(0));
+        
+        // The tick after the quiet stretch ends the recharge in both
+        ticked.update(dt);
+        skipped.update(dt);
+        assertEquals(DroneState.ACTIVE, ticked.getState(0));
+        assertEquals(DroneState.ACTIVE, skipped.getState(0));
+        assertEquals(ticked.getAutonomyRemaining(0), skipped.getAutonomyRemaining(0));
+        
+        // Idle at base: quiet until its autonomy runs out
+        assertEquals(SimulationParams.DRONE_AUTONOMY_MS / dt - 1, skipped.quietTicks(0, dt));
+        
+        // Moving drones are never quiet
+        fleet.setWaypoints(0, Arrays.asList(new double[]{10, 10}));
+        assertEquals(0, fleet.quietTicks(0, dt));
+    }
+}
@@ -0,0 +1,91 @@
+package com.drones.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.Arrays;
+import java.util.Random;
+
+public class DroneGridTest {
+    
+    @Test
+    public void testNearestMatchesBruteForce() {
+        Random random = new Random(5);
+        DroneFleet fleet = new DroneFleet(300);
+        for (int i = 0; i < 300; i++) {
+            fleet.add(i, random.nextDouble() * 100, random.nextDouble() * 60);
+            if (i % 7 == 0) fleet.setState(i, DroneState.CHARGING); // not indexed
+        }
+        DroneGrid grid = new DroneGrid(100, 60);
+        grid.build(fleet.asList());
+        assertEquals(300 - 43, grid.size());
+        
+        boolean[] exclude = new boolean[300];
+        for (int i = 0; i < 300; i += 5) exclude[i] = true;
+        int[] out = new int[6];
+        double[] dist = new double[6];
+        for (int q = 0; q < 50; q++) {
+            double x = random.nextDouble() * 100, y = random.nextDouble() * 60;
+            assertEquals(6, grid.nearest(x, y, 6, exclude, out, dist));
+            
+            // Brute force over the eligible drones
+            double[] all = new double[300];
+            int n = 0;
+            for (int i = 0; i < 300; i++) {
+                if (fleet.getState(i) != DroneState.ACTIVE || exclude[i]) continue;
+                double dx = fleet.getX(i) - x, dy = fleet.getY(i) - y;
+                all[n++] = dx * dx + dy * dy;
+            }
+            Arrays.sort(all, 0, n);
+            for (int c = 0; c < 6; c++) {
+                assertEquals(all[c], dist[c], 1e-9);
+                assertFalse(exclude[out[c]]);
+            }
+            boolean near = false;
+            for (int i = 0; i < 300; i++) {
+                double dx = fleet.getX(i) - x, dy = fleet.getY(i) - y;
+                near |= fleet.getState(i) == DroneState.ACTIVE && dx * dx + dy * dy < 9;
+            }
+            assertEquals(near, grid.anyWithin(x, y, 3));
+        }
+    }
+    
+    @Test
+    public void testNearestFarFromAnExcludingBuild() {
+        // Drones in the lower-left corner only, queried from across the grid
+        Random random = new Random(8);
+        DroneFleet fleet = new DroneFleet(200);
+        boolean[] exclude = new boolean[200];
+        for (int i = 0; i < 200; i++) {
+            fleet.add(i, random.nextDouble() * 30, 70 + random.nextDouble() * 30);
+            exclude[i] = i % 3 == 0;
+        }
+        DroneGrid grid = new DroneGrid(200, 100);
+        grid.build(fleet.asList(), exclude);
+        assertEquals(200 - 67, grid.size());
+        
+        int[] out = new int[3];
+        double[] dist = new double[3];
+        for (int q = 0; q < 30; q++) {
+            double x = 100 + random.nextDouble() * 100, y = random.nextDouble() * 100;
+            assertEquals(3, grid.nearest(x, y, 3, null, out, dist));
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < 200; i++) {
+                double dx = fleet.getX(i) - x, dy = fleet.getY(i) - y;
+                if (!exclude[i]) best = Math.min(best, dx * dx + dy * dy);
+            }
+            assertEquals(best, dist[0], 1e-9);
+            assertFalse(exclude[out[0]] || exclude[out[1]] || exclude[out[2]]);
+        }
+    }
+    
+    @Test
+    public void testAnyWithinIsStrict() {
+        DroneFleet fleet = new DroneFleet(2);
+        fleet.add(0, 10, 10);
+        DroneGrid grid = new DroneGrid(50, 50);
+        grid.build(fleet.asList());
+        assertTrue(grid.anyWithin(13, 14, 5.01));
+        assertFalse(grid.anyWithin(13, 14, 5));
+        assertFalse(grid.anyWithin(40, 40, 5));
+    }
+}
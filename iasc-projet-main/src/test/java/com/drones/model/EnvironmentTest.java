@@ -1,12 +1,17 @@
 package com.drones.model;
 
+import com.drones.config.SimulationConfig;
 import com.drones.config.SimulationParams;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 public class EnvironmentTest {
     
+    private static final double KERNEL_TOLERANCE = 1e-12;
+    
     private Environment env;
     
     @Before
@@ -52,6 +57,18 @@ public class EnvironmentTest {
         assertTrue(afterSecondUpdate < afterFirstUpdate || afterSecondUpdate == 0);
     }
     
+    @Test
+    public void testAnomalyIntensityIsACopy() {
+        env.getAnomalies().add(new Anomaly(25, 25, 1.0, 0));
+        env.update(SimulationParams.TICK_DURATION_MS);
+        double[][] copy = env.getAnomalyIntensity();
+        assertEquals(env.getIntensity(25, 25), copy[25][25], 0);
+        
+        copy[25][25] = 42;
+        assertNotSame(copy, env.getAnomalyIntensity());
+        assertNotEquals(42, env.getIntensity(25, 25), 0);
+    }
+    
     @Test
     public void testReset() {
         env.getAnomalies().add(new Anomaly(10, 10, 0.5, 0));
@@ -72,4 +89,171 @@ public class EnvironmentTest {
         intensity = env.getAnomalyAt(100, 100);
         assertEquals(0.0, intensity, 0.001);
     }
+    
+    @Test
+    public void testDiffusionMatchesReferenceKernel() {
+        // Sources on borders, corners, tile edges and overlapping neighbourhoods
+        double[][] sources = {{0, 0, 0.9}, {49, 0, 0.6}, {0, 49, 0.7}, {49, 49, 1.0},
+                              {25, 25, 0.8}, {26, 25, 0.9}, {25, 26, 0.5}, {10, 49, 0.75},
+                              {15, 15, 0.6}, {16, 31, 0.4}, {47, 32, 0.8}};
+        double[][] grid = new double[50][50];
+        for (double[] s : sources) {
+            env.getAnomalies().add(new Anomaly(s[0], s[1], s[2], 0));
+            grid[(int) s[1]][(int) s[0]] += s[2];
+        }
+        
+        env.decayAndDiffuse();
+        
+        double[][] expected = referenceDiffuse(grid, SimulationParams.ANOMALY_DIFFUSION_FACTOR);
+        for (int y = 0; y < 50; y++) {
+            for (int x = 0; x < 50; x++) {
+                assertEquals(expected[y][x], env.getIntensity(x, y), KERNEL_TOLERANCE);
+            }
+        }
+    }
+    
+    @Test
+    public void testSourcesAreConsumedEachTick() {
+        env.getAnomalies().add(new Anomaly(5, 5, 1.0, 0));
+        env.decayAndDiffuse();
+        env.getAnomalies().clear();
+        env.decayAndDiffuse();
+        
+        for (int y = 0; y < 50; y++) {
+            for (int x = 0; x < 50; x++) {
+                assertEquals(0.0, env.getIntensity(x, y), 0.0);
+            }
+        }
+    }
+    
+    @Test
+    public void testLiveTilesFollowAnomalies() {
+        assertEquals(0, env.getField().getLiveTileCount());
+        
+        // A source on a tile corner spreads into the three neighbouring tiles
+        env.getAnomalies().add(new Anomaly(15, 15, 1.0, 0));
+        env.update(SimulationParams.TICK_DURATION_MS);
+        assertTrue(env.getField().getLiveTileCount() >= 4);
+        assertTrue(env.countCellsAbove(0) >= 9);
+        
+        // Both buffers go back to zero once the sources are gone
+        env.getAnomalies().clear();
+        env.decayAndDiffuse();
+        env.decayAndDiffuse();
+        assertEquals(0, env.countCellsAbove(0));
+        assertEquals(0.0, env.getAnomalyAt(15, 15), 0.0);
+        assertEquals(0.0, env.getAnomalyAt(16, 16), 0.0);
+    }
+    
+    @Test
+    public void testParallelUpdateIsBitIdentical() {
+        Environment sequential = new Environment(203, 157);
+        Environment parallel = new Environment(203, 157);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        parallel.setParallelExecutor(pool);
+        try {
+            Random random = new Random(42);
+            for (int tick = 0; tick < 20; tick++) {
+                for (int k = 0; k < 30; k++) {
+                    int x = random.nextInt(203), y = random.nextInt(157);
+                    double intensity = random.nextDouble();
+                    sequential.getAnomalies().add(new Anomaly(x, y, intensity, 0));
+                    parallel.getAnomalies().add(new Anomaly(x, y, intensity, 0));
+                }
+                sequential.decayAndDiffuse();
+                parallel.decayAndDiffuse();
+                for (int y = 0; y < 157; y++) {
+                    for (int x = 0; x < 203; x++) {
+                        assertEquals(Double.doubleToLongBits(sequential.getIntensity(x, y)),
+                                     Double.doubleToLongBits(parallel.getIntensity(x, y)));
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    // Scatter-based kernel the field used before it was flattened
+    private static double[][] referenceDiffuse(double[][] grid, double diffusion) {
+        int h = grid.length, w = grid[0].length;
+        double[][] out = new double[h][w];
+        for (int i = 0; i < h; i++) {
+            out[i] = grid[i].clone();
+        }
+        for (int i = 0; i < h; i++) {
+            for (int j = 0; j < w; j++) {
+                if (grid[i][j] <= 0) continue;
+                for (int di = -1; di <= 1; di++) {
+                    for (int dj = -1; dj <= 1; dj++) {
+                        if (di == 0 && dj == 0) continue;
+                        int ni = i + di, nj = j + dj;
+                        if (ni >= 0 && ni < h && nj >= 0 && nj < w) {
+                            out[ni][nj] += grid[i][j] * diffusion / 8.0;
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < h; i++) {
+            for (int j = 0; j < w; j++) {
+                out[i][j] = Math.min(1.0, out[i][j]);
+            }
+        }
+        return out;
+    }
+    
+    @Test
+    public void testSkipMatchesDecayTicks() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.spawnProbability = 0; // nothing spawns: every tick is skippable
+        Environment ticked = new Environment(config, new RandomStreams(1));
+        Environment skipped = new Environment(config.copy(), new RandomStreams(1));
+        ticked.setGeometricSpawns(true);
+        skipped.setGeometricSpawns(true);
+        for (Environment e : new Environment[]{ticked, skipped}) {
+            e.getAnomalies().add(new Anomaly(10, 10, 0.9, 0));
+            e.getAnomalies().add(new Anomaly(30, 20, 0.02, 0)); // dies during the stretch
+        }
+        
+        assertEquals(Long.MAX_VALUE, skipped.getQuietTicks());
+        for (int t = 0; t < 20; t++) {
+            ticked.update(SimulationParams.TICK_DURATION_MS);
+        }
+        skipped.skip(20, SimulationParams.TICK_DURATION_MS);
+        
+        assertEquals(ticked.getElapsedTime(), skipped.getElapsedTime());
+        assertEquals(1, skipped.getAnomalies().size());
+        assertEquals(ticked.getAnomalies().get(0).getIntensity(), skipped.getAnomalies().get(0).getIntensity(), 1e-12);
+        for (int y = 0; y < 50; y++) {
+            for (int x = 0; x < 50; x++) {
+                assertEquals(ticked.getIntensity(x, y), skipped.getIntensity(x, y), 1e-12);
+            }
+        }
+    }
+    
+    @Test
+    public void testGeometricSpawnRate() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.spawnProbability = 0.05;
+        config.decayRate = 0; // spawned anomalies vanish at once, so each one is counted
+        Environment e = new Environment(config, new RandomStreams(7));
+        e.setGeometricSpawns(true);
+        int spawns = 0;
+        int ticks = 40_000;
+        for (int t = 0; t < ticks; ) {
+            long quiet = e.getQuietTicks();
+            if (quiet > 0) {
+                quiet = Math.min(quiet, ticks - t);
+                e.skip(quiet, SimulationParams.TICK_DURATION_MS);
+                t += quiet;
+                continue;
+            }
+            e.update(SimulationParams.TICK_DURATION_MS);
+            spawns += e.getAnomalies().size() > 0 || e.getField().getLiveTileCount() > 0 ? 1 : 0;
+            t++;
+        }
+        // 2000 expected, standard deviation about 44
+        assertEquals(0.05 * ticks, spawns, 200);
+    }
 }
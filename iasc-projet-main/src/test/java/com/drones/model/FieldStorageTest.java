@@ -0,0 +1,80 @@
+package com.drones.model;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+public class FieldStorageTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    @Test
+    public void testOffHeapFieldMatchesHeapField() {
+        Environment heap = new Environment(90, 70);
+        Environment offHeap = new Environment(90, 70, FieldStorage.offHeap(90, 70));
+        assertFieldsMatch(heap, offHeap, 15);
+    }
+    
+    @Test
+    public void testMappedFieldIsReadableInPlace() throws IOException {
+        Path file = folder.newFile("field.bin").toPath();
+        Environment heap = new Environment(90, 70);
+        Environment mapped = new Environment(90, 70, FieldStorage.mapped(90, 70, file));
+        try {
+            assertFieldsMatch(heap, mapped, 3);
+            
+            // An external reader follows the header to the published buffer
+            try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = reader.map(FileChannel.MapMode.READ_ONLY, 0, FieldStorage.HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+                byte[] magic = new byte[8];
+                header.get(0, magic);
+                assertArrayEquals(FieldStorage.MAGIC, magic);
+                assertEquals(90, header.getInt(8));
+                assertEquals(70, header.getInt(12));
+                assertEquals(3, header.getLong(24));
+                
+                int front = header.getInt(16);
+                long regionBytes = 90L * 70 * Double.BYTES;
+                ByteBuffer field = reader.map(FileChannel.MapMode.READ_ONLY,
+                                              FieldStorage.HEADER_BYTES + front * regionBytes, regionBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+                for (int y = 0; y < 70; y++) {
+                    for (int x = 0; x < 90; x++) {
+                        assertEquals(heap.getIntensity(x, y), field.getDouble((y * 90 + x) * Double.BYTES), 0.0);
+                    }
+                }
+            }
+        } finally {
+            mapped.getField().getStorage().close();
+        }
+    }
+    
+    private static void assertFieldsMatch(Environment expected, Environment actual, int ticks) {
+        Random random = new Random(11);
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int k = 0; k < 20; k++) {
+                int x = random.nextInt(90), y = random.nextInt(70);
+                double intensity = random.nextDouble();
+                expected.getAnomalies().add(new Anomaly(x, y, intensity, 0));
+                actual.getAnomalies().add(new Anomaly(x, y, intensity, 0));
+            }
+            expected.decayAndDiffuse();
+            actual.decayAndDiffuse();
+            for (int y = 0; y < 70; y++) {
+                for (int x = 0; x < 90; x++) {
+                    assertEquals(expected.getIntensity(x, y), actual.getIntensity(x, y), 0.0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.drones.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class HotspotIndexTest {
+    
+    private IntensityField field;
+    private HotspotIndex hotspots;
+    private Set<Integer> heard; // set rebuilt from listener events only
+    
+    @Before
+    public void setUp() {
+        field = new IntensityField(70, 45);
+        hotspots = field.trackHotspots(0.4);
+        heard = new HashSet<>();
+        hotspots.addListener(new HotspotIndex.Listener() {
+            @Override
+            public void added(int x, int y, double value) {
+                assertTrue(value > 0.4);
+                assertTrue(heard.add(y * 70 + x));
+            }
+            
+            @Override
+            public void removed(int x, int y) {
+                assertTrue(heard.remove(y * 70 + x));
+            }
+        });
+    }
+    
+    @Test
+    public void testTracksCellsAboveThreshold() {
+        Random random = new Random(11);
+        for (int tick = 0; tick < 60; tick++) {
+            // Sources for a while, then let everything fade
+            if (tick < 30) {
+                for (int i = 0; i < 6; i++) {
+                    field.deposit(random.nextInt(70), random.nextInt(45), random.nextDouble());
+                }
+            }
+            field.diffuse(0.3);
+            
+            Set<Integer> expected = new HashSet<>();
+            field.forEachAbove(0.4, (x, y, v) -> expected.add(y * 70 + x));
+            Set<Integer> indexed = new HashSet<>();
+            for (int i = 0; i < hotspots.size(); i++) {
+                indexed.add(hotspots.getY(i) * 70 + hotspots.getX(i));
+                assertTrue(hotspots.contains(hotspots.getX(i), hotspots.getY(i)));
+            }
+            assertEquals(expected, indexed);
+            assertEquals(expected, heard);
+        }
+        assertEquals(0, hotspots.size());
+    }
+    
+    @Test
+    public void testClearNotifiesRemovals() {
+        field.deposit(10, 10, 1.0);
+        field.deposit(50, 30, 1.0);
+        field.diffuse(0.3);
+        assertEquals(2, hotspots.size());
+        assertFalse(hotspots.contains(11, 10));
+        
+        field.clear();
+        assertEquals(0, hotspots.size());
+        assertTrue(heard.isEmpty());
+        assertFalse(hotspots.contains(10, 10));
+    }
+}
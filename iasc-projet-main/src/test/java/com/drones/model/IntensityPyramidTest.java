@@ -0,0 +1,84 @@
+package com.drones.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class IntensityPyramidTest {
+    
+    private IntensityField field;
+    
+    @Before
+    public void setUp() {
+        // Not a multiple of the tile size, to cover partial edge blocks
+        field = new IntensityField(70, 45);
+        Random random = new Random(7);
+        for (int i = 0; i < 20; i++) {
+            field.deposit(random.nextInt(70), random.nextInt(45), random.nextDouble());
+        }
+        for (int i = 0; i < 5; i++) {
+            field.diffuse(0.3);
+        }
+    }
+    
+    @Test
+    public void testDescentMatchesFullScan() {
+        for (double threshold : new double[]{0.0, 0.01, 0.1, 0.5}) {
+            List<String> expected = new ArrayList<>();
+            field.forEachAbove(threshold, (x, y, v) -> expected.add(x + "," + y + "=" + v));
+            List<String> actual = new ArrayList<>();
+            field.getPyramid().forEachCellAbove(threshold, (x, y, v) -> actual.add(x + "," + y + "=" + v));
+            expected.sort(null);
+            actual.sort(null);
+            assertEquals(expected, actual);
+        }
+    }
+    
+    @Test
+    public void testCoarseLevelsBoundTheField() {
+        IntensityPyramid pyramid = field.getPyramid();
+        for (int k = IntensityPyramid.FIRST_LEVEL; k <= pyramid.getTopLevel(); k++) {
+            for (int cy = 0; cy < pyramid.getLevelHeight(k); cy++) {
+                for (int cx = 0; cx < pyramid.getLevelWidth(k); cx++) {
+                    double max = 0, sum = 0;
+                    int n = 0;
+                    for (int y = cy << k; y < Math.min(45, (cy + 1) << k); y++) {
+                        for (int x = cx << k; x < Math.min(70, (cx + 1) << k); x++) {
+                            max = Math.max(max, field.get(x, y));
+                            sum += field.get(x, y);
+                            n++;
+                        }
+                    }
+                    assertTrue(pyramid.getMax(k, cx, cy) >= max);
+                    assertEquals(max, pyramid.getMax(k, cx, cy), 1e-6);
+                    assertEquals(sum / n, pyramid.getMean(k, cx, cy), 1e-6);
+                }
+            }
+        }
+        assertEquals(1, pyramid.getLevelWidth(pyramid.getTopLevel()));
+    }
+    
+    @Test
+    public void testDecayedTilesLeaveThePyramid() {
+        for (int i = 0; i < 400; i++) {
+            field.diffuse(0.3);
+        }
+        List<int[]> cells = new ArrayList<>();
+        field.getPyramid().forEachCellAbove(0.0, (x, y, v) -> cells.add(new int[]{x, y}));
+        assertEquals(field.countAbove(0.0), cells.size());
+        
+        field.clear();
+        assertEquals(0.0, field.getPyramid().getMax(field.getPyramid().getTopLevel(), 0, 0), 0.0);
+    }
+    
+    @Test
+    public void testLevelForCellSize() {
+        IntensityPyramid pyramid = field.getPyramid();
+        assertEquals(0, pyramid.levelForCellSize(12, 3));
+        assertEquals(IntensityPyramid.FIRST_LEVEL, pyramid.levelForCellSize(1, 3));
+        assertEquals(3, pyramid.levelForCellSize(0.25, 2));
+    }
+}
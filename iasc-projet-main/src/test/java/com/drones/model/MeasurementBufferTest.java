@@ -0,0 +1,38 @@
+package com.drones.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MeasurementBufferTest {
+    
+    @Test
+    public void testColumnsGrowAndClear() {
+        MeasurementBuffer b = new MeasurementBuffer(2);
+        for (int i = 0; i < 100; i++) {
+            b.add(i * 0.01, i * 100L, i, 2 * i);
+        }
+        assertEquals(100, b.size());
+        assertEquals(0.42, b.getIntensity(42), 1e-12);
+        assertEquals(4200, b.getTimestamp(42));
+        assertEquals(42, b.getX(42), 1e-6);
+        assertEquals(84, b.getY(42), 1e-6);
+        
+        b.clear();
+        assertEquals(0, b.size());
+        assertTrue(b.asList().isEmpty());
+    }
+    
+    @Test
+    public void testListView() {
+        MeasurementBuffer b = new MeasurementBuffer();
+        b.asList().add(new Drone.Measurement(0.75, 1000, 15, 20));
+        b.add(0.5, 2000, 1.5, 2.5);
+        
+        assertEquals(2, b.asList().size());
+        Drone.Measurement m = b.asList().get(1);
+        assertEquals(0.5, m.intensity, 1e-12);
+        assertEquals(2000, m.timestamp);
+        assertEquals(1.5, m.x, 1e-6);
+        assertEquals(2.5, m.y, 1e-6);
+    }
+}
@@ -0,0 +1,257 @@
+package com.drones.model;
+
+import com.drones.config.SimulationConfig;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class NavigationTest {
+    
+    @Test
+    public void testOpenFieldIsOctileDistance() {
+        Navigation nav = new Navigation(20, 10, new double[]{0, 0}, 4);
+        FlowField f = nav.fieldTo(3 * 20 + 5);
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 20; x++) {
+                int dx = Math.abs(x - 5), dy = Math.abs(y - 3);
+                int expected = 10 * Math.max(dx, dy) + 4 * Math.min(dx, dy);
+                assertEquals("cell " + x + "," + y, expected, f.getCost(y * 20 + x));
+            }
+        }
+        assertTrue(f.isGoal(3 * 20 + 5));
+        assertEquals(3 * 20 + 6, f.next(3 * 20 + 7));
+    }
+    
+    @Test
+    public void testFollowingTheFieldAvoidsTheWall() {
+        Navigation nav = new Navigation(20, 20, new double[]{0, 0}, 4);
+        nav.setBlocked(10, 0, 11, 15, true); // wall with a gap at the bottom
+        FlowField f = nav.fieldTo(5 * 20 + 15);
+        int cell = 5 * 20 + 5, steps = 0;
+        while (!f.isGoal(cell)) {
+            int next = f.next(cell);
+            assertFalse(nav.isBlocked(next % 20, next / 20));
+            assertTrue(f.getCost(next) < f.getCost(cell));
+            cell = next;
+            assertTrue(++steps < 400);
+        }
+        assertTrue("goes round the wall", steps > 10);
+        assertFalse(nav.clearLine(5.5, 5.5, 15.5, 5.5));
+        assertTrue(nav.clearLine(5.5, 17.5, 15.5, 17.5));
+    }
+    
+    @Test
+    public void testEnclosedCellsAreUnreachable() {
+        Navigation nav = new Navigation(10, 10, new double[]{0, 0}, 4);
+        nav.setBlocked(4, 4, 7, 5, true);
+        nav.setBlocked(4, 6, 7, 7, true);
+        nav.setBlocked(4, 5, 5, 6, true);
+        nav.setBlocked(6, 5, 7, 6, true);
+        FlowField f = nav.fieldTo(0);
+        assertFalse(f.reaches(5 * 10 + 5));
+        assertTrue(f.reaches(9 * 10 + 9));
+    }
+    
+    @Test
+    public void testRepairMatchesRecompute() {
+        Random rnd = new Random(7);
+        Navigation nav = new Navigation(40, 30, new double[]{0, 0, 39, 29}, 8);
+        FlowField base = nav.baseField();
+        FlowField target = nav.fieldTo(15 * 40 + 20);
+        for (int edit = 0; edit < 60; edit++) {
+            int x = rnd.nextInt(40), y = rnd.nextInt(30);
+            nav.setBlocked(x, y, x + 1 + rnd.nextInt(6), y + 1 + rnd.nextInt(6), rnd.nextInt(3) > 0);
+            
+            Navigation fresh = new Navigation(40, 30, new double[]{0, 0, 39, 29}, 8);
+            for (int c = 0; c < 40 * 30; c++) {
+                if (nav.isBlocked(c % 40, c / 40)) fresh.setBlocked(c % 40, c / 40, c % 40 + 1, c / 40 + 1, true);
+            }
+            FlowField expectedBase = fresh.baseField();
+            FlowField expectedTarget = fresh.fieldTo(15 * 40 + 20);
+            for (int c = 0; c < 40 * 30; c++) {
+                assertEquals("edit " + edit + " cell " + c, expectedBase.getCost(c), base.getCost(c));
+                assertEquals("edit " + edit + " cell " + c, expectedTarget.getCost(c), target.getCost(c));
+                if (target.reaches(c) && !target.isGoal(c)) {
+                    int next = target.next(c);
+                    int step = next % 40 != c % 40 && next / 40 != c / 40 ? FlowField.DIAGONAL : FlowField.STRAIGHT;
+                    assertEquals(target.getCost(c), target.getCost(next) + step);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testFieldsAreCachedAndEvicted() {
+        Navigation nav = new Navigation(10, 10, new double[]{0, 0}, 2);
+        FlowField a = nav.fieldTo(11);
+        assertSame(a, nav.fieldTo(11));
+        nav.fieldTo(22);
+        nav.fieldTo(11); // most recent again
+        nav.fieldTo(33); // evicts 22
+        assertSame(a, nav.fieldTo(11));
+        assertEquals(2, nav.getCachedFieldCount());
+    }
+    
+    @Test
+    public void testTargetFieldsSpanAWindow() {
+        Navigation nav = new Navigation(200, 200, new double[]{0, 0}, 4, 8);
+        int target = 100 * 200 + 100;
+        FlowField f = nav.fieldTo(target);
+        assertFalse(f.isWholeGrid());
+        assertEquals(92, f.getWindowX0());
+        assertEquals(109, f.getWindowY1());
+        assertFalse(f.covers(0));
+        assertEquals(FlowField.UNREACHABLE, f.getCost(0));
+        assertEquals(-1, f.next(0));
+        
+        // Asked from further away, the window grows to take the drone in
+        int from = 100 * 200 + 10;
+        FlowField wider = nav.fieldTo(target, from);
+        assertNotSame(f, wider);
+        assertEquals(900, wider.getCost(from));
+        assertEquals(0, wider.getWindowX0()); // padded by the old window size
+        assertFalse(wider.isWholeGrid());
+        assertSame(wider, nav.fieldTo(target, 100 * 200 + 50));
+    }
+    
+    @Test
+    public void testWindowGrowsRoundALongWall() {
+        Navigation nav = new Navigation(200, 200, new double[]{0, 0}, 4, 4);
+        nav.setBlocked(50, 0, 51, 190, true); // gap at the bottom, far outside the first window
+        Navigation whole = new Navigation(200, 200, new double[]{0, 0}, 4, 1000);
+        whole.setBlocked(50, 0, 51, 190, true);
+        int target = 20 * 200 + 60, from = 20 * 200 + 40;
+        FlowField f = nav.fieldTo(target, from);
+        assertTrue(f.reaches(from));
+        assertEquals(whole.fieldTo(target).getCost(from), f.getCost(from));
+        assertTrue(whole.fieldTo(target).isWholeGrid());
+        
+        // Walled off for good: only the whole grid says so
+        nav.setBlocked(0, 190, 200, 191, true);
+        assertFalse(nav.fieldTo(target, from).reaches(from));
+        assertTrue(nav.fieldTo(target, from).isWholeGrid());
+    }
+    
+    @Test
+    public void testGapJustOutsideTheWindowIsTaken() {
+        int target = 10 * 100 + 60, far = 10 * 100 + 40, near = 20 * 100 + 45;
+        Navigation whole = new Navigation(100, 60, new double[]{0, 0}, 4, 1000);
+        int[] orders = {far, near, near, far};
+        for (int o = 0; o < orders.length; o += 2) {
+            Navigation nav = new Navigation(100, 60, new double[]{0, 0}, 4, 10);
+            for (Navigation n : new Navigation[]{nav, whole}) {
+                n.setBlocked(50, 0, 51, 8, true);
+                n.setBlocked(50, 9, 51, 21, true);
+                n.setBlocked(50, 22, 51, 60, true); // gaps at y = 8 and y = 21
+            }
+            FlowField first = nav.fieldTo(target, orders[o]);
+            FlowField second = nav.fieldTo(target, orders[o + 1]);
+            if (o == 0) {
+                // The first drone's window ends just above the lower gap, yet reaches the second drone the long way
+                assertEquals(21, first.getWindowY1());
+                assertTrue(first.reaches(near));
+                assertTrue(first.getCost(near) > whole.fieldTo(target).getCost(near));
+                assertNotSame(first, second);
+            }
+            for (int from : new int[]{far, near}) {
+                FlowField f = from == orders[o] ? first : second;
+                assertEquals(path(whole.fieldTo(target), from), path(f, from));
+            }
+        }
+        assertTrue(path(whole.fieldTo(target), near).contains(21 * 100 + 50));
+    }
+    
+    private static List<Integer> path(FlowField f, int cell) {
+        List<Integer> cells = new ArrayList<>();
+        cells.add(cell);
+        while (!f.isGoal(cell)) {
+            cell = f.next(cell);
+            cells.add(cell);
+        }
+        return cells;
+    }
+    
+    @Test
+    public void testConcurrentRequestsShareOneField() throws Exception {
+        Navigation nav = new Navigation(300, 300, new double[]{0, 0}, 8, 16);
+        nav.setBlocked(100, 0, 101, 250, true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<FlowField>> fields = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                int target = (i % 2) * 300 + 150 + 20 * 300;
+                fields.add(executor.submit(() -> nav.fieldTo(target, 20 * 300 + 50)));
+            }
+            for (int i = 2; i < 16; i++) {
+                assertSame(fields.get(i % 2).get(), fields.get(i).get());
+            }
+            assertTrue(fields.get(0).get().reaches(20 * 300 + 50));
+            assertEquals(2, nav.getCachedFieldCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testDroneFliesRoundNoFlyZone() {
+        SimulationConfig config = SimulationConfig.defaults().withGrid(30, 30);
+        config.noFlyZones = new int[]{10, 0, 12, 25};
+        DroneFleet fleet = new DroneFleet(config, 1, new TimingWheel(config.tickDurationMs), new Navigation(config));
+        fleet.add(0, 5, 5);
+        fleet.setWaypoints(0, List.of(new double[]{20, 5}));
+        Navigation nav = fleet.getNavigation();
+        int ticks = 0;
+        while (fleet.getWaypointCount(0) > 0) {
+            fleet.update(config.tickDurationMs);
+            assertFalse(nav.isBlocked((int) Math.floor(fleet.getX(0)), (int) Math.floor(fleet.getY(0))));
+            assertTrue(++ticks < 1000);
+        }
+        assertEquals(20, fleet.getX(0), 0.5);
+        assertEquals(5, fleet.getY(0), 0.5);
+    }
+    
+    @Test
+    public void testBlockedWaypointsAreDropped() {
+        SimulationConfig config = SimulationConfig.defaults().withGrid(30, 30);
+        config.noFlyZones = new int[]{10, 10, 20, 20};
+        DroneFleet fleet = new DroneFleet(config, 1, new TimingWheel(config.tickDurationMs), new Navigation(config));
+        fleet.add(0, 5, 5);
+        fleet.setPlan(0, new WaypointCursor(12, 12, 18, 18));
+        fleet.update(config.tickDurationMs);
+        assertEquals(0, fleet.getWaypointCount(0));
+        assertTrue(fleet.isIdle(0));
+    }
+    
+    @Test
+    public void testReturnsToNearestBase() {
+        SimulationConfig config = SimulationConfig.defaults().withGrid(30, 30);
+        config.bases = new double[]{0, 0, 29, 29};
+        config.droneAutonomyMs = config.tickDurationMs;
+        DroneFleet fleet = new DroneFleet(config, 1, new TimingWheel(config.tickDurationMs), new Navigation(config));
+        fleet.add(0, 25, 20);
+        for (int t = 0; t < 200 && fleet.getState(0) != DroneState.CHARGING; t++) {
+            fleet.update(config.tickDurationMs);
+        }
+        assertEquals(DroneState.CHARGING, fleet.getState(0));
+        assertEquals(29, fleet.getX(0), 0.5);
+        assertEquals(29, fleet.getY(0), 0.5);
+    }
+    
+    @Test
+    public void testConfigCopyKeepsNavigation() {
+        SimulationConfig config = SimulationConfig.defaults();
+        config.noFlyZones = new int[]{1, 2, 3, 4};
+        config.navigationWindowMargin = 5;
+        SimulationConfig copy = config.copy();
+        config.noFlyZones[0] = 9;
+        assertTrue(Arrays.equals(new int[]{1, 2, 3, 4}, copy.noFlyZones));
+        assertEquals(4, new Navigation(copy).getBlockedCount());
+        assertEquals(5, copy.navigationWindowMargin);
+    }
+}
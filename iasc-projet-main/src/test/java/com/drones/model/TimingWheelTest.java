@@ -0,0 +1,98 @@
+package com.drones.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimingWheelTest {
+    
+    @Test
+    public void testFiresOnceAtDeadline() {
+        TimingWheel wheel = new TimingWheel(100);
+        List<Integer> fired = new ArrayList<>();
+        wheel.schedule(0, 500);
+        wheel.schedule(1, 250); // rounded up to 300
+        assertEquals(2, wheel.size());
+        
+        wheel.advanceTo(200, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(300, fired::add);
+        assertEquals(List.of(1), fired);
+        wheel.advanceTo(499, fired::add);
+        assertEquals(1, fired.size());
+        wheel.advanceTo(500, fired::add);
+        assertEquals(List.of(1, 0), fired);
+        assertEquals(0, wheel.size());
+        assertFalse(wheel.isScheduled(0));
+    }
+    
+    @Test
+    public void testCancelAndReschedule() {
+        TimingWheel wheel = new TimingWheel(1);
+        List<Integer> fired = new ArrayList<>();
+        wheel.schedule(3, 10);
+        wheel.schedule(4, 10);
+        wheel.cancel(3);
+        wheel.schedule(4, 20); // replaces the pending deadline
+        wheel.advanceTo(15, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(20, fired::add);
+        assertEquals(List.of(4), fired);
+    }
+    
+    @Test
+    public void testPastDeadlineFiresOnNextAdvance() {
+        TimingWheel wheel = new TimingWheel(10);
+        List<Integer> fired = new ArrayList<>();
+        wheel.schedule(0, 1000);
+        wheel.advanceTo(100, fired::add);
+        wheel.schedule(1, 50);
+        wheel.advanceTo(110, fired::add);
+        assertEquals(List.of(1), fired);
+    }
+    
+    @Test
+    public void testExactSlotAcrossLevels() {
+        long[] deadlines = {1, 255, 256, 257, 300, 65535, 65536, 70000, 1L << 24, (1L << 25) + 3, (1L << 32) + 5};
+        TimingWheel wheel = new TimingWheel(1);
+        for (int id = 0; id < deadlines.length; id++) {
+            wheel.schedule(id, deadlines[id]);
+        }
+        long[] firedAt = new long[deadlines.length];
+        long[] now = new long[1];
+        for (int id = 0; id < deadlines.length; id++) {
+            // Step to one slot before the deadline, then onto it
+            wheel.advanceTo(deadlines[id] - 1, x -> firedAt[x] = now[0]);
+            now[0] = deadlines[id];
+            wheel.advanceTo(deadlines[id], x -> firedAt[x] = now[0]);
+        }
+        for (int id = 0; id < deadlines.length; id++) {
+            assertEquals("timer " + id, deadlines[id], firedAt[id]);
+        }
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    public void testEmptySpansAreJumped() {
+        TimingWheel wheel = new TimingWheel(1);
+        List<Integer> fired = new ArrayList<>();
+        wheel.schedule(0, 1L << 40); // parked past the top level, re-placed as the wheel turns
+        wheel.schedule(1, 1L << 20);
+        wheel.advanceTo((1L << 40) - 1, fired::add); // a slot per iteration would take hours
+        assertEquals(List.of(1), fired);
+        wheel.advanceTo(1L << 40, fired::add);
+        assertEquals(List.of(1, 0), fired);
+    }
+    
+    @Test
+    public void testIdleWheelJumps() {
+        TimingWheel wheel = new TimingWheel(100);
+        wheel.advanceTo(1_000_000_000_000L, id -> fail());
+        assertEquals(1_000_000_000_000L, wheel.getTime());
+        List<Integer> fired = new ArrayList<>();
+        wheel.schedule(7, wheel.getTime() + 100);
+        wheel.advanceTo(wheel.getTime() + 100, fired::add);
+        assertEquals(List.of(7), fired);
+    }
+}
@@ -0,0 +1,95 @@
+package com.drones.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TrajectoryBufferTest {
+    
+    @Test
+    public void testStraightRunsCollapse() {
+        TrajectoryBuffer t = new TrajectoryBuffer(100, 0.01);
+        for (int i = 0; i <= 10; i++) {
+            t.add(i, 0);      // along x
+        }
+        for (int i = 1; i <= 10; i++) {
+            t.add(10, i);     // then along y
+        }
+        t.add(10, 10);        // stationary
+        assertEquals(3, t.size());
+        assertArrayEquals(new double[]{0, 0}, t.get(0), 0.0);
+        assertArrayEquals(new double[]{10, 0}, t.get(1), 0.0);
+        assertArrayEquals(new double[]{10, 10}, t.get(2), 0.0);
+    }
+    
+    @Test
+    public void testTurningBackIsKept() {
+        TrajectoryBuffer t = new TrajectoryBuffer(100, 0.01);
+        t.add(0, 0);
+        t.add(5, 0);
+        t.add(2, 0); // collinear but reverses direction
+        assertEquals(3, t.size());
+        assertEquals(5.0, t.getX(1), 0.0);
+    }
+    
+    @Test
+    public void testArcStaysWithinTolerance() {
+        double tolerance = 0.05, r = 100;
+        TrajectoryBuffer t = new TrajectoryBuffer(10_000, tolerance);
+        int n = 1000;
+        double[][] arc = new double[n][];
+        for (int i = 0; i < n; i++) {
+            double a = i * 0.005; // half a cell apart, over a quarter turn
+            arc[i] = new double[]{r * Math.cos(a), r * Math.sin(a)};
+            t.add(arc[i][0], arc[i][1]);
+        }
+        assertTrue("simplified, " + t.size() + " points", t.size() < n / 4);
+        double worst = 0;
+        for (double[] p : arc) {
+            double best = Double.MAX_VALUE;
+            for (int k = 0; k + 1 < t.size(); k++) {
+                best = Math.min(best, segmentDistance(p, t.get(k), t.get(k + 1)));
+            }
+            worst = Math.max(worst, best);
+        }
+        assertTrue("max deviation " + worst, worst <= tolerance + 1e-3); // float storage
+    }
+    
+    private static double segmentDistance(double[] p, double[] a, double[] b) {
+        double abx = b[0] - a[0], aby = b[1] - a[1];
+        double u = ((p[0] - a[0]) * abx + (p[1] - a[1]) * aby) / (abx * abx + aby * aby);
+        u = Math.max(0, Math.min(1, u));
+        return Math.hypot(p[0] - a[0] - u * abx, p[1] - a[1] - u * aby);
+    }
+    
+    @Test
+    public void testOldestPointsAreOverwritten() {
+        TrajectoryBuffer t = new TrajectoryBuffer(4, 0.01);
+        // Zig-zag, nothing to simplify
+        for (int i = 0; i < 10; i++) {
+            t.add(i, i % 2);
+        }
+        assertEquals(4, t.size());
+        assertEquals(6.0, t.getX(0), 0.0);
+        assertEquals(9.0, t.getX(3), 0.0);
+        assertEquals(1.0, t.getY(3), 0.0);
+        
+        t.clear();
+        assertTrue(t.isEmpty());
+        t.add(new double[]{1.5, 2.5});
+        assertArrayEquals(new double[]{1.5, 2.5}, t.get(0), 0.0);
+    }
+    
+    @Test
+    public void testCopyToUnwrapsRing() {
+        TrajectoryBuffer t = new TrajectoryBuffer(4, 0.01);
+        for (int i = 0; i < 6; i++) {
+            t.add(i, i % 2);
+        }
+        float[] out = new float[8];
+        assertEquals(4, t.copyTo(out));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(t.getX(i), out[2 * i], 0.0);
+            assertEquals(t.getY(i), out[2 * i + 1], 0.0);
+        }
+    }
+}
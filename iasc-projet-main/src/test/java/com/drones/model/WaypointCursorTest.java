@@ -0,0 +1,48 @@
+package com.drones.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.List;
+
+public class WaypointCursorTest {
+    
+    @Test
+    public void testBoustrophedonThenBase() {
+        WaypointCursor c = new WaypointCursor(2, 5, 5, 7, 0, 0);
+        assertEquals(7, c.size());
+        double[][] expected = {{2, 5}, {3, 5}, {4, 5}, {4, 6}, {3, 6}, {2, 6}, {0, 0}};
+        assertEquals(6, c.getY(3), 0); // lookahead
+        for (double[] p : expected) {
+            assertTrue(c.hasNext());
+            assertEquals(p[0], c.getX(0), 0);
+            assertEquals(p[1], c.getY(0), 0);
+            c.next();
+        }
+        assertFalse(c.hasNext());
+        assertEquals(0, c.remaining());
+        
+        c.rewind();
+        assertEquals(7, c.remaining());
+    }
+    
+    @Test
+    public void testDroneFollowsPlan() {
+        Drone drone = new Drone(0, 0, 0);
+        drone.setPlan(new WaypointCursor(0, 0, 4, 2, 0, 0));
+        for (int t = 0; t < 50; t++) {
+            drone.update(200);
+        }
+        assertTrue(drone.isIdle());
+        assertTrue(drone.isAtBase());
+        
+        // Waypoints given as a list replace the plan
+        DroneFleet fleet = new DroneFleet(1);
+        fleet.add(0, 0, 0);
+        fleet.setPlan(0, new WaypointCursor(0, 0, 10, 10));
+        assertEquals(100, fleet.getWaypointCount(0));
+        assertEquals(9, fleet.getWaypointX(0, 10), 0);
+        fleet.get(0).setWaypoints(List.of(new double[]{3, 3}));
+        assertEquals(1, fleet.getWaypointCount(0));
+        assertNull(fleet.getPlan(0));
+    }
+}